@@ -0,0 +1,41 @@
+package algorithms.AStarHeuristic;
+
+import algorithms.SSSP.*;
+import selfdualgraph.*;
+
+/**
+ * Lower bound on the distance from a vertex to the target of an A* search
+ * <p>
+ * A heuristic is bound to one CompactGraph and distance measure by init(), then only read,
+ * so one instance can serve concurrent searches.
+ * estimate() must be admissible (never larger than the distance) and consistent
+ * (estimate(u, t) <= length(u, v) + estimate(v, t) for each dart u -> v), so A* settles each vertex once.
+ */
+public abstract class AStarHeuristic {
+    protected CompactGraph cg;
+    protected int distance_measure;
+
+    /**
+     * precompute what the heuristic needs, called once before the first search
+     *
+     * @param cg
+     * @param dist_measure SSSP.WEIGHT_AS_DISTANCE or SSSP.CAPACITY_AS_DISTANCE
+     */
+    public void init(CompactGraph cg, int dist_measure) {
+        this.cg = cg;
+        distance_measure = dist_measure;
+    }
+
+    /**
+     * @param v dense vertex index
+     * @param t dense index of target vertex
+     * @return lower bound on the distance from v to t
+     */
+    public abstract double estimate(int v, int t);
+
+    protected double getDartDist(int d) {
+        if (distance_measure == SSSP.WEIGHT_AS_DISTANCE) return cg.getWeight(d);
+        else if (distance_measure == SSSP.CAPACITY_AS_DISTANCE) return cg.getCapacity(d);
+        else throw new RuntimeException("Distance measure not set correctly.");
+    }
+}
@@ -0,0 +1,41 @@
+package algorithms.AStarHeuristic;
+
+import selfdualgraph.*;
+
+/**
+ * straight-line distance between vertex coordinates, scaled by the minimum length / straight-line ratio over all darts
+ * <p>
+ * every dart is at least scale times as long as the segment between its ends,
+ * so by the triangle inequality every path is at least scale times the straight-line distance between its ends
+ * scale is 0 (no guidance) if some dart has length 0 between distinct points
+ */
+public class EuclideanHeuristic extends AStarHeuristic {
+    private double scale;
+
+    @Override
+    public void init(CompactGraph cg, int dist_measure) {
+        super.init(cg, dist_measure);
+        scale = Double.POSITIVE_INFINITY;
+        for (int d = 0; d < cg.getDartNum(); d++) {
+            double euclid = distance(cg.getTail(d), cg.getHead(d));
+            if (euclid > 0) scale = Math.min(scale, getDartDist(d) / euclid);
+        }
+        // slightly smaller, so rounding never makes the bound inconsistent
+        scale = scale == Double.POSITIVE_INFINITY ? 0 : scale * (1 - 1e-9);
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    private double distance(int u, int v) {
+        double dx = cg.getCoordX(u) - cg.getCoordX(v);
+        double dy = cg.getCoordY(u) - cg.getCoordY(v);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    @Override
+    public double estimate(int v, int t) {
+        return scale * distance(v, t);
+    }
+}
@@ -0,0 +1,98 @@
+package algorithms.AStarHeuristic;
+
+import algorithms.IndexedHeap.*;
+import selfdualgraph.*;
+
+import java.util.*;
+
+/**
+ * ALT lower bounds from precomputed distances to and from a few landmark vertices
+ * <p>
+ * by the triangle inequality, for each landmark L:
+ * dist(v, t) >= dist(L, t) - dist(L, v) and dist(v, t) >= dist(v, L) - dist(t, L)
+ * the estimate is the largest bound over all landmarks
+ * <p>
+ * landmarks are chosen farthest-first: the vertex with the smallest index, then repeatedly
+ * the vertex farthest from all landmarks chosen so far
+ */
+public class LandmarkHeuristic extends AStarHeuristic {
+    private final int landmarkNum;
+    private int[] landmarks;
+    private double[][] from;    // from[i][v] = dist(landmark i, v)
+    private double[][] to;      // to[i][v] = dist(v, landmark i)
+
+    public LandmarkHeuristic(int landmarkNum) {
+        if (landmarkNum < 1) {
+            throw new RuntimeException("At least one landmark is needed.");
+        }
+        this.landmarkNum = landmarkNum;
+    }
+
+    @Override
+    public void init(CompactGraph cg, int dist_measure) {
+        super.init(cg, dist_measure);
+        int V = cg.getVertexNum();
+        int k = Math.min(landmarkNum, V);
+        landmarks = new int[k];
+        from = new double[k][];
+        to = new double[k][];
+        double[] nearest = new double[V];      // distance to the nearest landmark so far
+        Arrays.fill(nearest, Double.POSITIVE_INFINITY);
+        IndexedHeap pq = new BinaryHeap();
+        int next = 0;
+        for (int i = 0; i < k; i++) {
+            landmarks[i] = next;
+            from[i] = distances(next, false, pq);
+            to[i] = distances(next, true, pq);
+            int farthest = -1;
+            for (int v = 0; v < V; v++) {
+                if (from[i][v] < nearest[v]) nearest[v] = from[i][v];
+                if (nearest[v] < Double.MAX_VALUE && (farthest < 0 || nearest[v] > nearest[farthest])) farthest = v;
+            }
+            next = farthest;
+        }
+    }
+
+    /**
+     * @param reverse false for distances from s, true for distances to s (search on the reverse darts)
+     * @return Double.MAX_VALUE for vertices not connected to s
+     */
+    private double[] distances(int s, boolean reverse, IndexedHeap pq) {
+        double[] dist = new double[cg.getVertexNum()];
+        Arrays.fill(dist, Double.MAX_VALUE);
+        dist[s] = 0;
+        pq.init(cg.getVertexNum());
+        pq.insert(s, 0);
+        while (!pq.isEmpty()) {
+            int v = pq.deleteMin();
+            for (int i = 0, d = cg.getFirstDart(v); i < cg.getDegree(v); i++, d = cg.getSuccessor(d)) {
+                int u = cg.getHead(d);
+                double newDist = dist[v] + getDartDist(reverse ? cg.getReverse(d) : d);
+                if (newDist < dist[u]) {
+                    dist[u] = newDist;
+                    if (pq.contains(u)) pq.decreaseKey(u, newDist);
+                    else pq.insert(u, newDist);
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * @return dense indices of the landmarks
+     */
+    public int[] getLandmarks() {
+        return landmarks;
+    }
+
+    @Override
+    public double estimate(int v, int t) {
+        double best = 0;
+        for (int i = 0; i < landmarks.length; i++) {
+            double[] f = from[i], b = to[i];
+            if (f[t] < Double.MAX_VALUE && f[v] < Double.MAX_VALUE) best = Math.max(best, f[t] - f[v]);
+            if (b[v] < Double.MAX_VALUE && b[t] < Double.MAX_VALUE) best = Math.max(best, b[v] - b[t]);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,384 @@
+package algorithms.DistanceOracle;
+
+import algorithms.SSSP.*;
+import algorithms.Separator.*;
+import selfdualgraph.*;
+
+import java.util.*;
+
+/**
+ * (1 + eps)-approximate distance oracle from shortest path separators (Thorup, Klein)
+ * <p>
+ * The pieces are the nodes of a SeparatorTree: a connected piece is split by a ShortestPathSeparator, two
+ * shortest paths Q of the piece, into the components of the piece without them; pieces of at most leafSize
+ * vertices are leaves, each of their vertices is a path of its own. For every piece P containing v and every
+ * path Q of P, the label of v keeps a set of portals p on Q with their distances dist_P(v, p), such that for
+ * every x on Q some portal has dist_P(v, p) + |Q[p, x]| <= (1 + eps) dist_P(v, x). Portals are chosen
+ * greedily in order of distance; the classic construction shows O(1/eps) of them suffice.
+ * <p>
+ * A short path is searched in full from each of its vertices. On a long one, searches from vertices spaced
+ * along Q are bounded by distance scales (see scaledPortals()), which takes O(n log n log L / eps) per level
+ * of the tree instead of O(|Q| n log n), L the ratio of the length of Q to its shortest edge; a path is
+ * long when |Q| exceeds the number of bounded searches expected to reach a vertex.
+ * <p>
+ * If a shortest u-v path first meets a separator path Q in the common piece P, at x, the portals of u and v
+ * nearest to x give dist(u, p) + |Q[p, q]| + dist(q, v) <= (1 + eps) dist(u, v), and every such sum is the
+ * length of a u-v walk; so the minimum over the common pieces is within a factor 1 + eps of dist(u, v).
+ * With portals sorted by their position on Q, one merge of the two portal lists gives the minimum for Q,
+ * a query takes O(log n / eps) over the O(log n) levels. This is not the O(1/eps) query of Thorup's oracle,
+ * which also splits distances into scales to look at O(1) pieces per query; every common piece is scanned.
+ * <p>
+ * Assume: the length of a dart equals the length of its reverse, the constructor throws otherwise.
+ */
+public class ApproxDistanceOracle extends DistanceOracle {
+    public static final int DEFAULT_LEAF_SIZE = 16;
+
+    private final double eps;
+    private final int[] ids;        // vertex IDs, ascending, label i belongs to ids[i]
+    private final int[] offset;
+    // label: entries (piece, k, then k times (count, count times (position on Q, distance))),
+    // pieces from the root down
+    private final double[] labels;
+
+    public ApproxDistanceOracle(SelfDualGraph g, int dist_measure, double eps) {
+        this(g, dist_measure, eps, DEFAULT_LEAF_SIZE);
+    }
+
+    /**
+     * @param g
+     * @param dist_measure
+     * @param eps          relative error allowed, positive
+     * @param leafSize     pieces up to this size are not separated further, distances within them are exact
+     */
+    public ApproxDistanceOracle(SelfDualGraph g, int dist_measure, double eps, int leafSize) {
+        this(g, dist_measure, eps,
+                new SeparatorTree(g, piece -> new ShortestPathSeparator(piece, dist_measure), leafSize));
+    }
+
+    /**
+     * @param g
+     * @param dist_measure
+     * @param eps          relative error allowed, positive
+     * @param tree         decomposition of g by ShortestPathSeparator with the same distance measure
+     */
+    public ApproxDistanceOracle(SelfDualGraph g, int dist_measure, double eps, SeparatorTree tree) {
+        this(g, dist_measure, eps, tree, false);
+    }
+
+    /**
+     * @param g
+     * @param dist_measure
+     * @param eps          relative error allowed, positive
+     * @param tree         decomposition of g by ShortestPathSeparator with the same distance measure
+     * @param boundedOnly  portals of every path from bounded searches, otherwise a path short enough is
+     *                     searched in full from each of its vertices
+     */
+    public ApproxDistanceOracle(SelfDualGraph g, int dist_measure, double eps, SeparatorTree tree,
+                                boolean boundedOnly) {
+        if (eps <= 0) {
+            throw new RuntimeException("eps must be positive");
+        }
+        this.eps = eps;
+        PieceSearch search = new PieceSearch(g, dist_measure);
+        CompactGraph cg = search.getCompactGraph();
+        int V = cg.getVertexNum();
+        for (int d = 0; d < cg.getDartNum(); d++) {
+            if (length(cg, d, dist_measure) != length(cg, cg.getReverse(d), dist_measure)) {
+                throw new RuntimeException("ApproxDistanceOracle needs darts as long as their reverse");
+            }
+        }
+
+        Integer[] byID = new Integer[V];
+        for (int v = 0; v < V; v++) byID[v] = v;
+        Arrays.sort(byID, Comparator.comparingInt(cg::getVertexID));
+        ids = new int[V];
+        for (int i = 0; i < V; i++) ids[i] = cg.getVertexID(byID[i]);
+
+        // pieces in preorder, so every label is appended from the root down
+        List<SeparatorTree.Node> pieces = tree.preorder();
+        double[][] label = new double[V][16];
+        int[] size = new int[V];
+        int[] local = new int[V];       // position of a vertex in its piece
+        for (int p = 0; p < pieces.size(); p++) {
+            int[] vertices = search.indicesOf(pieces.get(p).getVertices());
+            int[][] paths = paths(pieces.get(p), vertices, search);
+            if (paths.length == 0) continue;
+            for (int v : vertices) {
+                size[v] = append(label, v, size[v], p);
+                size[v] = append(label, v, size[v], paths.length);
+            }
+            search.mark(vertices);
+            for (int i = 0; i < vertices.length; i++) local[vertices[i]] = i;
+            for (int[] path : paths) {
+                // positions on the path, it is a shortest path from its first vertex
+                SSSPResult res = search.search(path[0], false);
+                double[] position = new double[path.length];
+                for (int i = 0; i < path.length; i++) position[i] = res.getDist(path[i]);
+                if (boundedOnly || path.length > boundedCandidates(position)) {
+                    scaledPortals(path, position, vertices, local, search, label, size);
+                    continue;
+                }
+                double[][] dist = new double[path.length][vertices.length];
+                for (int i = 0; i < path.length; i++) {
+                    res = search.search(path[i], false);
+                    for (int j = 0; j < vertices.length; j++) dist[i][j] = res.getDist(vertices[j]);
+                }
+                for (int j = 0; j < vertices.length; j++) {
+                    int v = vertices[j];
+                    int[] portals = portals(dist, position, j);
+                    size[v] = append(label, v, size[v], portals.length);
+                    for (int i : portals) {
+                        size[v] = append(label, v, size[v], position[i]);
+                        size[v] = append(label, v, size[v], dist[i][j]);
+                    }
+                }
+            }
+        }
+
+        offset = new int[V + 1];
+        for (int i = 0; i < V; i++) offset[i + 1] = offset[i] + size[byID[i]];
+        labels = new double[offset[V]];
+        for (int i = 0; i < V; i++) System.arraycopy(label[byID[i]], 0, labels, offset[i], size[byID[i]]);
+    }
+
+    private static double length(CompactGraph cg, int d, int dist_measure) {
+        return dist_measure == SSSP.WEIGHT_AS_DISTANCE ? cg.getWeight(d) : cg.getCapacity(d);
+    }
+
+    private static int append(double[][] label, int v, int size, double x) {
+        if (size == label[v].length) label[v] = Arrays.copyOf(label[v], 2 * size);
+        label[v][size] = x;
+        return size + 1;
+    }
+
+    /**
+     * greedy eps-cover of a path: vertices of the path in order of distance from v, a vertex not yet covered
+     * by a portal within a factor 1 + eps becomes a portal
+     *
+     * @param dist     dist[i][j], from the i-th vertex of the path to the j-th vertex of the piece
+     * @param position positions on the path
+     * @param v        position of v in the piece
+     * @return indices on the path of the portals of v, in path order
+     */
+    private int[] portals(double[][] dist, double[] position, int v) {
+        Integer[] order = new Integer[position.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble(i -> dist[i][v]));
+        List<Integer> portals = new ArrayList<>();
+        for (int i : order) {
+            boolean covered = false;
+            for (int p : portals) {
+                if (dist[p][v] + Math.abs(position[p] - position[i]) <= (1 + eps) * dist[i][v]) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered) portals.add(i);
+        }
+        Collections.sort(portals);
+        int[] result = new int[portals.size()];
+        for (int i = 0; i < result.length; i++) result[i] = portals.get(i);
+        return result;
+    }
+
+    /**
+     * error of the scales and of the cover in scaledPortals(), together a factor 1 + eps
+     */
+    private double scaleEps() {
+        return Math.sqrt(1 + eps) - 1;
+    }
+
+    /**
+     * smallest positive gap between positions, the finest scale of scaledPortals()
+     */
+    private static double minGap(double[] position) {
+        double gap = Double.POSITIVE_INFINITY;
+        for (int i = 0; i + 1 < position.length; i++) {
+            double d = Math.abs(position[i + 1] - position[i]);
+            if (d > 0 && d < gap) gap = d;
+        }
+        return gap;
+    }
+
+    /**
+     * @param position positions on the path
+     * @return about the number of bounded searches of scaledPortals() settling one vertex
+     */
+    private double boundedCandidates(double[] position) {
+        double e = scaleEps(), gap = minGap(position), length = 0;
+        for (double x : position) length = Math.max(length, x);
+        if (gap == Double.POSITIVE_INFINITY) return 2;
+        double levels = Math.floor(Math.log(length / gap) / Math.log(2)) + 1;
+        return 4 / e + 1 + levels * (2 * (4 / e + 1) + 1) + 2;
+    }
+
+    /**
+     * portals on one path from Dijkstra searches bounded by distance scales (Thorup), instead of a full
+     * search from every vertex of the path
+     * <p>
+     * With gap the smallest positive distance between consecutive path vertices, every path vertex is
+     * searched up to 2 gap / e, and for delta = gap, 2 gap, 4 gap, ... up to the length of Q, the first path
+     * vertex of each stretch [k delta, (k + 1) delta) is searched up to (4 / e + 1) delta; the two
+     * ends of Q are searched in full. For x on Q at distance D from v, the scale with
+     * delta <= e D / 2 < 2 delta gives a searched c with |Q[c, x]| < delta that reached v, so
+     * dist(v, c) + |Q[c, x]| <= (1 + e) D.
+     * A vertex is reached by O(1 / e) searches per scale, the work is O(n log n log(length / gap) / e) for a
+     * piece of n vertices. Searched vertices become portals of v unless an earlier portal covers them within
+     * a factor 1 + e.
+     *
+     * @param path     dense indices of the path
+     * @param position positions on the path
+     * @param vertices dense indices of the piece, marked in search
+     * @param local    position of each vertex of the piece in vertices
+     */
+    private void scaledPortals(int[] path, double[] position, int[] vertices, int[] local, PieceSearch search,
+                               double[][] label, int[] size) {
+        double e = scaleEps();
+        double[][] kept = new double[vertices.length][];    // (position, distance) of the portals of a vertex
+        int[] keptSize = new int[vertices.length];
+        double gap = minGap(position);
+        int first = 0, last = 0;
+        for (int i = 0; i < path.length; i++) {
+            if (position[i] < position[first]) first = i;
+            if (position[i] > position[last]) last = i;
+        }
+        if (gap < Double.POSITIVE_INFINITY) {
+            for (int i = 0; i < path.length; i++) {
+                offer(path[i], position[i], 2 * gap / e, e, search, local, kept, keptSize);
+            }
+            for (double delta = gap; delta <= position[last]; delta *= 2) {
+                for (int i = 0; i < path.length; i++) {
+                    if (i == 0 || Math.floor(position[i - 1] / delta) != Math.floor(position[i] / delta)) {
+                        offer(path[i], position[i], (4 / e + 1) * delta, e, search, local, kept, keptSize);
+                    }
+                }
+            }
+        }
+        offer(path[first], position[first], Double.MAX_VALUE, e, search, local, kept, keptSize);
+        offer(path[last], position[last], Double.MAX_VALUE, e, search, local, kept, keptSize);
+
+        for (int j = 0; j < vertices.length; j++) {
+            int v = vertices[j], n = keptSize[j] / 2;
+            double[] portal = kept[j];
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) order[i] = i;
+            // drop portals another one dominates, this loses nothing
+            Arrays.sort(order, Comparator.comparingDouble(i -> portal[2 * i + 1]));
+            List<Integer> portals = new ArrayList<>();
+            for (int i : order) {
+                boolean dominated = false;
+                for (int k : portals) {
+                    if (portal[2 * k + 1] + Math.abs(portal[2 * k] - portal[2 * i]) <= portal[2 * i + 1]) {
+                        dominated = true;
+                        break;
+                    }
+                }
+                if (!dominated) portals.add(i);
+            }
+            portals.sort(Comparator.comparingDouble(i -> portal[2 * i]));
+            size[v] = append(label, v, size[v], portals.size());
+            for (int i : portals) {
+                size[v] = append(label, v, size[v], portal[2 * i]);
+                size[v] = append(label, v, size[v], portal[2 * i + 1]);
+            }
+        }
+    }
+
+    /**
+     * search from a path vertex c up to radius, c becomes a portal of every vertex settled that no portal
+     * covers within a factor 1 + e yet
+     */
+    private static void offer(int c, double position, double radius, double e, PieceSearch search,
+                              int[] local, double[][] kept, int[] keptSize) {
+        SSSPResult res = search.search(c, false, radius);
+        for (int i = 0; i < search.getSettledNum(); i++) {
+            int v = search.getSettled(i), j = local[v];
+            double dist = res.getDist(v);
+            double[] portal = kept[j];
+            boolean covered = false;
+            for (int k = 0; k < keptSize[j] && !covered; k += 2) {
+                covered = portal[k + 1] + Math.abs(portal[k] - position) <= (1 + e) * dist;
+            }
+            if (covered) continue;
+            if (portal == null) {
+                kept[j] = portal = new double[8];
+            } else if (keptSize[j] == portal.length) {
+                kept[j] = portal = Arrays.copyOf(portal, 2 * portal.length);
+            }
+            portal[keptSize[j]++] = position;
+            portal[keptSize[j]++] = dist;
+        }
+    }
+
+    /**
+     * @param node
+     * @param vertices dense indices of the piece
+     * @return dense indices of the separator paths of a piece, for a leaf each vertex is a path of its own
+     */
+    private static int[][] paths(SeparatorTree.Node node, int[] vertices, PieceSearch search) {
+        if (node.isLeaf()) {
+            int[][] paths = new int[vertices.length][];
+            for (int i = 0; i < vertices.length; i++) paths[i] = new int[]{vertices[i]};
+            return paths;
+        }
+        if (node.getSeparator().length == 0) return new int[0][];
+        if (node.getSeparatorPaths() == null) {
+            throw new RuntimeException("Separator tree needs separators made of shortest paths");
+        }
+        int[][] paths = new int[node.getSeparatorPaths().length][];
+        for (int i = 0; i < paths.length; i++) paths[i] = search.indicesOf(node.getSeparatorPaths()[i]);
+        return paths;
+    }
+
+    private int labelOf(int id, String role) {
+        int i = Arrays.binarySearch(ids, id);
+        if (i < 0) {
+            throw new RuntimeException(role + " vertex not in graph");
+        }
+        return i;
+    }
+
+    /**
+     * @return an upper bound of the distance, at most (1 + eps) times the distance
+     */
+    @Override
+    public double distFromTo(int srcID, int destID) {
+        int u = labelOf(srcID, "Source"), v = labelOf(destID, "Destination");
+        if (u == v) return 0;
+        double best = Double.MAX_VALUE;
+        int pu = offset[u], pv = offset[v];
+        while (pu < offset[u + 1] && pv < offset[v + 1] && labels[pu] == labels[pv]) {
+            int k = (int) labels[pu + 1];
+            pu += 2;
+            pv += 2;
+            for (int j = 0; j < k; j++) {
+                int eu = pu + 1 + 2 * (int) labels[pu], ev = pv + 1 + 2 * (int) labels[pv];
+                pu++;
+                pv++;
+                // merge by position: minimum of dist(u, p) + |p - q| + dist(q, v)
+                double minU = Double.POSITIVE_INFINITY, minV = Double.POSITIVE_INFINITY;
+                while (pu < eu || pv < ev) {
+                    if (pv == ev || (pu < eu && labels[pu] <= labels[pv])) {
+                        best = Math.min(best, minV + labels[pu] + labels[pu + 1]);
+                        minU = Math.min(minU, labels[pu + 1] - labels[pu]);
+                        pu += 2;
+                    } else {
+                        best = Math.min(best, minU + labels[pv] + labels[pv + 1]);
+                        minV = Math.min(minV, labels[pv + 1] - labels[pv]);
+                        pv += 2;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    @Override
+    public long getLabelSize() {
+        return 8L * labels.length;
+    }
+
+    public double getEps() {
+        return eps;
+    }
+}
@@ -0,0 +1,27 @@
+package algorithms.DistanceOracle;
+
+import selfdualgraph.*;
+
+/**
+ * Vertex-to-vertex distances of a static graph from precomputed labels, without searching the graph
+ * <p>
+ * Vertices are given by ID, so an oracle loaded from a file answers queries without the graph.
+ */
+public abstract class DistanceOracle {
+
+    /**
+     * @param srcID
+     * @param destID
+     * @return distance from src to dest, Double.MAX_VALUE if dest cannot be reached
+     */
+    public abstract double distFromTo(int srcID, int destID);
+
+    public double distFromTo(Vertex src, Vertex dest) {
+        return distFromTo(src.getID(), dest.getID());
+    }
+
+    /**
+     * @return total size of the labels in bytes
+     */
+    public abstract long getLabelSize();
+}
@@ -0,0 +1,331 @@
+package algorithms.DistanceOracle;
+
+import algorithms.SSSP.*;
+import algorithms.Separator.*;
+import selfdualgraph.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Exact distance oracle from a recursive separator decomposition
+ * <p>
+ * The pieces are the nodes of a SeparatorTree: the graph is split by a separator S into the components of
+ * G - S, each component is split again, until pieces have at most leafSize vertices; the separator of a leaf
+ * is the whole leaf. The label of v holds, for every piece P containing v from the root down, the distances
+ * inside P from v to each vertex of S(P) and back. A shortest u-v path lies in every common piece of u and v
+ * down to the first one whose separator it meets, so dist(u, v) = min over common pieces P, s in S(P) of
+ * dist_P(u, s) + dist_P(s, v).
+ * <p>
+ * With cycle separators of size O(sqrt n) on balanced pieces, a label has O(sqrt n + leafSize) distances,
+ * the oracle O(n sqrt n) space and queries scan two labels in O(sqrt n + leafSize).
+ * Larger leaves mean fewer separators to compute but longer labels.
+ * <p>
+ * Labels are kept in ByteBuffers with the layout of the file written by save(), so an oracle opened by
+ * load() reads its labels straight from the memory-mapped file:
+ * <pre>
+ * int MAGIC, int V
+ * int[V] vertex IDs, ascending
+ * long[V + 1] file positions of the labels
+ * label: entries (int piece, int k, double[k] from v to S, double[k] from S to v), pieces from the root down
+ * </pre>
+ * A buffer holds at most 2^31 - 1 bytes, so the labels are split into segments of whole labels of at most
+ * maxSegmentSize bytes each, one buffer or mapping per segment; a single label must fit in a segment.
+ */
+public class ExactDistanceOracle extends DistanceOracle {
+    public static final int DEFAULT_LEAF_SIZE = 16;
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 30;
+    private static final int MAGIC = 0x45444f32;    // "EDO2"
+
+    private final int[] ids;        // vertex IDs, ascending, label i belongs to ids[i]
+    private final long[] offset;    // file position of label i, offset[V] is the file size
+    private final int[] segmentFirst;       // first label of each segment
+    private final ByteBuffer[] segments;    // segment s starts at file position offset[segmentFirst[s]]
+
+    public ExactDistanceOracle(SelfDualGraph g, int dist_measure) {
+        this(g, dist_measure, DEFAULT_LEAF_SIZE, SimpleCycleSeparator::new);
+    }
+
+    /**
+     * @param g
+     * @param dist_measure
+     * @param leafSize     pieces up to this size are not separated further
+     * @param separator    separator for a piece, the piece is a copy that may be modified
+     */
+    public ExactDistanceOracle(SelfDualGraph g, int dist_measure, int leafSize,
+                               Function<SelfDualGraph, Separator> separator) {
+        this(g, dist_measure, new SeparatorTree(g, separator, leafSize));
+    }
+
+    /**
+     * @param g
+     * @param dist_measure
+     * @param tree         decomposition of g, the separator of a leaf is the whole leaf
+     */
+    public ExactDistanceOracle(SelfDualGraph g, int dist_measure, SeparatorTree tree) {
+        this(g, dist_measure, tree, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param g
+     * @param dist_measure
+     * @param tree           decomposition of g, the separator of a leaf is the whole leaf
+     * @param maxSegmentSize labels are kept in buffers of at most this many bytes
+     */
+    public ExactDistanceOracle(SelfDualGraph g, int dist_measure, SeparatorTree tree, int maxSegmentSize) {
+        PieceSearch search = new PieceSearch(g, dist_measure);
+        CompactGraph cg = search.getCompactGraph();
+        int V = cg.getVertexNum();
+
+        // vertices in ascending order of ID
+        Integer[] byID = new Integer[V];
+        for (int v = 0; v < V; v++) byID[v] = v;
+        Arrays.sort(byID, Comparator.comparingInt(cg::getVertexID));
+        ids = new int[V];
+        int[] position = new int[V];
+        for (int i = 0; i < V; i++) {
+            ids[i] = cg.getVertexID(byID[i]);
+            position[byID[i]] = i;
+        }
+
+        // pieces in preorder, so every label is written from the root down
+        List<SeparatorTree.Node> pieces = tree.preorder();
+        List<int[]> pieceVertices = new ArrayList<>(), pieceSeparator = new ArrayList<>();
+        for (SeparatorTree.Node node : pieces) {
+            int[] vertices = search.indicesOf(node.getVertices());
+            pieceVertices.add(vertices);
+            pieceSeparator.add(node.isLeaf() ? vertices : search.indicesOf(node.getSeparator()));
+        }
+
+        // label sizes
+        long[] size = new long[V];
+        for (int p = 0; p < pieces.size(); p++) {
+            int k = pieceSeparator.get(p).length;
+            if (k == 0) continue;
+            for (int v : pieceVertices.get(p)) size[v] += 8 + 16L * k;
+        }
+        offset = new long[V + 1];
+        offset[0] = headerSize(V);
+        for (int i = 0; i < V; i++) offset[i + 1] = offset[i] + size[byID[i]];
+        segmentFirst = segmentsOf(offset, maxSegmentSize);
+        segments = new ByteBuffer[segmentFirst.length];
+        for (int s = 0; s < segments.length; s++) {
+            segments[s] = ByteBuffer.allocate((int) (segmentEnd(s) - offset[segmentFirst[s]]));
+        }
+
+        // label of v is written to buffer[v] from cursor[v] on
+        ByteBuffer[] buffer = new ByteBuffer[V];
+        int[] cursor = new int[V];
+        for (int v = 0; v < V; v++) {
+            int s = segmentOf(position[v]);
+            buffer[v] = segments[s];
+            cursor[v] = localOffset(position[v], s);
+        }
+        for (int p = 0; p < pieces.size(); p++) {
+            int[] vertices = pieceVertices.get(p), sep = pieceSeparator.get(p);
+            int k = sep.length;
+            if (k == 0) continue;
+            search.mark(vertices);
+            for (int i = 0; i < k; i++) {
+                SSSPResult res = search.search(sep[i], false);
+                for (int v : vertices) buffer[v].putDouble(cursor[v] + 8 + 8 * (k + i), res.getDist(v));
+                res = search.search(sep[i], true);
+                for (int v : vertices) buffer[v].putDouble(cursor[v] + 8 + 8 * i, res.getDist(v));
+            }
+            for (int v : vertices) {
+                buffer[v].putInt(cursor[v], p);
+                buffer[v].putInt(cursor[v] + 4, k);
+                cursor[v] += 8 + 16 * k;
+            }
+        }
+    }
+
+    private ExactDistanceOracle(int[] ids, long[] offset, int[] segmentFirst, ByteBuffer[] segments) {
+        this.ids = ids;
+        this.offset = offset;
+        this.segmentFirst = segmentFirst;
+        this.segments = segments;
+    }
+
+    private static long headerSize(int V) {
+        return 8 + 4L * V + 8L * (V + 1);
+    }
+
+    /**
+     * split the labels into runs of whole labels of at most maxSegmentSize bytes
+     *
+     * @param offset
+     * @param maxSegmentSize
+     * @return first label of each run
+     */
+    private static int[] segmentsOf(long[] offset, int maxSegmentSize) {
+        if (maxSegmentSize < 1) {
+            throw new RuntimeException("Segment size must be positive");
+        }
+        List<Integer> first = new ArrayList<>();
+        first.add(0);
+        for (int i = 0; i + 1 < offset.length; i++) {
+            if (offset[i + 1] - offset[i] > maxSegmentSize) {
+                throw new RuntimeException("A label does not fit in one segment");
+            }
+            if (offset[i + 1] - offset[first.get(first.size() - 1)] > maxSegmentSize) first.add(i);
+        }
+        return first.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @param i label
+     * @return segment holding label i
+     */
+    private int segmentOf(int i) {
+        int s = Arrays.binarySearch(segmentFirst, i);
+        return s >= 0 ? s : -s - 2;
+    }
+
+    private long segmentEnd(int s) {
+        return s + 1 < segmentFirst.length ? offset[segmentFirst[s + 1]] : offset[ids.length];
+    }
+
+    /**
+     * @param i label
+     * @param s segment holding label i
+     * @return position of label i in its segment
+     */
+    private int localOffset(int i, int s) {
+        return (int) (offset[i] - offset[segmentFirst[s]]);
+    }
+
+    private int labelOf(int id, String role) {
+        int i = Arrays.binarySearch(ids, id);
+        if (i < 0) {
+            throw new RuntimeException(role + " vertex not in graph");
+        }
+        return i;
+    }
+
+    /**
+     * scans the two labels, only reads the labels, so concurrent queries are safe
+     */
+    @Override
+    public double distFromTo(int srcID, int destID) {
+        int u = labelOf(srcID, "Source"), v = labelOf(destID, "Destination");
+        if (u == v) return 0;
+        double best = Double.MAX_VALUE;
+        int su = segmentOf(u), sv = segmentOf(v);
+        ByteBuffer lu = segments[su], lv = segments[sv];
+        int pu = localOffset(u, su), pv = localOffset(v, sv);
+        int endU = pu + (int) (offset[u + 1] - offset[u]), endV = pv + (int) (offset[v + 1] - offset[v]);
+        while (pu < endU && pv < endV && lu.getInt(pu) == lv.getInt(pv)) {
+            int k = lu.getInt(pu + 4);
+            int out = pu + 8, in = pv + 8 + 8 * k;
+            for (int i = 0; i < 8 * k; i += 8) {
+                double d = lu.getDouble(out + i) + lv.getDouble(in + i);
+                if (d < best) best = d;
+            }
+            pu += 8 + 16 * k;
+            pv += 8 + 16 * k;
+        }
+        return best;
+    }
+
+    @Override
+    public long getLabelSize() {
+        return offset[ids.length] - offset[0];
+    }
+
+    /**
+     * @return number of vertices
+     */
+    public int getVertexNum() {
+        return ids.length;
+    }
+
+    /**
+     * @return number of buffers the labels are kept in
+     */
+    public int getSegmentNum() {
+        return segments.length;
+    }
+
+    /**
+     * write the labels to a file, to be opened by load()
+     *
+     * @param fileName
+     * @throws IOException
+     */
+    public void save(String fileName) throws IOException {
+        try (FileChannel out = FileChannel.open(Paths.get(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int V = ids.length;
+            ByteBuffer header = ByteBuffer.allocate((int) headerSize(V));
+            header.putInt(MAGIC).putInt(V);
+            for (int id : ids) header.putInt(id);
+            for (long pos : offset) header.putLong(pos);
+            header.flip();
+            while (header.hasRemaining()) out.write(header);
+            for (ByteBuffer segment : segments) {
+                ByteBuffer buf = segment.duplicate();
+                buf.clear();
+                while (buf.hasRemaining()) out.write(buf);
+            }
+        }
+    }
+
+    public static ExactDistanceOracle load(String fileName) throws IOException {
+        return load(fileName, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * map a file written by save() into memory, labels are read from the mappings on demand
+     *
+     * @param fileName
+     * @param maxSegmentSize each mapping covers at most this many bytes
+     * @return
+     * @throws IOException
+     */
+    public static ExactDistanceOracle load(String fileName, int maxSegmentSize) throws IOException {
+        try (FileChannel in = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            ByteBuffer head = read(in, 0, 8);
+            if (head == null || head.getInt(0) != MAGIC) {
+                throw new RuntimeException("Not a distance oracle file");
+            }
+            int V = head.getInt(4);
+            ByteBuffer header = V < 0 ? null : read(in, 8, headerSize(V) - 8);
+            if (header == null) {
+                throw new RuntimeException("Distance oracle file is truncated");
+            }
+            int[] ids = new int[V];
+            long[] offset = new long[V + 1];
+            for (int i = 0; i < V; i++) ids[i] = header.getInt();
+            for (int i = 0; i <= V; i++) offset[i] = header.getLong();
+            if (offset[0] != headerSize(V) || offset[V] != in.size()) {
+                throw new RuntimeException("Distance oracle file is truncated");
+            }
+            int[] segmentFirst = segmentsOf(offset, maxSegmentSize);
+            ByteBuffer[] segments = new ByteBuffer[segmentFirst.length];
+            for (int s = 0; s < segments.length; s++) {
+                long start = offset[segmentFirst[s]];
+                long end = s + 1 < segments.length ? offset[segmentFirst[s + 1]] : offset[V];
+                segments[s] = in.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            }
+            return new ExactDistanceOracle(ids, offset, segmentFirst, segments);
+        }
+    }
+
+    /**
+     * @return length bytes of the file from position, null if the file is shorter
+     */
+    private static ByteBuffer read(FileChannel in, long position, long length) throws IOException {
+        if (position + length > in.size() || length > Integer.MAX_VALUE) return null;
+        ByteBuffer buf = ByteBuffer.allocate((int) length);
+        while (buf.hasRemaining()) {
+            if (in.read(buf, position + buf.position()) < 0) return null;
+        }
+        buf.flip();
+        return buf;
+    }
+}
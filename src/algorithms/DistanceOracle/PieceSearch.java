@@ -0,0 +1,117 @@
+package algorithms.DistanceOracle;
+
+import algorithms.IndexedHeap.*;
+import algorithms.SSSP.*;
+import selfdualgraph.*;
+
+import java.util.*;
+
+/**
+ * Searches restricted to one piece of a graph, a piece is a set of dense vertex indices marked by mark()
+ */
+class PieceSearch {
+    private final CompactGraph cg;
+    private final int distance_measure;
+    private final SSSPResult res;
+    private final IndexedHeap pq = new BinaryHeap();
+    private final int[] mark;
+    private int stamp;
+    private final int[] settled;    // vertices settled by the last search, in order of distance
+    private int settledNum;
+    private final Map<Integer, Integer> indexOf = new HashMap<>();
+
+    PieceSearch(SelfDualGraph g, int dist_measure) {
+        Dijkstra dijkstra = new Dijkstra(g, dist_measure);
+        cg = dijkstra.getCompactGraph();
+        distance_measure = dist_measure;
+        res = dijkstra.newResult();
+        mark = new int[cg.getVertexNum()];
+        settled = new int[cg.getVertexNum()];
+        for (int v = 0; v < cg.getVertexNum(); v++) indexOf.put(cg.getVertexID(v), v);
+    }
+
+    CompactGraph getCompactGraph() {
+        return cg;
+    }
+
+    /**
+     * @param ids vertex IDs
+     * @return their dense indices
+     */
+    int[] indicesOf(int[] ids) {
+        int[] result = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) result[i] = indexOf.get(ids[i]);
+        return result;
+    }
+
+    /**
+     * make vertices the current piece
+     *
+     * @param vertices dense indices
+     */
+    void mark(int[] vertices) {
+        stamp++;
+        for (int v : vertices) mark[v] = stamp;
+    }
+
+    /**
+     * Dijkstra inside the current piece
+     *
+     * @param s
+     * @param reverse distances to s instead of from s
+     * @return distances, valid until the next search
+     */
+    SSSPResult search(int s, boolean reverse) {
+        return search(s, reverse, Double.MAX_VALUE);
+    }
+
+    /**
+     * Dijkstra inside the current piece, bounded by a radius
+     *
+     * @param s
+     * @param reverse distances to s instead of from s
+     * @param radius  only vertices at most this far are settled, the others may be reached or not
+     * @return distances, valid until the next search
+     */
+    SSSPResult search(int s, boolean reverse, double radius) {
+        res.reset(s);
+        pq.init(cg.getVertexNum());
+        pq.insert(s, 0);
+        settledNum = 0;
+        while (!pq.isEmpty()) {
+            int v = pq.deleteMin();
+            if (res.getDist(v) > radius) break;
+            res.settle(v);
+            settled[settledNum++] = v;
+            double dv = res.getDist(v);
+            for (int i = 0, d = cg.getFirstDart(v); i < cg.getDegree(v); i++, d = cg.getSuccessor(d)) {
+                int u = cg.getHead(d);
+                if (mark[u] != stamp) continue;
+                int e = reverse ? cg.getReverse(d) : d;
+                double newDist = dv
+                        + (distance_measure == SSSP.WEIGHT_AS_DISTANCE ? cg.getWeight(e) : cg.getCapacity(e));
+                if (newDist < res.getDist(u)) {
+                    res.setDist(u, newDist, e);
+                    if (pq.contains(u)) pq.decreaseKey(u, newDist);
+                    else pq.insert(u, newDist);
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @return number of vertices settled by the last search
+     */
+    int getSettledNum() {
+        return settledNum;
+    }
+
+    /**
+     * @param i
+     * @return the i-th vertex settled by the last search
+     */
+    int getSettled(int i) {
+        return settled[i];
+    }
+}
@@ -0,0 +1,12 @@
+package algorithms.IndexedHeap;
+
+public class BinaryHeap extends DaryHeap {
+    public BinaryHeap() {
+        super(2);
+    }
+
+    @Override
+    public IndexedHeap newHeap() {
+        return new BinaryHeap();
+    }
+}
@@ -0,0 +1,133 @@
+package algorithms.IndexedHeap;
+
+import java.util.*;
+
+/**
+ * Implicit d-ary heap stored in an int array, with a position array for decrease-key
+ * time: insert / decreaseKey O(log_d n), deleteMin O(d log_d n)
+ */
+public class DaryHeap extends IndexedHeap {
+    private final int arity;
+    private int[] heap;     // heap[k] = index stored at slot k
+    private int[] pos;      // pos[i] = slot of index i, -1 if not in heap
+    private double[] keys;
+    private int size;
+
+    public DaryHeap(int arity) {
+        if (arity < 2) {
+            throw new RuntimeException("Heap arity must be at least 2.");
+        }
+        this.arity = arity;
+        heap = new int[0];
+        pos = new int[0];
+        keys = new double[0];
+    }
+
+    @Override
+    public void init(int capacity) {
+        if (pos.length < capacity) {
+            heap = new int[capacity];
+            pos = new int[capacity];
+            keys = new double[capacity];
+            Arrays.fill(pos, -1);
+        } else {
+            for (int k = 0; k < size; k++) pos[heap[k]] = -1;
+        }
+        size = 0;
+    }
+
+    @Override
+    public IndexedHeap newHeap() {
+        return new DaryHeap(arity);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int i) {
+        return pos[i] >= 0;
+    }
+
+    @Override
+    public double getKey(int i) {
+        return keys[i];
+    }
+
+    @Override
+    public void insert(int i, double key) {
+        if (pos[i] >= 0) {
+            throw new RuntimeException("Index already in heap.");
+        }
+        keys[i] = key;
+        heap[size] = i;
+        pos[i] = size;
+        siftUp(size++);
+    }
+
+    @Override
+    public void decreaseKey(int i, double key) {
+        if (key > keys[i]) {
+            throw new RuntimeException("New key is larger than current key.");
+        }
+        keys[i] = key;
+        siftUp(pos[i]);
+    }
+
+    @Override
+    public int peekMin() {
+        if (size == 0) {
+            throw new RuntimeException("Heap is empty.");
+        }
+        return heap[0];
+    }
+
+    @Override
+    public int deleteMin() {
+        int min = peekMin();
+        pos[min] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            pos[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private void siftUp(int k) {
+        int i = heap[k];
+        double key = keys[i];
+        while (k > 0) {
+            int parent = (k - 1) / arity;
+            int p = heap[parent];
+            if (keys[p] <= key) break;
+            heap[k] = p;
+            pos[p] = k;
+            k = parent;
+        }
+        heap[k] = i;
+        pos[i] = k;
+    }
+
+    private void siftDown(int k) {
+        int i = heap[k];
+        double key = keys[i];
+        while (true) {
+            int first = k * arity + 1;
+            if (first >= size) break;
+            int last = Math.min(first + arity, size);
+            int minChild = first;
+            for (int c = first + 1; c < last; c++) {
+                if (keys[heap[c]] < keys[heap[minChild]]) minChild = c;
+            }
+            if (keys[heap[minChild]] >= key) break;
+            heap[k] = heap[minChild];
+            pos[heap[k]] = k;
+            k = minChild;
+        }
+        heap[k] = i;
+        pos[i] = k;
+    }
+}
@@ -0,0 +1,15 @@
+package algorithms.IndexedHeap;
+
+/**
+ * shallower than a binary heap, and the 4 children of a slot usually share a cache line
+ */
+public class FourAryHeap extends DaryHeap {
+    public FourAryHeap() {
+        super(4);
+    }
+
+    @Override
+    public IndexedHeap newHeap() {
+        return new FourAryHeap();
+    }
+}
@@ -0,0 +1,85 @@
+package algorithms.IndexedHeap;
+
+/**
+ * Min-priority queue over dense integer indices 0 .. capacity-1 with primitive double keys
+ * each index is in the heap at most once, its key can be lowered in place by decreaseKey
+ * <p>
+ * A heap instance can be reused: init(n) empties it and makes room for n indices,
+ * once allocated, emptying costs O(size) rather than O(capacity)
+ * A heap is not thread-safe, concurrent searches each need their own instance, see newHeap()
+ */
+public abstract class IndexedHeap {
+
+    /**
+     * empty the heap, and allow indices 0 .. capacity-1
+     *
+     * @param capacity
+     */
+    public abstract void init(int capacity);
+
+    /**
+     * @return a new empty heap of the same kind
+     */
+    public abstract IndexedHeap newHeap();
+
+    public abstract int size();
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @param i
+     * @return true if index i is currently in the heap
+     */
+    public abstract boolean contains(int i);
+
+    /**
+     * @param i
+     * @return key of index i, only valid if contains(i)
+     */
+    public abstract double getKey(int i);
+
+    /**
+     * @param i   index not in the heap
+     * @param key
+     */
+    public abstract void insert(int i, double key);
+
+    /**
+     * @param i   index in the heap
+     * @param key new key, must not be larger than the current key of i
+     */
+    public abstract void decreaseKey(int i, double key);
+
+    /**
+     * @return index with the minimum key, without removing it
+     */
+    public abstract int peekMin();
+
+    /**
+     * remove the index with the minimum key
+     *
+     * @return removed index
+     */
+    public abstract int deleteMin();
+
+    /**
+     * insert i, or lower its key if i is in the heap with a larger key
+     *
+     * @param i
+     * @param key
+     * @return true if the heap changed
+     */
+    public boolean insertOrDecrease(int i, double key) {
+        if (!contains(i)) {
+            insert(i, key);
+            return true;
+        }
+        if (key < getKey(i)) {
+            decreaseKey(i, key);
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,160 @@
+package algorithms.IndexedHeap;
+
+/**
+ * Pairing heap with nodes stored in parallel int arrays (leftmost child / right sibling representation)
+ * time: insert / decreaseKey O(1), deleteMin O(log n) amortized
+ */
+public class PairingHeap extends IndexedHeap {
+    private int[] child;    // leftmost child, -1 if none
+    private int[] sibling;  // right sibling, -1 if none
+    private int[] prev;     // parent if leftmost child, otherwise left sibling, -1 for the root
+    private boolean[] inHeap;
+    private double[] keys;
+    private int[] pairs;    // scratch space for two-pass merging
+    private int root;
+    private int size;
+
+    public PairingHeap() {
+        init(0);
+    }
+
+    @Override
+    public void init(int capacity) {
+        if (child == null || child.length < capacity) {
+            child = new int[capacity];
+            sibling = new int[capacity];
+            prev = new int[capacity];
+            inHeap = new boolean[capacity];
+            keys = new double[capacity];
+            pairs = new int[capacity];
+        } else if (root >= 0) {
+            // walk the remaining trees, using pairs[] as a stack
+            int top = 0;
+            pairs[top++] = root;
+            while (top > 0) {
+                int i = pairs[--top];
+                inHeap[i] = false;
+                if (child[i] >= 0) pairs[top++] = child[i];
+                if (sibling[i] >= 0) pairs[top++] = sibling[i];
+            }
+        }
+        root = -1;
+        size = 0;
+    }
+
+    @Override
+    public IndexedHeap newHeap() {
+        return new PairingHeap();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(int i) {
+        return inHeap[i];
+    }
+
+    @Override
+    public double getKey(int i) {
+        return keys[i];
+    }
+
+    @Override
+    public void insert(int i, double key) {
+        if (inHeap[i]) {
+            throw new RuntimeException("Index already in heap.");
+        }
+        keys[i] = key;
+        child[i] = sibling[i] = prev[i] = -1;
+        inHeap[i] = true;
+        root = root < 0 ? i : link(root, i);
+        size++;
+    }
+
+    @Override
+    public void decreaseKey(int i, double key) {
+        if (key > keys[i]) {
+            throw new RuntimeException("New key is larger than current key.");
+        }
+        keys[i] = key;
+        if (i == root) return;
+        // cut the subtree rooted at i, and link it back to the root
+        int p = prev[i];
+        if (child[p] == i) child[p] = sibling[i];
+        else sibling[p] = sibling[i];
+        if (sibling[i] >= 0) prev[sibling[i]] = p;
+        sibling[i] = prev[i] = -1;
+        root = link(root, i);
+    }
+
+    @Override
+    public int peekMin() {
+        if (size == 0) {
+            throw new RuntimeException("Heap is empty.");
+        }
+        return root;
+    }
+
+    @Override
+    public int deleteMin() {
+        int min = peekMin();
+        inHeap[min] = false;
+        size--;
+        root = mergePairs(child[min]);
+        if (root >= 0) prev[root] = -1;
+        return min;
+    }
+
+    /**
+     * make the root with larger key the leftmost child of the other
+     *
+     * @param a root of a tree
+     * @param b root of another tree
+     * @return root of the linked tree
+     */
+    private int link(int a, int b) {
+        if (keys[b] < keys[a]) {
+            int t = a;
+            a = b;
+            b = t;
+        }
+        sibling[b] = child[a];
+        if (child[a] >= 0) prev[child[a]] = b;
+        child[a] = b;
+        prev[b] = a;
+        sibling[a] = -1;
+        return a;
+    }
+
+    /**
+     * two-pass merging: link siblings in pairs left to right, then fold the pairs right to left
+     *
+     * @param first leftmost tree of a sibling list
+     * @return root of the merged tree, -1 if the list is empty
+     */
+    private int mergePairs(int first) {
+        int n = 0;
+        int cur = first;
+        while (cur >= 0) {
+            int a = cur;
+            int b = sibling[a];
+            if (b < 0) {
+                sibling[a] = -1;
+                pairs[n++] = a;
+                break;
+            }
+            cur = sibling[b];
+            sibling[a] = sibling[b] = -1;
+            pairs[n++] = link(a, b);
+        }
+        if (n == 0) return -1;
+        int r = pairs[n - 1];
+        for (int k = n - 2; k >= 0; k--) {
+            r = link(pairs[k], r);
+        }
+        return r;
+    }
+}
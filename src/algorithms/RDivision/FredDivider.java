@@ -6,6 +6,8 @@ import selfdualgraph.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
 
 /**
  * Algorithm:
@@ -27,10 +29,54 @@ import java.util.*;
 public class FredDivider extends GraphDivider {
     private Map<Vertex, Set<Vertex>> contractedVertexToVSet;
     public static int disconnectedComponentsNum;
+    private final int threads;
+    private List<RegionTiming> regionTimings;
+
+    /**
+     * time spent on one contracted region: expanding it and dividing the expanded pieces
+     */
+    public static class RegionTiming {
+        public final int contractedVertices, expandedVertices, pieces, regions;
+        public final long nanos;
+
+        RegionTiming(int contractedVertices, int expandedVertices, int pieces, int regions, long nanos) {
+            this.contractedVertices = contractedVertices;
+            this.expandedVertices = expandedVertices;
+            this.pieces = pieces;
+            this.regions = regions;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("contracted=%d\texpanded=%d\tpieces=%d\tregions=%d\t%.3fms",
+                    contractedVertices, expandedVertices, pieces, regions, nanos / 1000000.0);
+        }
+    }
 
     public FredDivider(SelfDualGraph g) {
+        this(g, 1);
+    }
+
+    /**
+     * divide a piece of another graph, the piece is copied only once and is modified in place
+     *
+     * @param piece
+     */
+    public FredDivider(SubgraphView piece) {
+        super(piece);
+        disconnectedComponentsNum = 0;
+        threads = 1;
+    }
+
+    /**
+     * @param g
+     * @param threads number of threads refining the expanded regions
+     */
+    public FredDivider(SelfDualGraph g, int threads) {
         super(g);
         disconnectedComponentsNum = 0;
+        this.threads = threads;
     }
 
     /**
@@ -118,6 +164,33 @@ public class FredDivider extends GraphDivider {
      * @return
      */
     public Set<SelfDualGraph> expandRegion(Set<Vertex> contractedRegion) {
+        Set<SelfDualGraph> subgraphs = new HashSet<>();
+        for (SubgraphView view : expandRegionViews(contractedRegion)) {
+            subgraphs.add(view.materialize());
+        }
+        return subgraphs;
+    }
+
+    /**
+     * same as expandRegion(), each connected component is a view of the original graph instead of a copy
+     *
+     * @param contractedRegion
+     * @return
+     */
+    public Set<SubgraphView> expandRegionViews(Set<Vertex> contractedRegion) {
+        return expandRegionViews(contractedRegion, face -> {
+            if (face.isVisited()) return false;
+            face.setVisited(true);
+            return true;
+        });
+    }
+
+    /**
+     * @param contractedRegion
+     * @param claim            assign a free face to the current region, false if the face is already taken
+     * @return
+     */
+    Set<SubgraphView> expandRegionViews(Set<Vertex> contractedRegion, Predicate<Vertex> claim) {
         Set<Vertex> expanded = new HashSet<>();
         Set<Vertex> candidates = new HashSet<>();   // originV
         Set<Vertex> faceGroup = new HashSet<>();
@@ -125,24 +198,26 @@ public class FredDivider extends GraphDivider {
             candidates.addAll(contractedVertexToVSet.get(v));
         }
         for (Vertex v : candidates) {
-            for (Dart d : v.getIncidenceList()) {
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
                 Vertex face = d.getRight();
-                if (face.isVisited()) continue;
+                if (faceGroup.contains(face)) continue;
                 boolean inRegion = true;
-                for (Dart dd : face.getIncidenceList()) {
+                Dart dd = face.getFirstDart();
+                for (int j = 0; j < face.getDegree(); j++, dd = dd.getNext()) {
                     if (!candidates.contains(dd.getTail())) {
                         inRegion = false;
                         break;
                     }
                 }
-                if (inRegion) {
-                    face.setVisited(true);
+                if (inRegion && claim.test(face)) {
                     faceGroup.add(face);
                 }
             }
         }
         for (Vertex face : faceGroup) {
-            for (Dart d : face.getIncidenceList()) {
+            Dart d = face.getFirstDart();
+            for (int i = 0; i < face.getDegree(); i++, d = d.getNext()) {
                 expanded.add(d.getTail());
             }
         }
@@ -150,11 +225,11 @@ public class FredDivider extends GraphDivider {
         // contracted piece may be connected through artificial edges
         // expended region may NOT be connected with edges in original graph, should treat each connected component as a subregion
         Set<Set<Vertex>> connectedComponents = identifyConnectedComponent(expanded);
-        Set<SelfDualGraph> subgraphs = new HashSet<>();
+        Set<SubgraphView> views = new HashSet<>();
         for (Set<Vertex> component : connectedComponents) {
-            subgraphs.add(originG.buildSubgraph(component));
+            views.add(new SubgraphView(originG, component));
         }
-        return subgraphs;
+        return views;
     }
 
     /**
@@ -202,7 +277,8 @@ public class FredDivider extends GraphDivider {
             connectedComponent.add(v);
             while (!q.isEmpty()) {
                 Vertex vv = q.poll();
-                for (Dart d : vv.getIncidenceList()) {
+                Dart d = vv.getFirstDart();
+                for (int i = 0; i < vv.getDegree(); i++, d = d.getSuccessor()) {
                     Vertex n = d.getHead();
                     if (visited.contains(n) || !region.contains(n)) continue;
                     q.add(n);
@@ -213,7 +289,9 @@ public class FredDivider extends GraphDivider {
             disconnectedComponent.add(connectedComponent);
         }
         if (disconnectedComponent.size() > 1) {
-            disconnectedComponentsNum += disconnectedComponent.size();
+            synchronized (FredDivider.class) {
+                disconnectedComponentsNum += disconnectedComponent.size();
+            }
             //System.out.printf("A region contains %d connected components\n", disconnectedComponent.size());
         }
         return disconnectedComponent;
@@ -237,24 +315,88 @@ public class FredDivider extends GraphDivider {
         Set<Set<Vertex>> contractedRegions = rd.rDivision(r);
         //contractedRegions = filterBoundaryVertices(contractedRegions);
 
-        // expend each piece
-        for (Vertex f : originG.getFaces()) f.setVisited(false);
-        for (Set<Vertex> region : contractedRegions) {
-            Set<SelfDualGraph> expandedSubgraphs = expandRegion(region);
-            // O(log(r)) levels of recursive division on each piece
-            // TODO: this step is very time consuming, why?
-            for (SelfDualGraph expandedSubgraph : expandedSubgraphs) {
-                rd = new RecursiveDivider(expandedSubgraph);
-                Set<Set<Vertex>> subgraphRegions = rd.rDivision(r);
-                //subgraphRegions = filterBoundaryVertices(subgraphRegions);
-                for (Set<Vertex> subRegion : subgraphRegions) {
-                    regions.add(originG.getVerticesFromID(verticesToID(subRegion)));
-                }
-            }
+        // expand and divide each piece, regions are independent except for claiming the faces they share
+        Set<Vertex> claimedFaces = ConcurrentHashMap.newKeySet();
+        Queue<Set<Integer>> collected = new ConcurrentLinkedQueue<>();
+        Queue<RegionTiming> timings = new ConcurrentLinkedQueue<>();
+        List<Set<Vertex>> regionList = new ArrayList<>(contractedRegions);
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> regionList.parallelStream().forEach(region ->
+                    timings.add(refineRegion(region, r, claimedFaces::add, collected)))).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        for (Set<Integer> ids : collected) {
+            regions.add(originG.getVerticesFromID(ids));
         }
+        regionTimings = new ArrayList<>(timings);
         return regions;
     }
 
+    /**
+     * expand a contracted region, O(log(r)) levels of recursive division on each expanded piece
+     *
+     * @param region
+     * @param r
+     * @param claim
+     * @param collected vertex IDs of the resulting regions
+     * @return
+     */
+    private RegionTiming refineRegion(Set<Vertex> region, int r, Predicate<Vertex> claim, Queue<Set<Integer>> collected) {
+        long time0 = System.nanoTime();
+        Set<SubgraphView> expandedSubgraphs = expandRegionViews(region, claim);
+        int expandedNum = 0, regionNum = 0;
+        for (SubgraphView expandedSubgraph : expandedSubgraphs) {
+            expandedNum += expandedSubgraph.getVertexNum();
+            // small piece with small boundary is a region by itself, no need to copy it
+            if (expandedSubgraph.getVertexNum() <= r && RecursiveDivider.isRegion(expandedSubgraph, r)) {
+                collected.add(expandedSubgraph.getVertexIDs());
+                regionNum++;
+                continue;
+            }
+            RecursiveDivider rd = new RecursiveDivider(expandedSubgraph);
+            Set<Set<Vertex>> subgraphRegions = rd.rDivision(r);
+            //subgraphRegions = filterBoundaryVertices(subgraphRegions);
+            for (Set<Vertex> subRegion : subgraphRegions) {
+                collected.add(verticesToID(subRegion));
+            }
+            regionNum += subgraphRegions.size();
+        }
+        return new RegionTiming(region.size(), expandedNum, expandedSubgraphs.size(), regionNum, System.nanoTime() - time0);
+    }
+
+    /**
+     * @return time spent on each contracted region by the last rDivision()
+     */
+    public List<RegionTiming> getRegionTimings() {
+        return regionTimings;
+    }
+
+    /**
+     * print the distribution of per-region times of the last rDivision()
+     */
+    public void printRegionTimings() {
+        List<Long> times = new ArrayList<>();
+        long total = 0;
+        for (RegionTiming t : regionTimings) {
+            times.add(t.nanos);
+            total += t.nanos;
+        }
+        if (times.isEmpty()) return;
+        Collections.sort(times);
+        double mean = total / 1000000.0 / times.size();
+        System.out.printf("\t%d regions, per-region time (ms): min[%.3f], median[%.3f], max[%.3f], mean[%.3f], max/mean[%.2f]\n",
+                times.size(), times.get(0) / 1000000.0, times.get(times.size() / 2) / 1000000.0,
+                times.get(times.size() - 1) / 1000000.0, mean, times.get(times.size() - 1) / 1000000.0 / mean);
+    }
+
 
     public static void main(String[] args) throws FileNotFoundException {
         SelfDualGraph g = new SelfDualGraph();
@@ -262,7 +404,7 @@ public class FredDivider extends GraphDivider {
         g.buildGraph("./input_data/cylinder/symm/5.txt");
         System.out.println("Graph loaded");
 
-        FredDivider fd = new FredDivider(g);
+        FredDivider fd = new FredDivider(g, Runtime.getRuntime().availableProcessors());
         int r = 2000;
         System.out.printf("r = %d\n", r);
         long time0 = System.currentTimeMillis();
@@ -270,6 +412,7 @@ public class FredDivider extends GraphDivider {
         long time1 = System.currentTimeMillis();
         System.out.println(regions.size());
         System.out.printf("Time: [%dms]\n", time1 - time0);
+        fd.printRegionTimings();
     }
 
 }
@@ -17,6 +17,19 @@ public abstract class GraphDivider {
         regions = new HashSet<>();
     }
 
+    /**
+     * the piece is copied once, the copy is both the original graph and the working graph
+     *
+     * @param piece
+     */
+    public GraphDivider(SubgraphView piece) {
+        originG = piece.materialize();
+        g = originG;
+        g.flatten();
+        g.triangulate();
+        regions = new HashSet<>();
+    }
+
     public abstract Set<Set<Vertex>> rDivision(int r);
 
     public Set<Set<Vertex>> getRegions() {
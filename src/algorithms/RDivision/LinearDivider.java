@@ -0,0 +1,273 @@
+package algorithms.RDivision;
+
+import algorithms.Separator.*;
+import algorithms.TreeWeightAssigner.*;
+import selfdualgraph.*;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * r-division with few holes per region by recursive contraction, following the scheme of
+ * reference/Linear r-division.pdf
+ * <p>
+ * Algorithm, on a piece of N vertices:
+ * rho-cluster with rho = log(N): N -> N'=N/log(N)
+ * r'-division of the contracted graph with RecursiveDivider, r' = max(r, log(N)): O(N'logN') = O(N)
+ * expand each contracted region: O(N), every expanded region has O(r'log(N)) vertices
+ * recurse on each expanded region, until N'/r' is too small for contraction to pay off,
+ * then finish with RecursiveDivider: O(NlogN) on pieces of polylog(r) vertices
+ * <p>
+ * each level costs O(N) and piece size drops from N to polylog(N), so there are O(log*N) levels
+ * boundary vertices of a piece stay on the boundary of its sub-pieces, so phase II of the last level
+ * bounds the boundary of every region by the whole graph, not only by the piece
+ * <p>
+ * holes: a hole of a region is a face of the region which is not a face of the graph, the outer boundary of
+ * the region included. A region with more than maxHoles holes is split by a cycle separator balancing the
+ * weight of its holes, a region whose boundary grows too large by that is split as in phase II,
+ * until every region has few holes and a small boundary or a split makes no progress.
+ * <p>
+ * the total is O(N log*N), not strictly linear
+ */
+public class LinearDivider extends GraphDivider {
+    public static final int DEFAULT_MAX_HOLES = 3;
+
+    private final int maxHoles;
+    private int levels;
+    private Set<Integer> faceIDs;   // faces of the graph as given, see splitHoles()
+
+    public LinearDivider(SelfDualGraph g) {
+        this(g, DEFAULT_MAX_HOLES);
+    }
+
+    /**
+     * @param g
+     * @param maxHoles holes allowed per region, at least 1
+     */
+    public LinearDivider(SelfDualGraph g, int maxHoles) {
+        super(g);
+        if (maxHoles < 1) {
+            throw new RuntimeException("A region has at least 1 hole");
+        }
+        this.maxHoles = maxHoles;
+    }
+
+    @Override
+    public Set<Set<Vertex>> rDivision(int r) {
+        regions = new HashSet<>();
+        levels = 0;
+        g.flatten();
+        Queue<Set<Integer>> collected = new LinkedList<>();
+        divide(new SubgraphView(g), r, 1, collected);
+        // splitting off holes adds boundary, so holes and boundary are checked again on every sub-region
+        double maxBoundary = Math.max(4 * Math.sqrt(r), 6);
+        while (!collected.isEmpty()) {
+            refine(collected, r);
+            // a vertex shared with another region is a boundary vertex even if all its neighbors are inside
+            Map<Vertex, Integer> count = membership();
+            for (Set<Vertex> region : new ArrayList<>(regions)) {
+                int shared = 0;
+                for (Vertex v : region) if (count.get(v) > 1) shared++;
+                if (shared > maxBoundary && split(new SubgraphView(originG, region), false, collected)) {
+                    regions.remove(region);
+                }
+            }
+        }
+        // a vertex split off alone has no edge, drop it if another region has it
+        Map<Vertex, Integer> count = membership();
+        regions.removeIf(region -> region.size() == 1 && count.get(region.iterator().next()) > 1);
+        return regions;
+    }
+
+    /**
+     * move the collected pieces to the regions, splitting those with too many holes or a large boundary
+     *
+     * @param collected
+     * @param r
+     */
+    private void refine(Queue<Set<Integer>> collected, int r) {
+        while (!collected.isEmpty()) {
+            Set<Vertex> region = originG.getVerticesFromID(collected.poll());
+            SubgraphView view = new SubgraphView(originG, region);
+            boolean fewHoles = view.getBoundaryFaces().size() <= maxHoles;
+            if (fewHoles && RecursiveDivider.isRegion(view, r)) {
+                regions.add(region);
+                continue;
+            }
+            if (!split(view, !fewHoles, collected)) regions.add(region);
+        }
+    }
+
+    /**
+     * @return number of regions each vertex is in
+     */
+    private Map<Vertex, Integer> membership() {
+        Map<Vertex, Integer> count = new HashMap<>();
+        for (Set<Vertex> region : regions) {
+            for (Vertex v : region) count.merge(v, 1, Integer::sum);
+        }
+        return count;
+    }
+
+    /**
+     * @param region vertices of the graph as given
+     * @return number of faces of the subgraph induced by the region which are not faces of the graph
+     */
+    public int countHoles(Set<Vertex> region) {
+        return new SubgraphView(originG, region).getBoundaryFaces().size();
+    }
+
+    /**
+     * @param view      a region
+     * @param holes     balance holes instead of boundary vertices
+     * @param collected the sub-regions are added here
+     * @return false if the region is too small or a sub-region is the whole region
+     */
+    private boolean split(SubgraphView view, boolean holes, Queue<Set<Integer>> collected) {
+        // the outer boundary of every component is a hole, components are regions of their own
+        List<Set<Integer>> components = components(view.getVertices());
+        if (components.size() > 1) {
+            collected.addAll(components);
+            return true;
+        }
+        return holes ? splitHoles(view.getVertices(), collected) : splitBoundary(view, collected);
+    }
+
+    /**
+     * split a connected region with a cycle separator, each hole weighs 1, shared by the vertices on it,
+     * the weight of a vertex is shared by the faces around it as in assignWeightToBoundary_useVertex()
+     *
+     * @param region
+     * @param collected the two sub-regions are added here
+     * @return false if the region is too small or a sub-region is the whole region
+     */
+    private boolean splitHoles(Set<Vertex> region, Queue<Set<Integer>> collected) {
+        if (region.size() <= 3) return false;
+        SelfDualGraph piece = new SubgraphView(originG, region).materialize();
+        if (faceIDs == null) {
+            faceIDs = new HashSet<>();
+            for (Vertex f : originG.getFaces()) faceIDs.add(f.getID());
+        }
+        for (Vertex v : piece.getVertices()) v.setWeight(0);
+        for (Vertex f : piece.getFaces()) {
+            if (faceIDs.contains(f.getID())) continue;
+            Dart d = f.getFirstDart();
+            for (int i = 0; i < f.getDegree(); i++, d = d.getNext()) {
+                d.getTail().setWeight(d.getTail().getWeight() + 1.0 / f.getDegree());
+            }
+        }
+        piece.flatten();
+        piece.triangulate();
+        for (Vertex f : piece.getFaces()) f.setWeight(0);
+        for (Vertex v : piece.getVertices()) {
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+                d.getLeft().setWeight(d.getLeft().getWeight() + v.getWeight() / v.getDegree());
+            }
+        }
+        SimpleCycleSeparator sp = new SimpleCycleSeparator(piece);
+        sp.findSeparator(null, new VertexWeight());
+        Set<Vertex>[] subs = sp.findSubgraphs();
+        if (subs[0].size() >= region.size() || subs[1].size() >= region.size()) return false;
+        for (Set<Vertex> sub : subs) collected.add(verticesToID(sub));
+        return true;
+    }
+
+    /**
+     * split a connected region as phase II of RecursiveDivider does
+     *
+     * @param view
+     * @param collected the two sub-regions are added here
+     * @return false if the region is too small or a sub-region is the whole region
+     */
+    private boolean splitBoundary(SubgraphView view, Queue<Set<Integer>> collected) {
+        if (view.getVertexNum() <= 3) return false;
+        SubgraphView[] pieces = RecursiveDivider.separate(view, true);
+        if (pieces[0].getVertexNum() >= view.getVertexNum() || pieces[1].getVertexNum() >= view.getVertexNum()) {
+            return false;
+        }
+        for (SubgraphView piece : pieces) collected.add(piece.getVertexIDs());
+        return true;
+    }
+
+    /**
+     * @return number of contraction levels used by the last rDivision()
+     */
+    public int getLevels() {
+        return levels;
+    }
+
+    private static List<Set<Integer>> components(Set<Vertex> region) {
+        List<Set<Integer>> components = new ArrayList<>();
+        Set<Vertex> seen = new HashSet<>();
+        for (Vertex s : region) {
+            if (!seen.add(s)) continue;
+            Set<Integer> component = new HashSet<>();
+            Queue<Vertex> q = new LinkedList<>();
+            q.add(s);
+            component.add(s.getID());
+            while (!q.isEmpty()) {
+                Vertex v = q.poll();
+                Dart d = v.getFirstDart();
+                for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+                    Vertex u = d.getHead();
+                    if (region.contains(u) && seen.add(u)) {
+                        component.add(u.getID());
+                        q.add(u);
+                    }
+                }
+            }
+            components.add(component);
+        }
+        return components;
+    }
+
+    private void divide(SubgraphView piece, int r, int level, Queue<Set<Integer>> collected) {
+        int n = piece.getVertexNum();
+        int rho = Math.max(2, 32 - Integer.numberOfLeadingZeros(n));   // ceil(log2(N))
+        int contractedR = Math.max(r, rho);
+        if (n / rho <= 2 * contractedR) {
+            divideDirectly(piece, r, collected);
+            return;
+        }
+        levels = Math.max(levels, level);
+
+        FredDivider fd = new FredDivider(piece);
+        Map<Vertex, Set<Vertex>> vertexToCluster = fd.rhoClustering(rho);
+        SelfDualGraph contracted = fd.contractedGraph(new HashSet<>(vertexToCluster.values()));
+        Set<Set<Vertex>> contractedRegions = new RecursiveDivider(contracted).rDivision(contractedR);
+
+        // faces are claimed in a set of this level, not through the visited flags of the graph
+        Set<Vertex> claimedFaces = new HashSet<>();
+        for (Set<Vertex> region : contractedRegions) {
+            for (SubgraphView expanded : fd.expandRegionViews(region, claimedFaces::add)) {
+                divide(expanded, r, level + 1, collected);
+            }
+        }
+    }
+
+    private void divideDirectly(SubgraphView piece, int r, Queue<Set<Integer>> collected) {
+        // small piece with small boundary is a region by itself, no need to copy it
+        if (piece.getVertexNum() <= r && RecursiveDivider.isRegion(piece, r)) {
+            collected.add(piece.getVertexIDs());
+            return;
+        }
+        for (Set<Vertex> region : new RecursiveDivider(piece).rDivision(r)) {
+            collected.add(verticesToID(region));
+        }
+    }
+
+    public static void main(String[] args) throws FileNotFoundException {
+        SelfDualGraph g = new SelfDualGraph();
+        g.buildGraph(args.length > 0 ? args[0] : "./input_data/grids/2.txt");
+        int r = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        System.out.printf("r = %d\n", r);
+
+        LinearDivider ld = new LinearDivider(g);
+        long time0 = System.currentTimeMillis();
+        Set<Set<Vertex>> regions = ld.rDivision(r);
+        long time1 = System.currentTimeMillis();
+        System.out.printf("%d regions, %d levels\n", regions.size(), ld.getLevels());
+        System.out.printf("Time: [%dms]\n", time1 - time0);
+    }
+}
@@ -0,0 +1,86 @@
+package algorithms.RDivision;
+
+import selfdualgraph.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * O(NlogN) r-division of RecursiveDivider, run on a ForkJoinPool
+ * <p>
+ * the 2 pieces of every split are independent graphs, so they are divided by 2 forked tasks;
+ * a piece left by phase I is handed to phase II right away, and phase II pieces are forked in the same way,
+ * idle threads steal pieces from the deques of busy ones
+ * regions are collected as vertex IDs in a concurrent queue, and mapped to the original graph at the end
+ */
+public class ParallelRecursiveDivider extends GraphDivider {
+    private final int threads;
+
+    public ParallelRecursiveDivider(SelfDualGraph g, int threads) {
+        super(g);
+        this.threads = threads;
+    }
+
+    public ParallelRecursiveDivider(SelfDualGraph g) {
+        this(g, Runtime.getRuntime().availableProcessors());
+    }
+
+    @Override
+    public Set<Set<Vertex>> rDivision(int r) {
+        regions = new HashSet<>();
+        g.flatten();
+        Queue<Set<Integer>> collected = new ConcurrentLinkedQueue<>();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new DivideTask(new SubgraphView(g), r, true, collected));
+        } finally {
+            pool.shutdown();
+        }
+        for (Set<Integer> ids : collected) {
+            regions.add(originG.getVerticesFromID(ids));
+        }
+        return regions;
+    }
+
+    private static class DivideTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final SubgraphView piece;
+        private final int r;
+        private final boolean phaseI;
+        private final Queue<Set<Integer>> collected;
+
+        DivideTask(SubgraphView piece, int r, boolean phaseI, Queue<Set<Integer>> collected) {
+            this.piece = piece;
+            this.r = r;
+            this.phaseI = phaseI;
+            this.collected = collected;
+        }
+
+        @Override
+        protected void compute() {
+            // a piece left by phase I goes on to phase II
+            boolean phaseII = !phaseI || piece.getVertexNum() <= r;
+            if (phaseII && RecursiveDivider.isRegion(piece, r)) {
+                collected.add(piece.getVertexIDs());
+                return;
+            }
+            SubgraphView[] pieces = RecursiveDivider.separate(piece, phaseII);
+            invokeAll(new DivideTask(pieces[0], r, !phaseII, collected),
+                    new DivideTask(pieces[1], r, !phaseII, collected));
+        }
+    }
+
+    public static void main(String[] args) throws FileNotFoundException {
+        SelfDualGraph g = new SelfDualGraph();
+        g.buildGraph(args.length > 0 ? args[0] : "./input_data/grids/2.txt");
+        int r = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            GraphDivider gd = new ParallelRecursiveDivider(g, threads);
+            long time0 = System.currentTimeMillis();
+            Set<Set<Vertex>> regions = gd.rDivision(r);
+            long time1 = System.currentTimeMillis();
+            System.out.printf("threads = %d, regions = %d, Time: [%dms]\n", threads, regions.size(), time1 - time0);
+        }
+    }
+}
@@ -10,62 +10,202 @@ import java.util.*;
 /**
  * O(NlogN) r-division
  * Implementation uses SCS
+ * <p>
+ * pieces are kept as SubgraphViews of the graph they were separated from,
+ * a piece is only copied into a new graph when it has to be separated again
  */
 public class RecursiveDivider extends GraphDivider {
-    private Queue<SelfDualGraph> subgraphs;
+    private Queue<SubgraphView> subgraphs;
+    private SeparatorTree tree;
 
     public RecursiveDivider(SelfDualGraph g) {
         super(g);
         subgraphs = new LinkedList<>();
     }
 
+    /**
+     * phase I takes its pieces from a separator tree of g instead of separating g again
+     *
+     * @param g
+     * @param tree
+     */
+    public RecursiveDivider(SelfDualGraph g, SeparatorTree tree) {
+        this(g);
+        this.tree = tree;
+    }
+
+    /**
+     * divide a piece of another graph, the piece is copied only once and is modified in place
+     *
+     * @param piece
+     */
+    public RecursiveDivider(SubgraphView piece) {
+        super(piece);
+        subgraphs = new LinkedList<>();
+    }
+
 
     @Override
     public Set<Set<Vertex>> rDivision(int r) {
         regions = new HashSet<>();
         subgraphs = new LinkedList<>();
         g.flatten();
-        phaseI(g, r);
+        if (tree != null) phaseI(tree, r);
+        else phaseI(g, r);
         phaseII(r);
         return regions;
     }
 
     public void phaseI(SelfDualGraph graph, int r) {
-        if (graph.getVertexNum() <= r) {
-            subgraphs.add(graph);
+        phaseI(new SubgraphView(graph), r);
+    }
+
+    private void phaseI(SubgraphView piece, int r) {
+        if (piece.getVertexNum() <= r) {
+            subgraphs.add(piece);
             return;
         }
-        graph.triangulate();
+        SubgraphView[] pieces = separate(piece, false);
+        phaseI(pieces[0], r);
+        phaseI(pieces[1], r);
+    }
 
-        Separator sp = new SimpleCycleSeparator(graph);
-        Set<Vertex>[] subgraphs = sp.findSubgraphs();
-        SelfDualGraph g1 = graph.buildSubgraph(subgraphs[0]);
-        SelfDualGraph g2 = graph.buildSubgraph(subgraphs[1]);
+    /**
+     * the largest nodes of the tree with at most r vertices together with their boundary, or leaves;
+     * a separator vertex with no neighbor in any of them joins the piece of a neighbor, pieces larger than r are
+     * separated again. An edge between two separator vertices in no common piece joins the piece of its tail, so
+     * every edge is in some piece as with phaseI(graph, r).
+     *
+     * @param tree
+     * @param r
+     */
+    public void phaseI(SeparatorTree tree, int r) {
+        List<Set<Integer>> pieces = new ArrayList<>();
+        Map<Integer, Integer> pieceOf = new HashMap<>();
+        Deque<SeparatorTree.Node> stack = new ArrayDeque<>();
+        stack.push(tree.getRoot());
+        while (!stack.isEmpty()) {
+            SeparatorTree.Node node = stack.pop();
+            if (node.isLeaf() || node.getSize() + node.getBoundary().length <= r) {
+                Set<Integer> ids = new HashSet<>();
+                for (int id : node.getVertices()) ids.add(id);
+                for (int id : node.getBoundary()) ids.add(id);
+                for (int id : ids) pieceOf.putIfAbsent(id, pieces.size());
+                pieces.add(ids);
+            } else {
+                for (SeparatorTree.Node child : node.getChildren()) stack.push(child);
+            }
+        }
+        List<Vertex> left = new ArrayList<>();
+        for (Vertex v : g.getVertices()) {
+            if (!pieceOf.containsKey(v.getID())) left.add(v);
+        }
+        while (!left.isEmpty()) {
+            List<Vertex> next = new ArrayList<>();
+            for (Vertex v : left) {
+                Integer piece = null;
+                Dart d = v.getFirstDart();
+                for (int i = 0; i < v.getDegree() && piece == null; i++, d = d.getSuccessor()) {
+                    piece = pieceOf.get(d.getHead().getID());
+                }
+                if (piece == null) {
+                    next.add(v);
+                } else {
+                    pieces.get(piece).add(v.getID());
+                    pieceOf.put(v.getID(), piece);
+                }
+            }
+            if (next.size() == left.size()) {
+                // no neighbor in any piece, the rest is a piece of its own
+                Set<Integer> ids = new HashSet<>();
+                for (Vertex v : next) ids.add(v.getID());
+                pieces.add(ids);
+                break;
+            }
+            left = next;
+        }
+        List<List<Integer>> piecesOf = new ArrayList<>();
+        Map<Integer, Integer> index = new HashMap<>();
+        for (int i = 0; i < pieces.size(); i++) {
+            for (int id : pieces.get(i)) {
+                Integer at = index.get(id);
+                if (at == null) {
+                    index.put(id, piecesOf.size());
+                    piecesOf.add(new ArrayList<>());
+                    at = piecesOf.size() - 1;
+                }
+                piecesOf.get(at).add(i);
+            }
+        }
+        for (Vertex u : g.getVertices()) {
+            Dart d = u.getFirstDart();
+            for (int i = 0; i < u.getDegree(); i++, d = d.getSuccessor()) {
+                int v = d.getHead().getID();
+                if (u.getID() >= v) continue;
+                List<Integer> ofU = piecesOf.get(index.get(u.getID())), ofV = piecesOf.get(index.get(v));
+                boolean covered = false;
+                for (int piece : ofU) {
+                    if (ofV.contains(piece)) {
+                        covered = true;
+                        break;
+                    }
+                }
+                if (!covered) {
+                    int piece = ofU.get(0);
+                    pieces.get(piece).add(v);
+                    ofV.add(piece);
+                }
+            }
+        }
+        // pieces grown past r are split as in phaseI(graph, r)
+        for (Set<Integer> ids : pieces) phaseI(new SubgraphView(g, g.getVerticesFromID(ids)), r);
+    }
 
-        phaseI(g1, r);
-        phaseI(g2, r);
+    /**
+     * copy and triangulate the piece, then split it with SCS
+     *
+     * @param piece
+     * @param boundaryWeight balance the boundary vertices (phase II) instead of all vertices (phase I)
+     * @return views of the 2 sub-pieces
+     */
+    static SubgraphView[] separate(SubgraphView piece, boolean boundaryWeight) {
+        SelfDualGraph graph = piece.materialize();
+        graph.triangulate();
+        if (boundaryWeight) graph.assignWeightToBoundary_useDart();
+        Separator sp = new SimpleCycleSeparator(graph);
+        Set<Vertex>[] subs = sp.findSubgraphs();
+        return new SubgraphView[]{new SubgraphView(graph, subs[0]), new SubgraphView(graph, subs[1])};
     }
 
+    /**
+     * copies every piece into a new graph, for inspection only
+     *
+     * @return
+     */
     public Queue<SelfDualGraph> getSubgraphsAfterPhaseI() {
-        return subgraphs;
+        Queue<SelfDualGraph> graphs = new LinkedList<>();
+        for (SubgraphView piece : subgraphs) graphs.add(piece.materialize());
+        return graphs;
+    }
+
+    /**
+     * a piece is a final region if its boundary size is less than 4*sqrt(r)
+     *
+     * @param piece
+     * @param r
+     * @return
+     */
+    static boolean isRegion(SubgraphView piece, int r) {
+        return piece.getBoundarySize() <= Math.max(4 * Math.sqrt(r), 6);
     }
 
     public void phaseII(int r) {
         while (!subgraphs.isEmpty()) {
-            SelfDualGraph subgraph = subgraphs.poll();
-            // if boundary size less than 4*sqrt(r)
-            if (subgraph.getBoundarySize() <= Math.max(4 * Math.sqrt(r), 6)) {
-                regions.add(originG.getVerticesFromID(verticesToID(subgraph.getVertices())));
+            SubgraphView piece = subgraphs.poll();
+            if (isRegion(piece, r)) {
+                regions.add(originG.getVerticesFromID(piece.getVertexIDs()));
             } else {
-                subgraph.triangulate();
-                subgraph.assignWeightToBoundary_useDart();
-                Separator sp = new SimpleCycleSeparator(subgraph);
-                Set<Vertex> separator = sp.findSeparator();
-                Set<Vertex>[] subs = sp.findSubgraphs();
-                SelfDualGraph g1 = subgraph.buildSubgraph(subs[0]);
-                SelfDualGraph g2 = subgraph.buildSubgraph(subs[1]);
-                subgraphs.add(g1);
-                subgraphs.add(g2);
+                Collections.addAll(subgraphs, separate(piece, true));
             }
         }
     }
@@ -0,0 +1,86 @@
+package algorithms.SSSP;
+
+import algorithms.AStarHeuristic.*;
+import algorithms.IndexedHeap.*;
+import selfdualgraph.*;
+
+/**
+ * Goal-directed Dijkstra: point-to-point queries order the heap by dist(s, v) + estimate(v, t)
+ * <p>
+ * with an admissible and consistent heuristic the distance to t is exact and each vertex is settled once,
+ * vertices pointing away from t are never settled; a vertex improved after being settled (possible only
+ * through rounding of the estimates) is reopened, so distances stay exact
+ * <p>
+ * single-source queries (findSSSP, query without target) are plain Dijkstra
+ */
+public class AStar extends Dijkstra {
+    protected AStarHeuristic heuristic;
+
+    public AStar(SelfDualGraph graph, int dist_measure, AStarHeuristic heuristic) {
+        this(graph, dist_measure, heuristic, new BinaryHeap());
+    }
+
+    /**
+     * @param graph
+     * @param dist_measure
+     * @param heuristic    initialized on the snapshot of graph here
+     * @param heap         priority queue strategy
+     */
+    public AStar(SelfDualGraph graph, int dist_measure, AStarHeuristic heuristic, IndexedHeap heap) {
+        super(graph, dist_measure, heap);
+        if (heap == null) {
+            throw new RuntimeException("A* needs an indexed heap.");
+        }
+        this.heuristic = heuristic;
+        heuristic.init(getCompactGraph(), dist_measure);
+    }
+
+    /**
+     * the heuristic is initialized again on a new snapshot, its estimates are indexed by the snapshot
+     */
+    @Override
+    public synchronized CompactGraph getCompactGraph() {
+        CompactGraph before = cg;
+        CompactGraph snapshot = super.getCompactGraph();
+        if (snapshot != before && before != null) heuristic.init(snapshot, distance_measure);
+        return snapshot;
+    }
+
+    public AStarHeuristic getHeuristic() {
+        return heuristic;
+    }
+
+    @Override
+    public void setDistance_measure(int dist_measure) {
+        super.setDistance_measure(dist_measure);
+        heuristic.init(getCompactGraph(), dist_measure);
+    }
+
+    @Override
+    public void query(int s, int t, SSSPResult result, IndexedHeap pq) {
+        if (t < 0) {
+            super.query(s, t, result, pq);
+            return;
+        }
+        CompactGraph cg = result.getGraph();
+        result.reset(s);
+        pq.init(cg.getVertexNum());
+        pq.insert(s, heuristic.estimate(s, t));
+        while (!pq.isEmpty()) {
+            int v = pq.deleteMin();
+            result.settle(v);
+            if (v == t) return;
+            double dv = result.getDist(v);
+            for (int i = 0, d = cg.getFirstDart(v); i < cg.getDegree(v); i++, d = cg.getSuccessor(d)) {
+                int vv = cg.getHead(d);
+                double newDist = dv + getDartDist(cg, d);
+                if (newDist < result.getDist(vv)) {
+                    result.setDist(vv, newDist, d);
+                    double key = newDist + heuristic.estimate(vv, t);
+                    if (pq.contains(vv)) pq.decreaseKey(vv, key);
+                    else pq.insert(vv, key);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package algorithms.SSSP;
+
+import algorithms.IndexedHeap.*;
+import selfdualgraph.*;
+
+import java.util.*;
+
+/**
+ * Point-to-point shortest path by two Dijkstra searches, forward from the source and backward from the destination
+ * <p>
+ * The backward search runs on the reverse darts: leaving v by dart d, it reaches head(d) through rev(d),
+ * so lengths need not be symmetric. The side with the smaller heap is advanced, each relaxation reaching a vertex
+ * already reached by the other side is a candidate path; the search stops once the two heap minimums
+ * add up to at least the best candidate.
+ * <p>
+ * Works on the array-backed snapshot of the graph taken at construction, query() leaves the graph untouched.
+ */
+public class BidirectionalDijkstra extends SSSP {
+    private final Dijkstra dijkstra;
+    private final CompactGraph cg;
+    private final SSSPResult forward, backward;
+    private final IndexedHeap forwardHeap, backwardHeap;
+    private int s = -1, t = -1;
+    private int meet;
+    private double mu;
+
+    public BidirectionalDijkstra(SelfDualGraph g, int dist_measure) {
+        this(g, dist_measure, new BinaryHeap());
+    }
+
+    /**
+     * @param g
+     * @param dist_measure
+     * @param heap         priority queue strategy, each direction gets its own heap.newHeap()
+     */
+    public BidirectionalDijkstra(SelfDualGraph g, int dist_measure, IndexedHeap heap) {
+        super(g, dist_measure);
+        dijkstra = new Dijkstra(g, dist_measure, heap);
+        cg = dijkstra.getCompactGraph();
+        forward = new SSSPResult(cg);
+        backward = new SSSPResult(cg);
+        forwardHeap = heap.newHeap();
+        backwardHeap = heap.newHeap();
+    }
+
+    public CompactGraph getCompactGraph() {
+        return cg;
+    }
+
+    /**
+     * @param s dense index of source vertex
+     * @param t dense index of destination vertex
+     * @return distance from s to t, Double.MAX_VALUE if t is not reachable
+     */
+    public double query(int s, int t) {
+        this.s = s;
+        this.t = t;
+        forward.reset(s);
+        backward.reset(t);
+        forwardHeap.init(cg.getVertexNum());
+        backwardHeap.init(cg.getVertexNum());
+        forwardHeap.insert(s, 0);
+        backwardHeap.insert(t, 0);
+        meet = s == t ? s : -1;
+        mu = s == t ? 0 : Double.MAX_VALUE;
+        while (!forwardHeap.isEmpty() && !backwardHeap.isEmpty()) {
+            if (forwardHeap.getKey(forwardHeap.peekMin()) + backwardHeap.getKey(backwardHeap.peekMin()) >= mu) break;
+            if (forwardHeap.size() <= backwardHeap.size()) step(forwardHeap, forward, backward, false);
+            else step(backwardHeap, backward, forward, true);
+        }
+        return mu;
+    }
+
+    /**
+     * settle the minimum of one side and relax its darts
+     *
+     * @param reverse true for the backward search, which relaxes rev(d) for each dart d leaving v
+     */
+    private void step(IndexedHeap pq, SSSPResult result, SSSPResult other, boolean reverse) {
+        int v = pq.deleteMin();
+        result.settle(v);
+        double dv = result.getDist(v);
+        for (int i = 0, d = cg.getFirstDart(v); i < cg.getDegree(v); i++, d = cg.getSuccessor(d)) {
+            int u = cg.getHead(d);
+            int e = reverse ? cg.getReverse(d) : d;
+            double newDist = dv + getDartDist(cg, e);
+            if (newDist >= result.getDist(u)) continue;
+            result.setDist(u, newDist, e);
+            if (pq.contains(u)) pq.decreaseKey(u, newDist);
+            else pq.insert(u, newDist);
+            if (other.isReached(u) && newDist + other.getDist(u) < mu) {
+                mu = newDist + other.getDist(u);
+                meet = u;
+            }
+        }
+    }
+
+    private int indexOf(Vertex v, String role) {
+        int idx = cg.getIndex(v);
+        if (idx < 0) {
+            throw new RuntimeException(role + " vertex not in graph");
+        }
+        return idx;
+    }
+
+    @Override
+    public double distFromTo(Vertex src, Vertex dest) {
+        return query(indexOf(src, "Source"), indexOf(dest, "Destination"));
+    }
+
+    /**
+     * @return darts on the shortest path of the last query, null if the destination is not reachable
+     */
+    public int[] getPathDarts() {
+        if (meet < 0) return null;
+        int[] head = forward.getPathDarts(meet);
+        int len = 0;
+        for (int v = meet; v != t; v = cg.getHead(backward.getParentDart(v))) len++;
+        int[] path = Arrays.copyOf(head, head.length + len);
+        for (int v = meet, i = head.length; v != t; v = cg.getHead(path[i++])) path[i] = backward.getParentDart(v);
+        return path;
+    }
+
+    @Override
+    public List<Vertex> getPath(Vertex src, Vertex dest) {
+        int s = indexOf(src, "Source"), t = indexOf(dest, "Destination");
+        if (s != this.s || t != this.t) query(s, t);
+        int[] darts = getPathDarts();
+        if (darts == null) return null;
+        List<Vertex> path = new ArrayList<>(darts.length + 1);
+        path.add(src);
+        for (int d : darts) path.add(cg.getVertex(cg.getHead(d)));
+        return path;
+    }
+
+    /**
+     * @return number of vertices settled by the two searches of the last query
+     */
+    public int getSettledNum() {
+        return forward.getSettledNum() + backward.getSettledNum();
+    }
+
+    /**
+     * single source: there is no destination to search back from, a plain Dijkstra is run
+     *
+     * @param src
+     */
+    @Override
+    public void findSSSP(Vertex src) {
+        this.src = src;
+        dijkstra.findSSSP(src);
+    }
+
+    @Override
+    public double findSSSP(Vertex src, int r) {
+        findSSSP(src);
+        return 0;
+    }
+}
@@ -0,0 +1,457 @@
+package algorithms.SSSP;
+
+import algorithms.IndexedHeap.*;
+import algorithms.RDivision.*;
+import selfdualgraph.*;
+
+import java.util.*;
+
+/**
+ * Dense distance graph: for each region of an r-division, the distances inside the region between all of its
+ * boundary vertices; the union over all regions has the same boundary-to-boundary distances as the whole graph
+ * <p>
+ * Region matrices are computed by MSSP. The boundary vertices of a region are ordered face by face, each face
+ * in cyclic order a(0) .. a(b-1), and the pairs (u, v) are split recursively: an arc is cut into halves A, B,
+ * the rows A against the columns B (in reverse order) and B against A are Monge when A and B lie on one face,
+ * since shortest paths between interleaved pairs cross; then A and B are split again. These pieces are searched
+ * with Monge envelopes by FRDijkstra. Blocks which turn out not Monge (boundary on several holes) are cut into
+ * quarters until they are; blocks with unreachable pairs (disconnected regions) and short arcs are kept as
+ * plain matrices.
+ * <p>
+ * Edges with no region containing both ends are kept as 2 x 2 plain pieces of their own.
+ */
+public class DenseDistanceGraph {
+    private static final int LEAF = 32;     // arcs up to this many boundary vertices are one plain piece
+
+    /**
+     * a region of the division with the distances between its boundary vertices
+     */
+    static class RegionMatrix {
+        final CompactGraph cg;          // region subgraph, null for a single edge between regions
+        final int[] boundary;           // boundary ids, face by face in cyclic order
+        final int[] local;              // vertex of each boundary vertex in cg
+        final Map<Integer, Integer> localIndex;  // vertex of the whole graph -> vertex in cg
+        final double[][] dist;          // dist[i][j]: from boundary[i] to boundary[j] inside the region
+
+        RegionMatrix(CompactGraph cg, int[] boundary, int[] local, Map<Integer, Integer> localIndex, double[][] dist) {
+            this.cg = cg;
+            this.boundary = boundary;
+            this.local = local;
+            this.localIndex = localIndex;
+            this.dist = dist;
+        }
+    }
+
+    /**
+     * rows against columns of one region matrix
+     * a Monge piece keeps for each row a segment tree of column argmins, for range minimum queries
+     */
+    static class Piece {
+        final RegionMatrix region;
+        final int[] rows, cols;         // positions in region.boundary
+        final boolean monge;
+        final int[][] argTree;          // argTree[i][q + j] = j, argTree[i][k] = argmin of its two children
+
+        Piece(RegionMatrix region, int[] rows, int[] cols, boolean monge) {
+            this.region = region;
+            this.rows = rows;
+            this.cols = cols;
+            this.monge = monge;
+            if (!monge) {
+                argTree = null;
+                return;
+            }
+            int q = cols.length;
+            argTree = new int[rows.length][2 * q];
+            for (int i = 0; i < rows.length; i++) {
+                int[] t = argTree[i];
+                for (int j = 0; j < q; j++) t[q + j] = j;
+                for (int k = q - 1; k > 0; k--) {
+                    t[k] = get(i, t[2 * k]) <= get(i, t[2 * k + 1]) ? t[2 * k] : t[2 * k + 1];
+                }
+            }
+        }
+
+        double get(int i, int j) {
+            return region.dist[rows[i]][cols[j]];
+        }
+
+        /**
+         * @return column of the minimum of row i over columns lo .. hi
+         */
+        int argMin(int i, int lo, int hi) {
+            int[] t = argTree[i];
+            int q = cols.length, best = -1;
+            for (int l = lo + q, r = hi + q + 1; l < r; l >>= 1, r >>= 1) {
+                if ((l & 1) == 1) best = better(i, best, t[l++]);
+                if ((r & 1) == 1) best = better(i, best, t[--r]);
+            }
+            return best;
+        }
+
+        private int better(int i, int a, int b) {
+            if (a < 0) return b;
+            return get(i, b) < get(i, a) || (get(i, b) == get(i, a) && b < a) ? b : a;
+        }
+    }
+
+    private final SelfDualGraph g;
+    private final CompactGraph cg;
+    private final int distance_measure;
+    private final int[] boundaryVertex;     // boundary id -> vertex of the whole graph
+    private final int[] boundaryId;         // vertex -> boundary id, -1 for inner vertices
+    private final List<RegionMatrix> regions = new ArrayList<>();
+    private final int[][] regionsOf;        // vertex -> regions containing it, single edges left out
+    private final List<Piece> pieces = new ArrayList<>();
+    private int[][] rowPieces;              // boundary id -> pieces in which it is a row
+    private int[][] rowPositions;           // boundary id -> its row in each of rowPieces
+
+    /**
+     * r-division of g by gd, then the matrices of all regions; g itself is not modified
+     *
+     * @param g
+     * @param gd           divider of g
+     * @param r
+     * @param dist_measure
+     */
+    public DenseDistanceGraph(SelfDualGraph g, GraphDivider gd, int r, int dist_measure) {
+        this(g, idSets(gd, gd.rDivision(r)), dist_measure);
+    }
+
+    /**
+     * @param g
+     * @param regions      vertex IDs of each region, together covering all vertices
+     * @param dist_measure
+     */
+    public DenseDistanceGraph(SelfDualGraph g, Collection<Set<Integer>> regions, int dist_measure) {
+        this.g = g;
+        this.distance_measure = dist_measure;
+        cg = new CompactGraph(g);
+        int V = cg.getVertexNum();
+        Map<Integer, Integer> index = new HashMap<>();
+        for (int v = 0; v < V; v++) index.put(cg.getVertexID(v), v);
+
+        // vertices of each region, boundary vertices are in other regions too or have a neighbor outside
+        List<int[]> vertexLists = new ArrayList<>();
+        List<List<Integer>> containing = new ArrayList<>();
+        for (int v = 0; v < V; v++) containing.add(new ArrayList<>(1));
+        for (Set<Integer> ids : regions) {
+            int[] list = new int[ids.size()];
+            int n = 0;
+            for (int id : ids) {
+                Integer v = index.get(id);
+                if (v == null) {
+                    throw new RuntimeException("Region vertex not in graph");
+                }
+                list[n++] = v;
+                containing.get(v).add(vertexLists.size());
+            }
+            vertexLists.add(list);
+        }
+        regionsOf = new int[V][];
+        for (int v = 0; v < V; v++) {
+            if (containing.get(v).isEmpty()) {
+                throw new RuntimeException("Vertex " + cg.getVertexID(v) + " is in no region");
+            }
+            regionsOf[v] = toArray(containing.get(v));
+        }
+
+        boundaryId = new int[V];
+        Arrays.fill(boundaryId, -1);
+        List<Integer> bVertices = new ArrayList<>();
+        List<int[]> regionBoundaries = new ArrayList<>();
+        for (int R = 0; R < vertexLists.size(); R++) {
+            List<Integer> b = new ArrayList<>();
+            for (int v : vertexLists.get(R)) {
+                if (regionsOf[v].length > 1) {
+                    b.add(v);
+                    continue;
+                }
+                for (int i = 0, d = cg.getFirstDart(v); i < cg.getDegree(v); i++, d = cg.getSuccessor(d)) {
+                    if (!contains(regionsOf[cg.getHead(d)], R)) {
+                        b.add(v);
+                        break;
+                    }
+                }
+            }
+            for (int v : b) {
+                if (boundaryId[v] < 0) {
+                    boundaryId[v] = bVertices.size();
+                    bVertices.add(v);
+                }
+            }
+            regionBoundaries.add(toArray(b));
+        }
+        boundaryVertex = toArray(bVertices);
+
+        for (int R = 0; R < vertexLists.size(); R++) {
+            this.regions.add(buildRegion(vertexLists.get(R), regionBoundaries.get(R)));
+        }
+        // edges between regions
+        for (int d = 0; d < cg.getDartNum(); d += 2) {
+            int u = cg.getTail(d), v = cg.getHead(d);
+            boolean covered = false;
+            for (int R : regionsOf[u]) covered |= contains(regionsOf[v], R);
+            if (covered) continue;
+            double[][] dist = new double[][]{{0, length(d)}, {length(d ^ 1), 0}};
+            this.regions.add(new RegionMatrix(null, new int[]{boundaryId[u], boundaryId[v]}, null, null, dist));
+        }
+
+        for (RegionMatrix rm : this.regions) addPieces(rm, 0, rm.boundary.length);
+        indexRows();
+    }
+
+    private static List<Set<Integer>> idSets(GraphDivider gd, Set<Set<Vertex>> divisions) {
+        List<Set<Integer>> ids = new ArrayList<>();
+        for (Set<Vertex> division : divisions) ids.add(gd.verticesToID(division));
+        return ids;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) array[i] = list.get(i);
+        return array;
+    }
+
+    private static boolean contains(int[] array, int x) {
+        for (int y : array) if (y == x) return true;
+        return false;
+    }
+
+    private double length(int d) {
+        if (distance_measure == SSSP.WEIGHT_AS_DISTANCE) return cg.getWeight(d);
+        else if (distance_measure == SSSP.CAPACITY_AS_DISTANCE) return cg.getCapacity(d);
+        else throw new RuntimeException("Distance measure not set correctly.");
+    }
+
+    /**
+     * subgraph of one region and the distances between its boundary vertices
+     */
+    private RegionMatrix buildRegion(int[] vertices, int[] boundary) {
+        Set<Integer> vertexIDs = new HashSet<>();
+        for (int v : vertices) vertexIDs.add(cg.getVertexID(v));
+        SelfDualGraph sub = g.buildSubgraph(g.getVerticesFromID(vertexIDs));
+        MSSP mssp = new MSSP(sub, distance_measure);
+        CompactGraph sg = mssp.getCompactGraph();
+        Map<Integer, Integer> subIndex = new HashMap<>();
+        for (int v = 0; v < sg.getVertexNum(); v++) subIndex.put(sg.getVertexID(v), v);
+        Map<Integer, Integer> localIndex = new HashMap<>();
+        for (int v : vertices) localIndex.put(v, subIndex.get(cg.getVertexID(v)));
+
+        // boundary vertices face by face, each face in cyclic order, faces with the most of them first
+        int b = boundary.length;
+        Map<Integer, Integer> globalOf = new HashMap<>();    // vertex in sg -> boundary vertex of the whole graph
+        for (int v : boundary) globalOf.put(localIndex.get(v), v);
+        int[] order = new int[b];
+        int n = 0;
+        Set<Integer> left = new HashSet<>(globalOf.keySet());
+        while (!left.isEmpty()) {
+            int[] best = null;
+            int bestNum = 0;
+            for (int f = 0; f < sg.getFaceNum(); f++) {
+                int[] onFace = mssp.getBoundary(f);
+                int num = 0;
+                for (int u : onFace) if (left.contains(u)) num++;
+                if (num > bestNum) {
+                    best = onFace;
+                    bestNum = num;
+                }
+            }
+            if (best == null) {
+                // isolated vertices are on no face
+                for (int u : left) order[n++] = globalOf.get(u);
+                break;
+            }
+            for (int u : best) if (left.remove(u)) order[n++] = globalOf.get(u);
+        }
+
+        int[] ids = new int[b], local = new int[b];
+        for (int i = 0; i < b; i++) {
+            ids[i] = boundaryId[order[i]];
+            local[i] = localIndex.get(order[i]);
+        }
+        return new RegionMatrix(sg, ids, local, localIndex, regionDistances(sub, mssp, local));
+    }
+
+    /**
+     * MSSP if the region is connected, otherwise a Dijkstra from each boundary vertex
+     *
+     * @param local boundary vertices, indices in the region subgraph
+     */
+    private double[][] regionDistances(SelfDualGraph sub, MSSP mssp, int[] local) {
+        int b = local.length;
+        if (b == 0) return new double[0][0];
+        CompactGraph sg = mssp.getCompactGraph();
+        Dijkstra dijk = new Dijkstra(sub, distance_measure);
+        SSSPResult res = dijk.newResult();
+        IndexedHeap pq = new BinaryHeap();
+        dijk.query(local[0], res, pq);
+        if (res.getSettledNum() == sg.getVertexNum()) {
+            List<Vertex> bv = new ArrayList<>(b);
+            for (int u : local) bv.add(sg.getVertex(u));
+            return mssp.distances(bv, bv);
+        }
+        double[][] dist = new double[b][b];
+        for (int i = 0; i < b; i++) {
+            dijk.query(local[i], res, pq);
+            for (int j = 0; j < b; j++) dist[i][j] = res.getDist(local[j]);
+        }
+        return dist;
+    }
+
+    /**
+     * split the boundary order recursively: the rows of one half against the columns of the other half,
+     * in reverse order, then each half again; short arcs are relaxed as plain pieces, Monge envelopes
+     * do not pay off on them
+     */
+    private void addPieces(RegionMatrix rm, int lo, int hi) {
+        if (hi - lo <= LEAF) {
+            int[] all = range(lo, hi, false);
+            if (hi - lo > 1) pieces.add(new Piece(rm, all, all, false));
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        addBlock(rm, range(lo, mid, false), range(mid, hi, true));
+        addBlock(rm, range(mid, hi, false), range(lo, mid, true));
+        addPieces(rm, lo, mid);
+        addPieces(rm, mid, hi);
+    }
+
+    private static int[] range(int lo, int hi, boolean reverse) {
+        int[] r = new int[hi - lo];
+        for (int i = 0; i < r.length; i++) r[i] = reverse ? hi - 1 - i : lo + i;
+        return r;
+    }
+
+    /**
+     * a Monge block is one piece, any other block is cut into four until its parts are Monge,
+     * a block with unreachable pairs is a plain piece
+     */
+    private void addBlock(RegionMatrix rm, int[] rows, int[] cols) {
+        for (int i : rows) {
+            for (int j : cols) {
+                if (rm.dist[i][j] >= Double.MAX_VALUE) {
+                    pieces.add(new Piece(rm, rows, cols, false));
+                    return;
+                }
+            }
+        }
+        if (isMonge(rm.dist, rows, cols)) {
+            pieces.add(new Piece(rm, rows, cols, true));
+            return;
+        }
+        int rh = rows.length / 2, ch = cols.length / 2;
+        int[][] rs = {Arrays.copyOfRange(rows, 0, rh), Arrays.copyOfRange(rows, rh, rows.length)};
+        int[][] cs = {Arrays.copyOfRange(cols, 0, ch), Arrays.copyOfRange(cols, ch, cols.length)};
+        for (int[] r : rs) {
+            for (int[] c : cs) {
+                if (r.length > 0 && c.length > 0) addBlock(rm, r, c);
+            }
+        }
+    }
+
+    /**
+     * M[i][j] + M[i+1][j+1] <= M[i][j+1] + M[i+1][j] for all adjacent rows and columns
+     */
+    private static boolean isMonge(double[][] dist, int[] rows, int[] cols) {
+        for (int i = 1; i < rows.length; i++) {
+            for (int j = 1; j < cols.length; j++) {
+                double a = dist[rows[i - 1]][cols[j - 1]], b = dist[rows[i]][cols[j]];
+                double c = dist[rows[i - 1]][cols[j]], d = dist[rows[i]][cols[j - 1]];
+                if (a + b > c + d + 1e-9 * (1 + Math.abs(c + d))) return false;
+            }
+        }
+        return true;
+    }
+
+    private void indexRows() {
+        int B = boundaryVertex.length;
+        List<List<int[]>> rowsOf = new ArrayList<>();
+        for (int i = 0; i < B; i++) rowsOf.add(new ArrayList<>());
+        for (int p = 0; p < pieces.size(); p++) {
+            Piece piece = pieces.get(p);
+            for (int i = 0; i < piece.rows.length; i++) {
+                rowsOf.get(piece.region.boundary[piece.rows[i]]).add(new int[]{p, i});
+            }
+        }
+        rowPieces = new int[B][];
+        rowPositions = new int[B][];
+        for (int i = 0; i < B; i++) {
+            List<int[]> list = rowsOf.get(i);
+            rowPieces[i] = new int[list.size()];
+            rowPositions[i] = new int[list.size()];
+            for (int k = 0; k < list.size(); k++) {
+                rowPieces[i][k] = list.get(k)[0];
+                rowPositions[i][k] = list.get(k)[1];
+            }
+        }
+    }
+
+    // ---------------- accessors ----------------
+
+    public SelfDualGraph getGraph() {
+        return g;
+    }
+
+    public CompactGraph getCompactGraph() {
+        return cg;
+    }
+
+    public int getDistanceMeasure() {
+        return distance_measure;
+    }
+
+    /**
+     * @return number of regions, edges between regions not counted
+     */
+    public int getRegionNum() {
+        return (int) regions.stream().filter(rm -> rm.cg != null).count();
+    }
+
+    /**
+     * @return number of distinct boundary vertices
+     */
+    public int getBoundaryNum() {
+        return boundaryVertex.length;
+    }
+
+    public int getPieceNum() {
+        return pieces.size();
+    }
+
+    public int getMongePieceNum() {
+        return (int) pieces.stream().filter(p -> p.monge).count();
+    }
+
+    int getBoundaryVertex(int id) {
+        return boundaryVertex[id];
+    }
+
+    /**
+     * @param v vertex of the whole graph
+     * @return its boundary id, -1 if v is an inner vertex of its region
+     */
+    int getBoundaryId(int v) {
+        return boundaryId[v];
+    }
+
+    RegionMatrix getRegion(int R) {
+        return regions.get(R);
+    }
+
+    int[] getRegionsOf(int v) {
+        return regionsOf[v];
+    }
+
+    Piece getPiece(int p) {
+        return pieces.get(p);
+    }
+
+    int[] getRowPieces(int id) {
+        return rowPieces[id];
+    }
+
+    int[] getRowPositions(int id) {
+        return rowPositions[id];
+    }
+}
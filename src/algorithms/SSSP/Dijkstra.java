@@ -1,5 +1,6 @@
 package algorithms.SSSP;
 
+import algorithms.IndexedHeap.*;
 import selfdualgraph.*;
 
 import java.util.*;
@@ -8,16 +9,38 @@ import java.util.*;
  * Assume:
  * graph is connected, otherwise some vertices have distance Double.MAX_VALUE
  * edges are symmetric, d.weight == d.reverse.weight
+ * <p>
+ * With an IndexedHeap strategy, search runs on an array-backed snapshot of the graph taken at the first query
+ * and taken again once the graph's version changes,
+ * each vertex is in the heap at most once and its key is lowered by decrease-key.
+ * Without one (heap == null), the original lazy-insertion java.util.PriorityQueue is used.
+ * <p>
+ * query() leaves the graph untouched and returns its own SSSPResult,
+ * findSSSP() keeps the legacy behavior of writing distances into the vertices.
  */
 public class Dijkstra extends SSSP{
     protected Map<Vertex, Vertex> vPathPrev;
+    protected IndexedHeap heap;
+    protected CompactGraph cg;
+    protected int cgVersion;        // version of g the snapshot was taken at
+    protected SSSPResult result;    // result of the last findSSSP()
 
     public Dijkstra(SelfDualGraph graph) {
-        super(graph);
+        this(graph, WEIGHT_AS_DISTANCE);
     }
 
     public Dijkstra(SelfDualGraph graph, int dist_measure) {
+        this(graph, dist_measure, new BinaryHeap());
+    }
+
+    /**
+     * @param graph
+     * @param dist_measure
+     * @param heap         priority queue strategy, null for the lazy-insertion PriorityQueue
+     */
+    public Dijkstra(SelfDualGraph graph, int dist_measure, IndexedHeap heap) {
         super(graph, dist_measure);
+        this.heap = heap;
     }
 
 
@@ -33,11 +56,14 @@ public class Dijkstra extends SSSP{
             throw new RuntimeException("Source vertex not in graph");
         }
         this.src = src;
+        if (heap != null) {
+            findSSSP_indexed(src);
+            return;
+        }
         for (Vertex v : vertices) {
             v.setVisited(false);
             v.setDistance(Double.MAX_VALUE);
         }
-        // TODO: implement a PQ that supports decrease-key
         PriorityQueue<Vertex> pq = new PriorityQueue<>(new Comparator<Vertex>() {
             @Override
             public int compare(Vertex o1, Vertex o2) {
@@ -57,7 +83,8 @@ public class Dijkstra extends SSSP{
             Vertex v = pq.poll();
             if (v.isVisited()) continue;
             v.setVisited(true);
-            for (Dart d : v.getIncidenceList()) {
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
                 Vertex vv = d.getHead();
                 if (vv.isVisited()) continue;
                 if (v.getDistance() + getDartDist(d) < vv.getDistance()) {
@@ -69,11 +96,134 @@ public class Dijkstra extends SSSP{
         }
     }
 
+    /**
+     * array-backed snapshot of the graph, taken at the first call and again after the graph is modified
+     */
+    public synchronized CompactGraph getCompactGraph() {
+        int version = g.getVersion();
+        if (cg == null || version != cgVersion) {
+            cg = new CompactGraph(g);
+            cgVersion = version;
+            result = null;
+        }
+        return cg;
+    }
+
+    /**
+     * @return a result buffer that can be reused across queries
+     */
+    public SSSPResult newResult() {
+        return new SSSPResult(getCompactGraph());
+    }
+
+    /**
+     * shortest paths from src without touching the graph, safe to call from several threads
+     *
+     * @param src
+     * @return
+     */
+    public SSSPResult query(Vertex src) {
+        SSSPResult res = newResult();
+        int s = res.getGraph().getIndex(src);
+        if (s < 0) {
+            throw new RuntimeException("Source vertex not in graph");
+        }
+        query(s, res, heap == null ? new BinaryHeap() : heap.newHeap());
+        return res;
+    }
+
+    /**
+     * Dijkstra on the array-backed snapshot with an indexed heap, heap size is at most V
+     * only reads the snapshot, concurrent calls are safe as long as each has its own result and heap
+     *
+     * @param s      dense index of source vertex
+     * @param result
+     * @param pq     scratch heap
+     */
+    public void query(int s, SSSPResult result, IndexedHeap pq) {
+        query(s, -1, result, pq);
+    }
+
+    /**
+     * point-to-point query: same as query(s, result, pq), but stops as soon as t is settled
+     * only vertices closer to s than t are settled, distances of the others are tentative or not reached
+     *
+     * @param s      dense index of source vertex
+     * @param t      dense index of destination vertex, -1 for all vertices
+     * @param result
+     * @param pq     scratch heap
+     */
+    public void query(int s, int t, SSSPResult result, IndexedHeap pq) {
+        CompactGraph cg = result.getGraph();
+        result.reset(s);
+        pq.init(cg.getVertexNum());
+        pq.insert(s, 0);
+        while (!pq.isEmpty()) {
+            int v = pq.deleteMin();
+            result.settle(v);
+            if (v == t) return;
+            double dv = result.getDist(v);
+            for (int i = 0, d = cg.getFirstDart(v); i < cg.getDegree(v); i++, d = cg.getSuccessor(d)) {
+                int vv = cg.getHead(d);
+                double newDist = dv + getDartDist(cg, d);
+                // with non-negative lengths, a settled vertex never improves
+                if (newDist < result.getDist(vv)) {
+                    result.setDist(vv, newDist, d);
+                    if (pq.contains(vv)) pq.decreaseKey(vv, newDist);
+                    else pq.insert(vv, newDist);
+                }
+            }
+        }
+    }
+
+    /**
+     * shortest path from src to dest without touching the graph, safe to call from several threads
+     *
+     * @param src
+     * @param dest
+     * @return result in which only dest and vertices closer than dest are settled
+     */
+    public SSSPResult query(Vertex src, Vertex dest) {
+        SSSPResult res = newResult();
+        int s = res.getGraph().getIndex(src), t = res.getGraph().getIndex(dest);
+        if (s < 0) {
+            throw new RuntimeException("Source vertex not in graph");
+        }
+        if (t < 0) {
+            throw new RuntimeException("Destination vertex not in graph");
+        }
+        query(s, t, res, heap == null ? new BinaryHeap() : heap.newHeap());
+        return res;
+    }
+
+    /**
+     * with the full result of findSSSP(src) at hand it is reused, otherwise a point-to-point query is made
+     * a point-to-point query does not write distances into the vertices
+     *
+     * @param src
+     * @param dest
+     * @return
+     */
+    @Override
+    public double distFromTo(Vertex src, Vertex dest) {
+        if (heap == null || src == this.src) return super.distFromTo(src, dest);
+        return query(src, dest).getDist(dest);
+    }
+
+    protected void findSSSP_indexed(Vertex src) {
+        getCompactGraph();
+        if (result == null) result = newResult();
+        query(result.getGraph().getIndex(src), result, heap);
+        result.copyToVertices();
+    }
+
     public List<Vertex> getPath(Vertex src, Vertex dest) {
+        if (heap != null && src != this.src) return query(src, dest).getPath(dest);
         if (src != this.src) findSSSP(src);
         LinkedList<Vertex> path = new LinkedList<>();
 
         // build path from dest to src
+        if (heap != null) return result.getPath(dest);
         Vertex v = dest;
         while (v != src) {
             path.addFirst(v);
@@ -0,0 +1,444 @@
+package algorithms.SSSP;
+
+import algorithms.IndexedHeap.*;
+import selfdualgraph.*;
+
+import java.util.*;
+
+/**
+ * Fakcharoenphol-Rao Dijkstra: point-to-point distances over a DenseDistanceGraph
+ * <p>
+ * The source reaches the boundary of its own region(s) by a Dijkstra inside them, the destination is reached
+ * from the boundary of its region(s) the same way, and in between only boundary vertices are settled.
+ * A boundary vertex settled with distance d becomes an active row, offset by d, of every piece it is a row of.
+ * <p>
+ * In a Monge piece the best active row of each column is non-decreasing along the columns, so the active rows
+ * own consecutive intervals of columns (the lower envelope). A new row takes one interval, found by binary search
+ * on both sides of where rows after it start, and the minimum of each interval comes from the row's range minimum
+ * tree; a piece thus offers its next column in O(log^2 b) without looking at all b^2 entries.
+ * Rows are activated in order of distance, so a column already settled never gets a smaller value from a later
+ * row: such columns are skipped by splitting the interval around them.
+ * Plain pieces relax all columns of a new row.
+ */
+public class FRDijkstra extends SSSP {
+    private final DenseDistanceGraph ddg;
+    private final Dijkstra dijkstra;
+    private final CompactGraph cg;
+    private final int P;                    // number of pieces, P is also the index of the source seeds
+    private final IndexedHeap pieceHeap;    // pieces keyed by a lower bound of their next column
+    private final IndexedHeap seeds;        // boundary ids reached from the source inside its regions
+    private final IndexedHeap regionHeap;
+    private final double[] dist;            // distance of each settled boundary id
+    private final int[] settled;            // epoch in which a boundary id was settled
+    private final double[] targetCost;      // distance from a boundary id to the destination inside its region
+    private final int[] target;             // epoch in which targetCost was set
+    private final PieceState[] states;
+    private final int[] touched;            // epoch in which a piece state was reset
+    private int epoch;
+    private int settledNum;
+
+    public FRDijkstra(DenseDistanceGraph ddg) {
+        super(ddg.getGraph(), ddg.getDistanceMeasure());
+        this.ddg = ddg;
+        dijkstra = new Dijkstra(g, distance_measure);
+        cg = ddg.getCompactGraph();
+        P = ddg.getPieceNum();
+        int B = ddg.getBoundaryNum();
+        pieceHeap = new BinaryHeap();
+        seeds = new BinaryHeap();
+        regionHeap = new BinaryHeap();
+        dist = new double[B];
+        settled = new int[B];
+        targetCost = new double[B];
+        target = new int[B];
+        states = new PieceState[P];
+        touched = new int[P];
+    }
+
+    public DenseDistanceGraph getDenseDistanceGraph() {
+        return ddg;
+    }
+
+    /**
+     * @return number of boundary vertices settled by the last query
+     */
+    public int getSettledNum() {
+        return settledNum;
+    }
+
+    private boolean isSettled(int id) {
+        return settled[id] == epoch;
+    }
+
+    /**
+     * @param s dense index of source vertex in ddg.getCompactGraph()
+     * @param t dense index of destination vertex
+     * @return distance from s to t, Double.MAX_VALUE if t is not reachable
+     */
+    public double query(int s, int t) {
+        epoch++;
+        settledNum = 0;
+        int B = ddg.getBoundaryNum();
+        seeds.init(B);
+        pieceHeap.init(P + 1);
+        double best = s == t ? 0 : Double.MAX_VALUE;
+
+        // from s to the boundary of its regions, and to t if it is in one of them
+        if (ddg.getBoundaryId(s) >= 0) seeds.insert(ddg.getBoundaryId(s), 0);
+        for (int R : ddg.getRegionsOf(s)) {
+            DenseDistanceGraph.RegionMatrix rm = ddg.getRegion(R);
+            double[] d = regionSearch(rm.cg, rm.localIndex.get(s), false);
+            for (int k = 0; k < rm.boundary.length; k++) {
+                if (d[rm.local[k]] < Double.MAX_VALUE) seeds.insertOrDecrease(rm.boundary[k], d[rm.local[k]]);
+            }
+            Integer lt = rm.localIndex.get(t);
+            if (lt != null) best = Math.min(best, d[lt]);
+        }
+        // from the boundary of the regions of t to t
+        if (ddg.getBoundaryId(t) >= 0) setTarget(ddg.getBoundaryId(t), 0);
+        for (int R : ddg.getRegionsOf(t)) {
+            DenseDistanceGraph.RegionMatrix rm = ddg.getRegion(R);
+            double[] d = regionSearch(rm.cg, rm.localIndex.get(t), true);
+            for (int k = 0; k < rm.boundary.length; k++) setTarget(rm.boundary[k], d[rm.local[k]]);
+        }
+
+        if (!seeds.isEmpty()) pieceHeap.insert(P, seeds.getKey(seeds.peekMin()));
+        while (!pieceHeap.isEmpty()) {
+            int p = pieceHeap.peekMin();
+            double key = pieceHeap.getKey(p);
+            if (key >= best) break;
+            pieceHeap.deleteMin();
+            // the key may be stale if the column it stood for was settled through another piece
+            double cur = peek(p);
+            if (cur > key) {
+                if (cur < Double.MAX_VALUE) pieceHeap.insert(p, cur);
+                continue;
+            }
+            int id = extract(p);
+            double next = peek(p);
+            if (next < Double.MAX_VALUE) pieceHeap.insert(p, next);
+
+            settled[id] = epoch;
+            dist[id] = cur;
+            settledNum++;
+            if (target[id] == epoch && targetCost[id] < Double.MAX_VALUE) best = Math.min(best, cur + targetCost[id]);
+            int[] rowPieces = ddg.getRowPieces(id), rowPositions = ddg.getRowPositions(id);
+            for (int k = 0; k < rowPieces.length; k++) {
+                int q = rowPieces[k];
+                state(q).activate(rowPositions[k], cur);
+                double m = peek(q);
+                if (m < Double.MAX_VALUE) pieceHeap.insertOrDecrease(q, m);
+            }
+        }
+        return best;
+    }
+
+    private void setTarget(int id, double cost) {
+        if (target[id] != epoch || cost < targetCost[id]) {
+            target[id] = epoch;
+            targetCost[id] = cost;
+        }
+    }
+
+    /**
+     * Dijkstra inside a region
+     *
+     * @param reverse false for distances from s, true for distances to s
+     */
+    private double[] regionSearch(CompactGraph sg, int s, boolean reverse) {
+        double[] d = new double[sg.getVertexNum()];
+        Arrays.fill(d, Double.MAX_VALUE);
+        d[s] = 0;
+        regionHeap.init(sg.getVertexNum());
+        regionHeap.insert(s, 0);
+        while (!regionHeap.isEmpty()) {
+            int v = regionHeap.deleteMin();
+            for (int i = 0, e = sg.getFirstDart(v); i < sg.getDegree(v); i++, e = sg.getSuccessor(e)) {
+                int u = sg.getHead(e);
+                double nd = d[v] + getDartDist(sg, reverse ? e ^ 1 : e);
+                if (nd < d[u]) {
+                    d[u] = nd;
+                    regionHeap.insertOrDecrease(u, nd);
+                }
+            }
+        }
+        return d;
+    }
+
+    private PieceState state(int p) {
+        if (states[p] == null) {
+            DenseDistanceGraph.Piece piece = ddg.getPiece(p);
+            states[p] = piece.monge ? new MongeState(piece) : new PlainState(piece);
+        }
+        if (touched[p] != epoch) {
+            touched[p] = epoch;
+            states[p].clear();
+        }
+        return states[p];
+    }
+
+    /**
+     * @return value of the next column of piece p, Double.MAX_VALUE if none
+     */
+    private double peek(int p) {
+        if (p == P) {
+            while (!seeds.isEmpty() && isSettled(seeds.peekMin())) seeds.deleteMin();
+            return seeds.isEmpty() ? Double.MAX_VALUE : seeds.getKey(seeds.peekMin());
+        }
+        return state(p).peek();
+    }
+
+    /**
+     * remove the next column of piece p, peek(p) must have been called
+     *
+     * @return its boundary id
+     */
+    private int extract(int p) {
+        if (p == P) return seeds.deleteMin();
+        return state(p).extract();
+    }
+
+    /**
+     * query-scoped state of one piece
+     */
+    private abstract class PieceState {
+        final DenseDistanceGraph.Piece piece;
+        final double[] offset;      // distance of each active row
+
+        PieceState(DenseDistanceGraph.Piece piece) {
+            this.piece = piece;
+            offset = new double[piece.rows.length];
+        }
+
+        int columnId(int j) {
+            return piece.region.boundary[piece.cols[j]];
+        }
+
+        abstract void clear();
+
+        abstract void activate(int i, double d);
+
+        abstract double peek();
+
+        abstract int extract();
+    }
+
+    /**
+     * every column keyed by its best value so far
+     */
+    private class PlainState extends PieceState {
+        final IndexedHeap heap = new BinaryHeap();
+
+        PlainState(DenseDistanceGraph.Piece piece) {
+            super(piece);
+        }
+
+        @Override
+        void clear() {
+            heap.init(piece.cols.length);
+        }
+
+        @Override
+        void activate(int i, double d) {
+            for (int j = 0; j < piece.cols.length; j++) {
+                double m = piece.get(i, j);
+                if (m >= Double.MAX_VALUE || isSettled(columnId(j))) continue;
+                heap.insertOrDecrease(j, d + m);
+            }
+        }
+
+        @Override
+        double peek() {
+            while (!heap.isEmpty() && isSettled(columnId(heap.peekMin()))) heap.deleteMin();
+            return heap.isEmpty() ? Double.MAX_VALUE : heap.getKey(heap.peekMin());
+        }
+
+        @Override
+        int extract() {
+            return columnId(heap.deleteMin());
+        }
+    }
+
+    /**
+     * columns lo .. hi owned by an active row on the lower envelope
+     */
+    private static class Interval {
+        final int row, lo, hi;
+        boolean alive = true;
+
+        Interval(int row, int lo, int hi) {
+            this.row = row;
+            this.lo = lo;
+            this.hi = hi;
+        }
+    }
+
+    /**
+     * the minimum of the row of an interval over part of its columns
+     */
+    private static class Candidate {
+        final Interval interval;
+        final int lo, hi, col;
+        final double key;
+
+        Candidate(Interval interval, int lo, int hi, int col, double key) {
+            this.interval = interval;
+            this.lo = lo;
+            this.hi = hi;
+            this.col = col;
+            this.key = key;
+        }
+    }
+
+    /**
+     * lower envelope of the active rows of a Monge piece
+     */
+    private class MongeState extends PieceState {
+        final TreeMap<Integer, Interval> byStart = new TreeMap<>();
+        final TreeMap<Integer, Interval> byRow = new TreeMap<>();
+        final PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble(c -> c.key));
+
+        MongeState(DenseDistanceGraph.Piece piece) {
+            super(piece);
+        }
+
+        @Override
+        void clear() {
+            byStart.clear();
+            byRow.clear();
+            candidates.clear();
+        }
+
+        double value(int i, int j) {
+            return offset[i] + piece.get(i, j);
+        }
+
+        double envelope(int j) {
+            Interval iv = byStart.floorEntry(j).getValue();
+            return value(iv.row, j);
+        }
+
+        @Override
+        void activate(int i, double d) {
+            offset[i] = d;
+            int Q = piece.cols.length;
+            // rows before i own the columns before q, rows after i the others
+            Map.Entry<Integer, Interval> after = byRow.higherEntry(i);
+            int q = byStart.isEmpty() ? 0 : after == null ? Q : after.getValue().lo;
+            // i beats a row before it on a suffix of columns, ties go to the later row
+            int l = 0, h = q;
+            while (l < h) {
+                int mid = (l + h) >>> 1;
+                if (value(i, mid) <= envelope(mid)) h = mid;
+                else l = mid + 1;
+            }
+            int lo = l;
+            // i beats a row after it on a prefix of columns
+            l = q;
+            h = Q;
+            while (l < h) {
+                int mid = (l + h) >>> 1;
+                if (byStart.isEmpty() || value(i, mid) < envelope(mid)) l = mid + 1;
+                else h = mid;
+            }
+            int hi = l - 1;
+            if (lo > hi) return;
+
+            // intervals under lo .. hi are cut back, by monotonicity none of them sticks out on both sides
+            List<Interval> covered = new ArrayList<>();
+            Integer first = byStart.floorKey(lo);
+            for (Interval iv : byStart.tailMap(first == null ? lo : first, true).values()) {
+                if (iv.lo > hi) break;
+                if (iv.hi >= lo) covered.add(iv);
+            }
+            for (Interval iv : covered) {
+                remove(iv);
+                if (iv.lo < lo) add(new Interval(iv.row, iv.lo, lo - 1));
+                if (iv.hi > hi) add(new Interval(iv.row, hi + 1, iv.hi));
+            }
+            add(new Interval(i, lo, hi));
+        }
+
+        private void remove(Interval iv) {
+            iv.alive = false;
+            byStart.remove(iv.lo);
+            if (byRow.get(iv.row) == iv) byRow.remove(iv.row);
+        }
+
+        private void add(Interval iv) {
+            byStart.put(iv.lo, iv);
+            Interval cur = byRow.get(iv.row);
+            if (cur == null || !cur.alive || cur.lo > iv.lo) byRow.put(iv.row, iv);
+            push(iv, iv.lo, iv.hi);
+        }
+
+        private void push(Interval iv, int lo, int hi) {
+            if (lo > hi) return;
+            int col = piece.argMin(iv.row, lo, hi);
+            candidates.add(new Candidate(iv, lo, hi, col, value(iv.row, col)));
+        }
+
+        @Override
+        double peek() {
+            while (!candidates.isEmpty()) {
+                Candidate c = candidates.peek();
+                if (!c.interval.alive) {
+                    candidates.poll();
+                } else if (isSettled(columnId(c.col))) {
+                    candidates.poll();
+                    push(c.interval, c.lo, c.col - 1);
+                    push(c.interval, c.col + 1, c.hi);
+                } else {
+                    return c.key;
+                }
+            }
+            return Double.MAX_VALUE;
+        }
+
+        @Override
+        int extract() {
+            Candidate c = candidates.poll();
+            push(c.interval, c.lo, c.col - 1);
+            push(c.interval, c.col + 1, c.hi);
+            return columnId(c.col);
+        }
+    }
+
+    private int indexOf(Vertex v, String role) {
+        int idx = cg.getIndex(v);
+        if (idx < 0) {
+            throw new RuntimeException(role + " vertex not in graph");
+        }
+        return idx;
+    }
+
+    @Override
+    public double distFromTo(Vertex src, Vertex dest) {
+        return query(indexOf(src, "Source"), indexOf(dest, "Destination"));
+    }
+
+    /**
+     * single source: every vertex is a destination, a plain Dijkstra is run
+     *
+     * @param src
+     */
+    @Override
+    public void findSSSP(Vertex src) {
+        this.src = src;
+        dijkstra.findSSSP(src);
+    }
+
+    @Override
+    public double findSSSP(Vertex src, int r) {
+        findSSSP(src);
+        return 0;
+    }
+
+    /**
+     * the dense distance graph keeps distances only, paths come from a Dijkstra
+     */
+    @Override
+    public List<Vertex> getPath(Vertex src, Vertex dest) {
+        return dijkstra.getPath(src, dest);
+    }
+}
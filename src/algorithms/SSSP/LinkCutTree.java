@@ -0,0 +1,336 @@
+package algorithms.SSSP;
+
+import java.util.*;
+
+/**
+ * Link-cut trees (Sleator-Tarjan) over nodes 0 .. n-1, on flat arrays
+ * <p>
+ * Each node carries two values, one for each direction a path may go through it: value a for a path
+ * going away from the root, value b for a path going towards it, each with an int label.
+ * An edge whose value depends on the direction it is crossed is represented by a node of its own,
+ * linked between its two endpoints; evert() reverses the path to the old root, swapping a and b on it.
+ * <p>
+ * Path operations work on the path from the root of a tree to a node, between two nodes u .. v
+ * call evert(u) first. All operations are amortized O(log n).
+ */
+public class LinkCutTree {
+    private final int[] left, right, parent;     // splay trees, parent of a splay root is its path-parent
+    private final boolean[] flip;
+    private final double[] a, b;                 // own values
+    private final int[] labelA, labelB;
+    private final double[] minA, minB;           // aggregates over the splay subtree
+    private final int[] argA, argB;              // labels of minA, minB
+    private final double[] sumA, sumB;
+    private final int[] size;
+    private final double[] addA, addB;           // pending additions to the children
+
+    /**
+     * @param n number of nodes, each one starts as a tree of its own with both values +infinity
+     */
+    public LinkCutTree(int n) {
+        left = new int[n];
+        right = new int[n];
+        parent = new int[n];
+        flip = new boolean[n];
+        a = new double[n];
+        b = new double[n];
+        labelA = new int[n];
+        labelB = new int[n];
+        minA = new double[n];
+        minB = new double[n];
+        argA = new int[n];
+        argB = new int[n];
+        sumA = new double[n];
+        sumB = new double[n];
+        size = new int[n];
+        addA = new double[n];
+        addB = new double[n];
+        Arrays.fill(left, -1);
+        Arrays.fill(right, -1);
+        Arrays.fill(parent, -1);
+        for (int v = 0; v < n; v++) {
+            a[v] = b[v] = Double.POSITIVE_INFINITY;
+            labelA[v] = labelB[v] = -1;
+            update(v);
+        }
+    }
+
+    // ---------------- splay trees ----------------
+
+    private boolean isSplayRoot(int v) {
+        int p = parent[v];
+        return p < 0 || (left[p] != v && right[p] != v);
+    }
+
+    private void applyFlip(int v) {
+        if (v < 0) return;
+        int t = left[v];
+        left[v] = right[v];
+        right[v] = t;
+        double x = a[v];
+        a[v] = b[v];
+        b[v] = x;
+        x = minA[v];
+        minA[v] = minB[v];
+        minB[v] = x;
+        x = sumA[v];
+        sumA[v] = sumB[v];
+        sumB[v] = x;
+        x = addA[v];
+        addA[v] = addB[v];
+        addB[v] = x;
+        t = labelA[v];
+        labelA[v] = labelB[v];
+        labelB[v] = t;
+        t = argA[v];
+        argA[v] = argB[v];
+        argB[v] = t;
+        flip[v] = !flip[v];
+    }
+
+    private void applyAdd(int v, double da, double db) {
+        if (v < 0) return;
+        a[v] += da;
+        b[v] += db;
+        minA[v] += da;
+        minB[v] += db;
+        sumA[v] += da * size[v];
+        sumB[v] += db * size[v];
+        addA[v] += da;
+        addB[v] += db;
+    }
+
+    private void push(int v) {
+        if (flip[v]) {
+            applyFlip(left[v]);
+            applyFlip(right[v]);
+            flip[v] = false;
+        }
+        if (addA[v] != 0 || addB[v] != 0) {
+            applyAdd(left[v], addA[v], addB[v]);
+            applyAdd(right[v], addA[v], addB[v]);
+            addA[v] = 0;
+            addB[v] = 0;
+        }
+    }
+
+    private void update(int v) {
+        size[v] = 1;
+        minA[v] = sumA[v] = a[v];
+        minB[v] = sumB[v] = b[v];
+        argA[v] = labelA[v];
+        argB[v] = labelB[v];
+        combine(v, left[v]);
+        combine(v, right[v]);
+    }
+
+    private void combine(int v, int c) {
+        if (c < 0) return;
+        size[v] += size[c];
+        sumA[v] += sumA[c];
+        sumB[v] += sumB[c];
+        if (minA[c] < minA[v]) {
+            minA[v] = minA[c];
+            argA[v] = argA[c];
+        }
+        if (minB[c] < minB[v]) {
+            minB[v] = minB[c];
+            argB[v] = argB[c];
+        }
+    }
+
+    private void rotate(int v) {
+        int p = parent[v], g = parent[p];
+        if (!isSplayRoot(p)) {
+            if (left[g] == p) left[g] = v;
+            else right[g] = v;
+        }
+        parent[v] = g;
+        if (left[p] == v) {
+            left[p] = right[v];
+            if (right[v] >= 0) parent[right[v]] = p;
+            right[v] = p;
+        } else {
+            right[p] = left[v];
+            if (left[v] >= 0) parent[left[v]] = p;
+            left[v] = p;
+        }
+        parent[p] = v;
+        update(p);
+        update(v);
+    }
+
+    private int[] stack = new int[64];
+
+    private void splay(int v) {
+        // push pending operations from the splay root down to v
+        int n = 0;
+        for (int u = v; ; u = parent[u]) {
+            if (n == stack.length) stack = Arrays.copyOf(stack, 2 * n);
+            stack[n++] = u;
+            if (isSplayRoot(u)) break;
+        }
+        for (int i = n - 1; i >= 0; i--) push(stack[i]);
+        while (!isSplayRoot(v)) {
+            int p = parent[v];
+            if (!isSplayRoot(p)) {
+                int g = parent[p];
+                rotate((left[g] == p) == (left[p] == v) ? p : v);
+            }
+            rotate(v);
+        }
+    }
+
+    /**
+     * make the path from the root of v's tree to v preferred, v ends up at the root of its splay tree
+     * holding exactly that path
+     */
+    private void access(int v) {
+        splay(v);
+        right[v] = -1;
+        update(v);
+        while (parent[v] >= 0) {
+            int w = parent[v];
+            splay(w);
+            right[w] = v;
+            update(w);
+            splay(v);
+        }
+    }
+
+    // ---------------- trees ----------------
+
+    /**
+     * make v the root of its tree
+     *
+     * @param v
+     */
+    public void evert(int v) {
+        access(v);
+        applyFlip(v);
+    }
+
+    /**
+     * @param v
+     * @return root of the tree containing v
+     */
+    public int findRoot(int v) {
+        access(v);
+        int r = v;
+        for (push(r); left[r] >= 0; push(r)) r = left[r];
+        splay(r);
+        return r;
+    }
+
+    /**
+     * make p the parent of v
+     *
+     * @param v root of its tree
+     * @param p node of another tree
+     */
+    public void link(int v, int p) {
+        access(v);
+        if (left[v] >= 0) {
+            throw new RuntimeException("Only the root of a tree can be linked");
+        }
+        parent[v] = p;
+    }
+
+    /**
+     * cut v from its parent
+     *
+     * @param v a node which is not the root of its tree
+     */
+    public void cut(int v) {
+        access(v);
+        int l = left[v];
+        if (l < 0) {
+            throw new RuntimeException("The root of a tree has no parent to cut");
+        }
+        parent[l] = -1;
+        left[v] = -1;
+        update(v);
+    }
+
+    /**
+     * @param v
+     * @return parent of v in its tree, -1 for the root
+     */
+    public int getParent(int v) {
+        access(v);
+        int u = left[v];
+        if (u < 0) return -1;
+        for (push(u); right[u] >= 0; push(u)) u = right[u];
+        splay(u);
+        return u;
+    }
+
+    /**
+     * set both values of v
+     *
+     * @param v
+     * @param valueA value of a path going away from the root through v
+     * @param la     label of valueA
+     * @param valueB value of a path going towards the root through v
+     * @param lb     label of valueB
+     */
+    public void set(int v, double valueA, int la, double valueB, int lb) {
+        access(v);
+        a[v] = valueA;
+        labelA[v] = la;
+        b[v] = valueB;
+        labelB[v] = lb;
+        update(v);
+    }
+
+    public double getA(int v) {
+        access(v);
+        return a[v];
+    }
+
+    public double getB(int v) {
+        access(v);
+        return b[v];
+    }
+
+    // ---------------- root paths ----------------
+
+    /**
+     * @param v
+     * @return sum of the values a on the path from the root to v
+     */
+    public double sumA(int v) {
+        access(v);
+        return sumA[v];
+    }
+
+    /**
+     * @param v
+     * @return minimum value a on the path from the root to v
+     */
+    public double minA(int v) {
+        access(v);
+        return minA[v];
+    }
+
+    /**
+     * @param v
+     * @return label of minA(v)
+     */
+    public int argMinA(int v) {
+        access(v);
+        return argA[v];
+    }
+
+    /**
+     * add da to the values a and db to the values b on the path from the root to v
+     *
+     * @param v
+     * @param da
+     * @param db
+     */
+    public void add(int v, double da, double db) {
+        access(v);
+        applyAdd(v, da, db);
+    }
+}
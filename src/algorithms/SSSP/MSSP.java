@@ -0,0 +1,374 @@
+package algorithms.SSSP;
+
+import algorithms.IndexedHeap.*;
+import selfdualgraph.*;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Multiple-source shortest paths (Klein): shortest path trees from every vertex on the boundary of one face
+ * <p>
+ * An apex r is put inside face o and joined to each corner c(0) .. c(k-1) of o by a dart r -> c(j), splitting o
+ * into triangles. The tree from c(0) is found by Dijkstra; moving the source from c(j-1) to c(j) is done by
+ * letting the length of r -> c(j-1) grow while r -> c(j) shrinks: vertices below c(j), the red ones, get closer
+ * while the others get farther, and the first non-tree dart from a red to a blue vertex to become tight is
+ * pivoted into the tree, until every vertex is red.
+ * <p>
+ * The darts between red and blue vertices are the non-tree darts on the path between the two faces of r -> c(j)
+ * in the dual spanning tree of the non-tree edges, so slacks are kept on the dual tree in a LinkCutTree
+ * and all of them change by one path update. Distances from the current source are root path sums of
+ * the primal tree, kept in another LinkCutTree.
+ * Each dart is pivoted in O(1) times in all, so all k trees take O(n log n).
+ * <p>
+ * Assume: the graph is connected.
+ */
+public class MSSP extends SSSP {
+    private final Dijkstra dijkstra;
+    private final CompactGraph cg;
+
+    // graph with the apex, for the face of the current run
+    private int V, D, F, r, k;
+    private int[] corner;       // corner[j] = c(j)
+    private int[] faceOf;       // faces of the darts of o: new face F + position on o, -1 for other darts
+    private int[] parentDart;   // parent dart of each vertex in the current tree, -1 for the apex
+    private LinkCutTree primal, dual;
+
+    public MSSP(SelfDualGraph g, int dist_measure) {
+        super(g, dist_measure);
+        dijkstra = new Dijkstra(g, dist_measure);
+        cg = dijkstra.getCompactGraph();
+    }
+
+    public CompactGraph getCompactGraph() {
+        return cg;
+    }
+
+    /**
+     * @param face dense face index
+     * @return vertices of the face in boundary order, each one once
+     */
+    public int[] getBoundary(int face) {
+        List<Integer> list = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        for (int i = 0, d = cg.getFaceFirstDart(face); i < cg.getFaceDegree(face); i++, d = cg.getNext(d)) {
+            if (seen.add(cg.getTail(d))) list.add(cg.getTail(d));
+        }
+        int[] boundary = new int[list.size()];
+        for (int i = 0; i < boundary.length; i++) boundary[i] = list.get(i);
+        return boundary;
+    }
+
+    /**
+     * visit the shortest path tree of each vertex on the boundary of face, in boundary order
+     * while a source is visited, getDist() and getParentDart() answer for it
+     *
+     * @param face    dense face index
+     * @param visitor called with the dense index of each source, once per vertex
+     */
+    public void run(int face, IntConsumer visitor) {
+        init(face);
+        Set<Integer> seen = new HashSet<>();
+        seen.add(corner[0]);
+        visitor.accept(corner[0]);
+        for (int j = 1; j < k; j++) {
+            moveSource(j);
+            if (seen.add(corner[j])) visitor.accept(corner[j]);
+        }
+    }
+
+    /**
+     * @param v dense vertex index
+     * @return distance from the current source to v, O(log n)
+     */
+    public double getDist(int v) {
+        return primal.sumA(v);
+    }
+
+    /**
+     * @param v dense vertex index
+     * @return dart from the parent of v in the current tree, -1 for the source
+     */
+    public int getParentDart(int v) {
+        return parentDart[v] >= D ? -1 : parentDart[v];
+    }
+
+    /**
+     * distances from the current source to all vertices, O(n) from the parent darts
+     *
+     * @return
+     */
+    public double[] getDistances() {
+        double[] dist = new double[V];
+        boolean[] done = new boolean[V];
+        int[] stack = new int[V];
+        for (int v = 0; v < V; v++) {
+            int n = 0;
+            for (int u = v; !done[u]; u = cg.getTail(parentDart[u])) {
+                stack[n++] = u;
+                if (parentDart[u] >= D) break;
+            }
+            while (n > 0) {
+                int u = stack[--n];
+                int pd = parentDart[u];
+                dist[u] = pd >= D ? 0 : dist[cg.getTail(pd)] + getDartDist(cg, pd);
+                done[u] = true;
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * @param face    dense face index
+     * @param targets dense vertex indices
+     * @return dist[i][j]: distance from getBoundary(face)[i] to targets[j]
+     */
+    public double[][] boundaryDistances(int face, int[] targets) {
+        int[] boundary = getBoundary(face);
+        Map<Integer, Integer> position = new HashMap<>();
+        for (int i = 0; i < boundary.length; i++) position.put(boundary[i], i);
+        double[][] dist = new double[boundary.length][targets.length];
+        run(face, s -> {
+            double[] row = dist[position.get(s)];
+            for (int j = 0; j < targets.length; j++) row[j] = getDist(targets[j]);
+        });
+        return dist;
+    }
+
+    /**
+     * @param face dense face index
+     * @return dist[i][v]: distance from getBoundary(face)[i] to each vertex v
+     */
+    public double[][] boundaryToAll(int face) {
+        int[] boundary = getBoundary(face);
+        Map<Integer, Integer> position = new HashMap<>();
+        for (int i = 0; i < boundary.length; i++) position.put(boundary[i], i);
+        double[][] dist = new double[boundary.length][];
+        run(face, s -> dist[position.get(s)] = getDistances());
+        return dist;
+    }
+
+    /**
+     * distances between vertices on any faces, e.g. the boundary vertices of a region,
+     * MSSP runs on a few faces covering all of them, picked greedily
+     *
+     * @param sources
+     * @param targets
+     * @return dist[i][j]: distance from sources.get(i) to targets.get(j)
+     */
+    public double[][] distances(List<Vertex> sources, List<Vertex> targets) {
+        int[] t = new int[targets.size()];
+        for (int j = 0; j < t.length; j++) t[j] = indexOf(targets.get(j), "Destination");
+        Map<Integer, List<Integer>> rows = new HashMap<>();     // vertex index -> positions in sources
+        for (int i = 0; i < sources.size(); i++) {
+            rows.computeIfAbsent(indexOf(sources.get(i), "Source"), x -> new ArrayList<>()).add(i);
+        }
+        double[][] dist = new double[sources.size()][];
+        Set<Integer> left = new HashSet<>(rows.keySet());
+        while (!left.isEmpty()) {
+            int best = -1, bestNum = 0;
+            for (int f = 0; f < cg.getFaceNum(); f++) {
+                int num = 0;
+                for (int v : getBoundary(f)) if (left.contains(v)) num++;
+                if (num > bestNum) {
+                    best = f;
+                    bestNum = num;
+                }
+            }
+            if (best < 0) {
+                throw new RuntimeException("Source vertex is not on any face");
+            }
+            for (int v : getBoundary(best)) left.remove(v);
+            run(best, s -> {
+                if (!rows.containsKey(s) || dist[rows.get(s).get(0)] != null) return;
+                double[] row = new double[t.length];
+                for (int j = 0; j < t.length; j++) row[j] = getDist(t[j]);
+                for (int i : rows.get(s)) dist[i] = row;
+            });
+        }
+        return dist;
+    }
+
+    private int indexOf(Vertex v, String role) {
+        int idx = cg.getIndex(v);
+        if (idx < 0) {
+            throw new RuntimeException(role + " vertex not in graph");
+        }
+        return idx;
+    }
+
+    // ---------------- graph with the apex ----------------
+
+    private boolean isApexDart(int d) {
+        return d >= D;
+    }
+
+    private int tail(int d) {
+        if (!isApexDart(d)) return cg.getTail(d);
+        return (d & 1) == 0 ? r : corner[(d - D) >> 1];
+    }
+
+    private int head(int d) {
+        return tail(d ^ 1);
+    }
+
+    private int right(int d) {
+        if (isApexDart(d)) {
+            int j = (d - D) >> 1;
+            // r -> c(j) has the triangle of o's j-th dart on its right, c(j) -> r the one before
+            return (d & 1) == 0 ? F + j : F + (j + k - 1) % k;
+        }
+        return faceOf[d] >= 0 ? faceOf[d] : cg.getRight(d);
+    }
+
+    private int left(int d) {
+        return right(d ^ 1);
+    }
+
+    /**
+     * @return dual tree node of the edge of d
+     */
+    private int edgeNode(int d) {
+        return F + k + (d >> 1);
+    }
+
+    private void init(int face) {
+        V = cg.getVertexNum();
+        D = cg.getDartNum();
+        F = cg.getFaceNum();
+        r = V;
+        k = cg.getFaceDegree(face);
+        corner = new int[k];
+        faceOf = new int[D];
+        Arrays.fill(faceOf, -1);
+        for (int j = 0, d = cg.getFaceFirstDart(face); j < k; j++, d = cg.getNext(d)) {
+            corner[j] = cg.getTail(d);
+            faceOf[d] = F + j;
+        }
+
+        SSSPResult res = dijkstra.newResult();
+        dijkstra.query(corner[0], res, new BinaryHeap());
+        parentDart = new int[V + 1];
+        primal = new LinkCutTree(V + 1);
+        for (int v = 0; v < V; v++) {
+            if (!res.isReached(v)) {
+                throw new RuntimeException("MSSP needs a connected graph");
+            }
+            parentDart[v] = v == corner[0] ? D : res.getParentDart(v);
+        }
+        parentDart[r] = -1;
+        primal.set(r, 0, -1, 0, -1);
+        for (int v = 0; v < V; v++) {
+            primal.set(v, length(parentDart[v]), -1, 0, -1);
+            primal.link(v, tail(parentDart[v]));
+        }
+
+        // dual tree of the non-tree edges
+        dual = new LinkCutTree(F + k + D / 2 + k);
+        boolean[] inTree = new boolean[D + 2 * k];
+        for (int v = 0; v < V; v++) inTree[parentDart[v]] = true;
+        for (int d = 0; d < D + 2 * k; d += 2) {
+            if (inTree[d] || inTree[d + 1]) continue;
+            if (isApexDart(d)) linkDual(d, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+            else linkDual(d, res.getDist(cg.getTail(d)) + getDartDist(cg, d) - res.getDist(cg.getHead(d)),
+                    res.getDist(cg.getHead(d)) + getDartDist(cg, d ^ 1) - res.getDist(cg.getTail(d)));
+        }
+    }
+
+    /**
+     * length of a dart in the primal tree, the apex darts add nothing
+     */
+    private double length(int d) {
+        return isApexDart(d) ? 0 : getDartDist(cg, d);
+    }
+
+    /**
+     * put the edge of d into the dual tree
+     * crossing it from left(c) to right(c) is valued by the slack of c
+     *
+     * @param d     dart with even index
+     * @param slack slack of d
+     * @param rev   slack of rev(d)
+     */
+    private void linkDual(int d, double slack, double rev) {
+        int e = edgeNode(d), x = left(d), y = right(d);
+        // y above e above x: going away from the root crosses from y to x, i.e. from left(rev d) to right(rev d)
+        dual.set(e, rev, d ^ 1, slack, d);
+        dual.evert(x);
+        dual.link(x, e);
+        dual.link(e, y);
+    }
+
+    private void cutDual(int d) {
+        int e = edgeNode(d);
+        dual.evert(e);
+        dual.cut(left(d));
+        dual.cut(right(d));
+    }
+
+    /**
+     * replace the parent dart of head(c) by c
+     * the old parent dart was tight, so its slack is 0 and the slack of its reverse is the length of the cycle
+     *
+     * @param c
+     */
+    private void pivot(int c) {
+        int v = head(c), old = parentDart[v];
+        primal.cut(v);
+        primal.set(v, length(c), -1, 0, -1);
+        primal.link(v, tail(c));
+        parentDart[v] = c;
+
+        cutDual(c & ~1);
+        if (isApexDart(old)) linkDual(old & ~1, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+        else {
+            double cycle = getDartDist(cg, old) + getDartDist(cg, old ^ 1);
+            if ((old & 1) == 0) linkDual(old, 0, cycle);
+            else linkDual(old ^ 1, cycle, 0);
+        }
+    }
+
+    /**
+     * move the source from c(j-1) to c(j)
+     *
+     * @param j
+     */
+    private void moveSource(int j) {
+        int t0 = D + 2 * j;
+        // r -> c(j) starts as long as the path through c(j-1), then is pivoted in: c(j) and its subtree are red
+        pivot(t0);
+        // red -> blue darts, crossed from left to right on the dual path from left(t0) to right(t0)
+        int x = left(t0), y = right(t0);
+        while (true) {
+            dual.evert(x);
+            double slack = dual.minA(y);
+            if (slack == Double.POSITIVE_INFINITY) break;
+            int c = dual.argMinA(y);
+            // red -> blue slacks shrink, blue -> red ones grow
+            dual.add(y, -slack, slack);
+            pivot(c);
+        }
+    }
+
+    /**
+     * single source: a plain Dijkstra
+     *
+     * @param src
+     */
+    @Override
+    public void findSSSP(Vertex src) {
+        this.src = src;
+        dijkstra.findSSSP(src);
+    }
+
+    @Override
+    public double findSSSP(Vertex src, int r) {
+        findSSSP(src);
+        return 0;
+    }
+
+    @Override
+    public List<Vertex> getPath(Vertex src, Vertex dest) {
+        return dijkstra.getPath(src, dest);
+    }
+}
@@ -0,0 +1,204 @@
+package algorithms.SSSP;
+
+import algorithms.IndexedHeap.*;
+import selfdualgraph.*;
+
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Region tree of RegionalSpeculativeDijkstra over flat arrays, no per-region or per-dart objects
+ * <p>
+ * level 0 are the atomic regions, one per dart, addressed by the dart index of a CompactGraph
+ * levels 1 .. k are the nested divisions of a RegionIndex, finest first, level k+1 is the root
+ * the children of each node are at positions start[L][j] .. start[L][j+1]-1 of members[L],
+ * each node keeps its children with pending darts in an IndexedHeap over positions local to the node,
+ * keyed by the minimum key of their own heap
+ * <p>
+ * a node at level L processes up to alpha(L) of its children before giving way, the root runs until all heaps are empty;
+ * all heaps are empty between queries, so the hierarchy is built once and reused by every query
+ */
+public class RegionHierarchy {
+    private final CompactGraph cg;
+    private final int k;                // number of division levels
+    private final int[][] parent;       // parent[L][j]: node at level L+1 containing node j of level L, -1 if none
+    private final int[][] local;        // local[L][j]: position of node j within its parent
+    private final int[][] start;        // start[L][j]: first position of the children of node j of level L
+    private final int[][] members;      // members[L][pos]: child of level L-1 at this position
+    private final IndexedHeap[][] heaps;
+    private final int[] alpha;
+    private final int[] active;         // node of each level taken out of its parent's heap, -1 if none
+
+    /**
+     * default alpha schedule: alpha(L) = log(size of parent) / log(size of children),
+     * with a single level this is log(N), as in the 3-level tree of the reference
+     *
+     * @param cg
+     * @param index nested r-divisions of the graph of cg
+     * @param heap  priority queue strategy, each node gets its own heap.newHeap()
+     */
+    public RegionHierarchy(CompactGraph cg, RegionIndex index, IndexedHeap heap) {
+        this(cg, index, heap, defaultAlphas(cg, index));
+    }
+
+    /**
+     * @param cg
+     * @param index
+     * @param heap
+     * @param alphas alphas[L-1] is alpha of the regions of level L, one for each level of index
+     */
+    public RegionHierarchy(CompactGraph cg, RegionIndex index, IndexedHeap heap, int[] alphas) {
+        if (alphas.length != index.getLevels()) {
+            throw new RuntimeException("Alpha schedule needs one value for each level");
+        }
+        this.cg = cg;
+        k = index.getLevels();
+        int D = cg.getDartNum();
+        int[] size = new int[k + 2];
+        size[0] = D;
+        for (int L = 1; L <= k; L++) size[L] = index.getRegionNum(L - 1);
+        size[k + 1] = 1;
+
+        parent = new int[k + 1][];
+        parent[0] = index.regionsOf(cg, 0);
+        for (int L = 1; L <= k; L++) {
+            parent[L] = new int[size[L]];
+            Arrays.fill(parent[L], -1);
+        }
+        // a region is in the parent of any of its darts, regions without darts are left out
+        int[][] dartRegion = new int[k + 1][];
+        dartRegion[1] = parent[0];
+        for (int L = 2; L <= k; L++) dartRegion[L] = index.regionsOf(cg, L - 1);
+        for (int L = 1; L <= k; L++) {
+            for (int d = 0; d < D; d++) {
+                parent[L][dartRegion[L][d]] = L == k ? 0 : dartRegion[L + 1][d];
+            }
+        }
+
+        // counting sort of the children of each level by parent
+        local = new int[k + 1][];
+        start = new int[k + 2][];
+        members = new int[k + 2][];
+        for (int L = 0; L <= k; L++) {
+            int[] st = new int[size[L + 1] + 1];
+            for (int j = 0; j < size[L]; j++) {
+                if (parent[L][j] >= 0) st[parent[L][j] + 1]++;
+            }
+            for (int p = 0; p < size[L + 1]; p++) st[p + 1] += st[p];
+            int[] fill = new int[size[L + 1]];
+            local[L] = new int[size[L]];
+            members[L + 1] = new int[st[size[L + 1]]];
+            for (int j = 0; j < size[L]; j++) {
+                int p = parent[L][j];
+                if (p < 0) continue;
+                local[L][j] = fill[p]++;
+                members[L + 1][st[p] + local[L][j]] = j;
+            }
+            start[L + 1] = st;
+        }
+
+        heaps = new IndexedHeap[k + 2][];
+        for (int L = 1; L <= k + 1; L++) {
+            heaps[L] = new IndexedHeap[size[L]];
+            for (int j = 0; j < size[L]; j++) {
+                heaps[L][j] = heap.newHeap();
+                heaps[L][j].init(start[L][j + 1] - start[L][j]);
+            }
+        }
+        alpha = new int[k + 2];
+        for (int L = 1; L <= k; L++) alpha[L] = Math.max(1, alphas[L - 1]);
+        alpha[k + 1] = Integer.MAX_VALUE;
+        active = new int[k + 2];
+        Arrays.fill(active, -1);
+    }
+
+    private static int[] defaultAlphas(CompactGraph cg, RegionIndex index) {
+        int k = index.getLevels();
+        int[] alphas = new int[k];
+        for (int L = 1; L <= k; L++) {
+            double childSize = L == 1 ? 2 : index.getR(L - 2);
+            double parentSize = L == k ? cg.getVertexNum() : index.getR(L);
+            alphas[L - 1] = Math.max(1, (int) Math.ceil(Math.log(Math.max(2, parentSize)) / Math.log(Math.max(2, childSize))));
+        }
+        return alphas;
+    }
+
+    public CompactGraph getGraph() {
+        return cg;
+    }
+
+    public int getLevels() {
+        return k;
+    }
+
+    public int getAlpha(int level) {
+        return alpha[level];
+    }
+
+    /**
+     * @param dart
+     * @return region of the finest level containing the dart
+     */
+    public int getRegion(int dart) {
+        return parent[0][dart];
+    }
+
+    /**
+     * empty all heaps, only needed after an interrupted search
+     */
+    public void clear() {
+        for (int L = 1; L < heaps.length; L++) {
+            for (int j = 0; j < heaps[L].length; j++) heaps[L][j].init(start[L][j + 1] - start[L][j]);
+        }
+        Arrays.fill(active, -1);
+    }
+
+    /**
+     * make dart d pending with key, or lower its key, and propagate the key up the tree
+     * the key of every node in its parent's heap is the minimum key of its own heap
+     *
+     * @param d
+     * @param key
+     */
+    public void update(int d, double key) {
+        int node = d;
+        for (int L = 0; L <= k; L++) {
+            int p = parent[L][node];
+            if (!heaps[L + 1][p].insertOrDecrease(local[L][node], key)) return;
+            // an active node is put back with its minimum when it is done
+            if (active[L + 1] == p) return;
+            node = p;
+        }
+    }
+
+    public boolean isEmpty() {
+        return heaps[k + 1][0].isEmpty();
+    }
+
+    /**
+     * process pending darts until all heaps are empty
+     *
+     * @param processDart called on each pending dart with the minimum key of the node being processed,
+     *                    the dart is no longer pending when called, and may be updated again
+     */
+    public void run(IntConsumer processDart) {
+        process(k + 1, 0, processDart);
+    }
+
+    private void process(int L, int j, IntConsumer processDart) {
+        IndexedHeap h = heaps[L][j];
+        for (int i = 0; i < alpha[L] && !h.isEmpty(); i++) {
+            int pos = h.deleteMin();
+            int child = members[L][start[L][j] + pos];
+            if (L == 1) {
+                processDart.accept(child);
+                continue;
+            }
+            active[L - 1] = child;
+            process(L - 1, child, processDart);
+            active[L - 1] = -1;
+            IndexedHeap ch = heaps[L - 1][child];
+            if (!ch.isEmpty()) h.insert(pos, ch.getKey(ch.peekMin()));
+        }
+    }
+}
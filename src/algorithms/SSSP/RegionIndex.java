@@ -0,0 +1,309 @@
+package algorithms.SSSP;
+
+import algorithms.RDivision.*;
+import selfdualgraph.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * r-division of a graph computed once and shared by all RegionalSpeculativeDijkstra queries on it
+ * <p>
+ * Every dart is assigned to exactly one region: the first region containing both of its ends,
+ * darts whose ends are in different regions go to a region of another dart leaving the same tail.
+ * Darts are identified by ID, not by object or dense index, so an index saved to disk
+ * can be used with any later copy of the same graph (e.g. loaded again from file).
+ * <p>
+ * An index may have several levels of nested divisions r(0) < r(1) < ..., level 0 is the finest:
+ * each region of level i+1 is divided again with r(i), so the darts of a level i region are all
+ * in the same level i+1 region.
+ */
+public class RegionIndex implements Serializable {
+    private static final long serialVersionUID = 2L;
+
+    private final int[] rs;
+    private final int[] regionNums;
+    private final int[] dartIDs;        // sorted
+    private final int[][] regionOf;     // regionOf[level][i]: region of dartIDs[i] at that level
+
+    private RegionIndex(int[] rs, int[] regionNums, int[] dartIDs, int[][] regionOf) {
+        this.rs = rs;
+        this.regionNums = regionNums;
+        this.dartIDs = dartIDs;
+        this.regionOf = regionOf;
+    }
+
+    /**
+     * r-division of g by gd, g itself is not modified
+     *
+     * @param g
+     * @param gd
+     * @param r
+     * @return
+     */
+    public static RegionIndex build(SelfDualGraph g, GraphDivider gd, int r) {
+        Builder b = new Builder(g, new int[]{r});
+        gd.setGraph(g.buildSubgraph(g.getVertices()));
+        b.assign(gd, gd.rDivision(r), b.allDarts(), 0);
+        return b.finish();
+    }
+
+    /**
+     * nested r-divisions of g, g itself is not modified
+     *
+     * @param g
+     * @param dividers creates the divider of a graph, e.g. RecursiveDivider::new
+     * @param rs       r of each level, finest first, strictly increasing
+     * @return
+     */
+    public static RegionIndex build(SelfDualGraph g, Function<SelfDualGraph, GraphDivider> dividers, int... rs) {
+        if (rs.length == 0) {
+            throw new RuntimeException("At least one level of division is needed");
+        }
+        for (int i = 1; i < rs.length; i++) {
+            if (rs[i] <= rs[i - 1]) throw new RuntimeException("r of each level must be larger than the level below");
+        }
+        Builder b = new Builder(g, rs.clone());
+        Set<Integer> ids = new HashSet<>();
+        for (Vertex v : g.getVertices()) ids.add(v.getID());
+        b.divide(ids, dividers, b.allDarts(), rs.length - 1);
+        return b.finish();
+    }
+
+    /**
+     * assigns sorted dart positions to regions, level by level
+     */
+    private static class Builder {
+        final SelfDualGraph g;
+        final int[] rs;
+        final int[] regionNums;
+        final Dart[] darts;     // sorted by ID
+        final int[][] regionOf;
+
+        Builder(SelfDualGraph g, int[] rs) {
+            this.g = g;
+            this.rs = rs;
+            regionNums = new int[rs.length];
+            List<Dart> list = new ArrayList<>();
+            for (Vertex v : g.getVertices()) {
+                Dart d = v.getFirstDart();
+                for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) list.add(d);
+            }
+            list.sort(Comparator.comparingInt(Dart::getID));
+            darts = list.toArray(new Dart[0]);
+            regionOf = new int[rs.length][darts.length];
+        }
+
+        int[] allDarts() {
+            int[] all = new int[darts.length];
+            for (int i = 0; i < all.length; i++) all[i] = i;
+            return all;
+        }
+
+        /**
+         * divide a region of the level above into regions of this level, then each of them at the level below
+         * each connected component of the region is divided on its own, a component of at most r vertices
+         * is a region of its own at this level and all levels below
+         *
+         * @param vertexIDs vertices of the region
+         * @param positions darts of the region, positions in darts[]
+         * @param level
+         */
+        void divide(Set<Integer> vertexIDs, Function<SelfDualGraph, GraphDivider> dividers, int[] positions, int level) {
+            // connected components over the darts with both ends in the region
+            Map<Integer, Integer> component = new HashMap<>();
+            List<Set<Integer>> components = new ArrayList<>();
+            Map<Integer, List<Integer>> adjacent = new HashMap<>();
+            for (int p : positions) {
+                int t = darts[p].getTail().getID(), h = darts[p].getHead().getID();
+                if (vertexIDs.contains(t) && vertexIDs.contains(h)) {
+                    adjacent.computeIfAbsent(t, x -> new ArrayList<>()).add(h);
+                }
+            }
+            for (int v : adjacent.keySet()) {
+                if (component.containsKey(v)) continue;
+                Set<Integer> c = new HashSet<>();
+                Deque<Integer> stack = new ArrayDeque<>();
+                stack.push(v);
+                component.put(v, components.size());
+                while (!stack.isEmpty()) {
+                    int u = stack.pop();
+                    c.add(u);
+                    for (int w : adjacent.getOrDefault(u, Collections.emptyList())) {
+                        if (component.putIfAbsent(w, components.size()) == null) stack.push(w);
+                    }
+                }
+                components.add(c);
+            }
+            if (components.isEmpty()) components.add(new HashSet<>());
+
+            // darts go with the component of their tail, or the first one
+            List<List<Integer>> componentDarts = new ArrayList<>();
+            for (int i = 0; i < components.size(); i++) componentDarts.add(new ArrayList<>());
+            for (int p : positions) {
+                componentDarts.get(component.getOrDefault(darts[p].getTail().getID(), 0)).add(p);
+            }
+
+            for (int i = 0; i < components.size(); i++) {
+                Set<Integer> c = components.get(i);
+                int[] sub = toArray(componentDarts.get(i));
+                if (sub.length == 0) continue;
+                if (c.size() <= rs[level]) {
+                    for (int l = level; l >= 0; l--) {
+                        for (int p : sub) regionOf[l][p] = regionNums[l];
+                        regionNums[l]++;
+                    }
+                    continue;
+                }
+                SelfDualGraph piece = c.size() == g.getVertexNum() ? g : g.buildSubgraph(g.getVerticesFromID(c));
+                GraphDivider gd = dividers.apply(piece);
+                List<Set<Integer>> regions = assign(gd, gd.rDivision(rs[level]), sub, level);
+                if (level == 0) continue;
+
+                List<List<Integer>> regionDarts = new ArrayList<>();
+                for (int j = 0; j < regions.size(); j++) regionDarts.add(new ArrayList<>());
+                int first = regionNums[level] - regions.size();
+                for (int p : sub) regionDarts.get(regionOf[level][p] - first).add(p);
+                for (int j = 0; j < regions.size(); j++) {
+                    if (regionDarts.get(j).isEmpty()) continue;
+                    divide(regions.get(j), dividers, toArray(regionDarts.get(j)), level - 1);
+                }
+            }
+        }
+
+        private static int[] toArray(List<Integer> list) {
+            int[] array = new int[list.size()];
+            for (int i = 0; i < array.length; i++) array[i] = list.get(i);
+            return array;
+        }
+
+        /**
+         * assign darts to the regions of a division, regions are numbered after those already at this level
+         *
+         * @return vertex IDs of each region, in the order they are numbered
+         */
+        List<Set<Integer>> assign(GraphDivider gd, Set<Set<Vertex>> divisions, int[] positions, int level) {
+            List<Set<Integer>> regions = new ArrayList<>();
+            Map<Integer, List<Integer>> vertexRegions = new HashMap<>();     // vertex ID -> regions containing it
+            int first = regionNums[level];
+            for (Set<Vertex> division : divisions) {
+                Set<Integer> ids = gd.verticesToID(division);
+                for (int id : ids) vertexRegions.computeIfAbsent(id, k -> new ArrayList<>(2)).add(regions.size());
+                regions.add(ids);
+            }
+            if (regions.isEmpty()) regions.add(new HashSet<>());
+            regionNums[level] += regions.size();
+
+            // first region containing both ends
+            Map<Integer, Integer> tailRegion = new HashMap<>();  // vertex ID -> region of a dart leaving it
+            List<Integer> crossing = new ArrayList<>();
+            for (int p : positions) {
+                List<Integer> tails = vertexRegions.get(darts[p].getTail().getID());
+                List<Integer> heads = vertexRegions.get(darts[p].getHead().getID());
+                int region = -1;
+                if (tails != null && heads != null) {
+                    for (int j : tails) {
+                        if (heads.contains(j) && (region < 0 || j < region)) region = j;
+                    }
+                }
+                if (region < 0) {
+                    crossing.add(p);
+                    continue;
+                }
+                regionOf[level][p] = first + region;
+                tailRegion.putIfAbsent(darts[p].getTail().getID(), region);
+            }
+            // darts with both ends in different regions
+            for (int p : crossing) {
+                regionOf[level][p] = first + tailRegion.getOrDefault(darts[p].getTail().getID(), 0);
+            }
+            return regions;
+        }
+
+        RegionIndex finish() {
+            int[] dartIDs = new int[darts.length];
+            for (int i = 0; i < darts.length; i++) dartIDs[i] = darts[i].getID();
+            return new RegionIndex(rs, regionNums, dartIDs, regionOf);
+        }
+    }
+
+    /**
+     * @return r of the finest level
+     */
+    public int getR() {
+        return rs[0];
+    }
+
+    public int getR(int level) {
+        return rs[level];
+    }
+
+    public int getLevels() {
+        return rs.length;
+    }
+
+    /**
+     * @return number of regions of the finest level
+     */
+    public int getRegionNum() {
+        return regionNums[0];
+    }
+
+    public int getRegionNum(int level) {
+        return regionNums[level];
+    }
+
+    public int getDartNum() {
+        return dartIDs.length;
+    }
+
+    /**
+     * @param dartID
+     * @return region of the dart at the finest level, -1 if no dart has this ID
+     */
+    public int getRegion(int dartID) {
+        return getRegion(0, dartID);
+    }
+
+    public int getRegion(int level, int dartID) {
+        int i = Arrays.binarySearch(dartIDs, dartID);
+        return i < 0 ? -1 : regionOf[level][i];
+    }
+
+    /**
+     * @param cg snapshot of the graph this index was built for
+     * @return region of each dart at the finest level, indexed by the dense dart index of cg
+     */
+    public int[] regionsOf(CompactGraph cg) {
+        return regionsOf(cg, 0);
+    }
+
+    public int[] regionsOf(CompactGraph cg, int level) {
+        if (cg.getDartNum() != dartIDs.length) {
+            throw new RuntimeException("Region index was built for a different graph");
+        }
+        int[] regions = new int[cg.getDartNum()];
+        for (int d = 0; d < regions.length; d++) {
+            regions[d] = getRegion(level, cg.getDartID(d));
+            if (regions[d] < 0) {
+                throw new RuntimeException("Region index was built for a different graph");
+            }
+        }
+        return regions;
+    }
+
+    public void save(String fileName) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            out.writeObject(this);
+        }
+    }
+
+    public static RegionIndex load(String fileName) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            return (RegionIndex) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Not a region index file: " + fileName, e);
+        }
+    }
+}
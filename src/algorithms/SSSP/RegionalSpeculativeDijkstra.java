@@ -1,5 +1,6 @@
 package algorithms.SSSP;
 
+import algorithms.IndexedHeap.*;
 import algorithms.RDivision.*;
 import selfdualgraph.*;
 
@@ -12,6 +13,13 @@ import java.util.*;
 public class RegionalSpeculativeDijkstra extends SSSP {
     protected Map<Dart, Region[]> dartRegionMap;
     protected GraphDivider graphDivider;
+    protected CompactGraph cg;
+    protected SSSPResult result;
+    protected RegionIndex regionIndex;
+    protected RegionHierarchy hierarchy;    // reusable between queries, all heaps are empty after a query
+    protected IndexedHeap heap = new BinaryHeap();
+    protected int[] alphas;                 // null for the default schedule of RegionHierarchy
+    private boolean searching;
 
     public RegionalSpeculativeDijkstra(SelfDualGraph g, GraphDivider gd) {
         super(g);
@@ -19,40 +27,24 @@ public class RegionalSpeculativeDijkstra extends SSSP {
         dartRegionMap = new HashMap<>();
     }
 
-    public RegionalSpeculativeDijkstra(SelfDualGraph g, GraphDivider gd, int dist_measure) {
+    /**
+     * use a precomputed r-division, findSSSP(src, r) only divides again if r differs from index.getR()
+     * and a divider was given
+     *
+     * @param g
+     * @param index        built by RegionIndex.build() on g, or loaded from disk
+     * @param dist_measure
+     */
+    public RegionalSpeculativeDijkstra(SelfDualGraph g, RegionIndex index, int dist_measure) {
         super(g, dist_measure);
-        graphDivider = gd;
+        regionIndex = index;
         dartRegionMap = new HashMap<>();
     }
 
-    private void globalUpdate(Region r, Region subr, double key) {
-        double oldMinKey = r.minKey();
-        r.updateKey(subr, key);
-        if (key < oldMinKey && r.getParent() != null) globalUpdate(r.getParent(), r, key);
-    }
-
-    private void processRegion(Region r) {
-        if (r.isAtomic()) {
-            Dart d = r.getDart();
-            if (d.getHead().getDistance() > d.getTail().getDistance() + getDartDist(d)) {
-                d.getHead().setDistance(d.getTail().getDistance() + getDartDist(d));
-                for (Dart dd : d.getHead().getIncidenceList()) {
-                    Region[] atomicRs = dartRegionMap.get(dd);
-                    if (atomicRs == null) {
-                        System.out.println("Bad");
-                    }
-                    globalUpdate(atomicRs[0], atomicRs[1], d.getHead().getDistance());
-                }
-            }
-            r.updateKey(dartRegionMap.get(d)[1], Double.POSITIVE_INFINITY);
-        } else {
-            int i = 0;
-            while (i++ < r.getAlpha() && r.minKey() < Double.POSITIVE_INFINITY) {
-                Region rr = r.minItem();
-                processRegion(rr);
-                r.updateKey(rr, rr.minKey());
-            }
-        }
+    public RegionalSpeculativeDijkstra(SelfDualGraph g, GraphDivider gd, int dist_measure) {
+        super(g, dist_measure);
+        graphDivider = gd;
+        dartRegionMap = new HashMap<>();
     }
 
     /**
@@ -68,7 +60,8 @@ public class RegionalSpeculativeDijkstra extends SSSP {
         for (Set<Vertex> division : divisions) {
             Region rg = new Region(alpha1, null);
             for (Vertex v : division) {
-                for (Dart d : v.getIncidenceList()) {
+                Dart d = v.getFirstDart();
+                for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
                     if (!division.contains(d.getHead())) continue;
                     if (dartRegionMap.containsKey(d)) continue;
                     Region atomic0 = new Region(1, d);
@@ -86,7 +79,8 @@ public class RegionalSpeculativeDijkstra extends SSSP {
         // boundary is wrong (vertice not overlapping)
         Set<Dart> tmp = new HashSet<>();
         for (Vertex v : g.getVertices()) {
-            for (Dart d : v.getIncidenceList()) {
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
                 if (!dartRegionMap.containsKey(d)) {
                     tmp.add(d);
                     Region atomic0 = new Region(1, d);
@@ -102,9 +96,36 @@ public class RegionalSpeculativeDijkstra extends SSSP {
         return rG;
     }
 
+    /**
+     * @param alphas alphas[L-1] is the number of children a region of level L processes at a time,
+     *               one for each level of the region index, null for the default schedule
+     */
+    public void setAlphas(int[] alphas) {
+        this.alphas = alphas;
+        hierarchy = null;
+    }
+
+    /**
+     * the r-division used by queries with this r, computed on the first call only
+     *
+     * @param r
+     * @return
+     */
+    public RegionIndex getRegionIndex(int r) {
+        if (regionIndex == null || (regionIndex.getR() != r && graphDivider != null)) {
+            if (graphDivider == null) {
+                throw new RuntimeException("No region index and no graph divider");
+            }
+            regionIndex = RegionIndex.build(g, graphDivider, r);
+            hierarchy = null;
+        }
+        return regionIndex;
+    }
+
     @Override
     public void findSSSP(Vertex src) {
-        int r = Math.max(10, (int) (Math.pow(Math.log(g.getVertexNum()) / Math.log(2), 2)));
+        int r = regionIndex != null ? regionIndex.getR()
+                : Math.max(10, (int) (Math.pow(Math.log(g.getVertexNum()) / Math.log(2), 2)));
         findSSSP(src, r);
     }
 
@@ -114,49 +135,75 @@ public class RegionalSpeculativeDijkstra extends SSSP {
             throw new RuntimeException("Source vertex not in graph");
         }
         this.src = src;
-        dartRegionMap = new HashMap<>();
 
         long time0 = System.nanoTime();
-        for (Vertex v : g.getVertices()) v.setDistance(Double.POSITIVE_INFINITY);
-        graphDivider.setGraph(g.buildSubgraph(g.getVertices()));
-        Set<Set<Vertex>> divisions = graphDivider.rDivision(r);
+        if (cg == null) {
+            cg = new CompactGraph(g);
+            result = new SSSPResult(cg);
+        }
+        result.reset(cg.getIndex(src));
+        RegionIndex index = getRegionIndex(r);
         long time1 = System.nanoTime();
-        List<Set<Vertex>> originalVertices = new ArrayList<>();
-        for (Set<Vertex> division : divisions) {
-            originalVertices.add(g.getVerticesFromID(graphDivider.verticesToID(division)));
+        if (hierarchy == null) {
+            hierarchy = alphas == null ? new RegionHierarchy(cg, index, heap) : new RegionHierarchy(cg, index, heap, alphas);
         }
-        Region rG = buildRegionTree(g, originalVertices);
+        // an interrupted query leaves darts behind in the heaps
+        if (searching) hierarchy.clear();
         long time2 = System.nanoTime();
-        src.setDistance(0);
-        for (Dart d : src.getIncidenceList()) {
-            Region[] atomicRs = dartRegionMap.get(d);
-            globalUpdate(atomicRs[0], atomicRs[1], 0);
-        }
-        processRegion(rG);
+        searching = true;
+        search(cg.getIndex(src));
+        searching = false;
         long time3 = System.nanoTime();
+        result.copyToVertices();
         double total = 0.01 * (time3 - time0);
         System.out.printf("\tTime percentage: r-division[%.2f%%], region tree[%.2f%%], RSD[%.2f%%]\n",
                 (time1 - time0) / total, (time2 - time1) / total, (time3 - time2) / total);
         return (time3 - time2) / total;
     }
 
+    /**
+     * speculative search: a region processes up to alpha of its children before giving way to another region
+     * a dart is pending with the tentative distance it gave its head, processing it relaxes the darts leaving the head;
+     * a vertex may be processed again if it is improved later, as the search is label-correcting across regions
+     *
+     * @param s dense index of source vertex
+     */
+    private void search(int s) {
+        relaxFrom(s);
+        hierarchy.run(d -> {
+            int h = cg.getHead(d);
+            // head was improved through another dart since d was updated
+            if (result.getParentDart(h) == d) relaxFrom(h);
+        });
+    }
+
+    /**
+     * relax the darts leaving v, darts improving their head become pending
+     *
+     * @param v
+     */
+    private void relaxFrom(int v) {
+        double dv = result.getDist(v);
+        for (int i = 0, d = cg.getFirstDart(v); i < cg.getDegree(v); i++, d = cg.getSuccessor(d)) {
+            int h = cg.getHead(d);
+            double newDist = dv + getDartDist(cg, d);
+            if (newDist < result.getDist(h)) {
+                result.setDist(h, newDist, d);
+                hierarchy.update(d, newDist);
+            }
+        }
+    }
+
     @Override
     public List<Vertex> getPath(Vertex src, Vertex dest) {
         if (src != this.src) findSSSP(src);
-        LinkedList<Vertex> path = new LinkedList<>();
-
-        // build path from dest to src
-        Vertex v = dest;
-        while (v != src) {
-            path.addFirst(v);
-            for (Dart d : v.getIncidenceList()) {
-                if (d.getHead().getDistance() == v.getDistance() - getDartDist(d)) {
-                    v = d.getHead();
-                    break;
-                }
-            }
-        }
-        path.addFirst(v);
-        return path;
+        return result.getPath(dest);
+    }
+
+    /**
+     * @return distances and parent darts of the last findSSSP()
+     */
+    public SSSPResult getResult() {
+        return result;
     }
 }
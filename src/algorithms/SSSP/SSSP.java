@@ -68,6 +68,12 @@ public abstract class SSSP {
         distance_measure = dist_measure;
     }
 
+    protected double getDartDist(CompactGraph cg, int d) {
+        if (distance_measure == WEIGHT_AS_DISTANCE) return cg.getWeight(d);
+        else if (distance_measure == CAPACITY_AS_DISTANCE) return cg.getCapacity(d);
+        else throw new RuntimeException("Distance measure not set correctly.");
+    }
+
     protected double getDartDist(Dart d) {
         if (distance_measure == WEIGHT_AS_DISTANCE) return d.getWeight();
         else if (distance_measure == CAPACITY_AS_DISTANCE) return d.getCapacity();
@@ -0,0 +1,148 @@
+package algorithms.SSSP;
+
+import selfdualgraph.*;
+
+import java.util.*;
+
+/**
+ * Query-scoped state of a single-source shortest path search over a CompactGraph
+ * distances and parent darts are primitive arrays indexed by dense vertex index
+ * <p>
+ * Entries are valid only if stamped with the current epoch, so reset() is O(1) instead of O(V).
+ * A result is reused across queries by one thread at a time; the graph itself is never written,
+ * so any number of results can be searched concurrently over one shared CompactGraph.
+ */
+public class SSSPResult {
+    protected final CompactGraph cg;
+    protected final double[] dist;
+    protected final int[] parentDart;   // dart used to reach each vertex, -1 for the source
+    private final int[] reached;        // epoch in which dist[v] was last written
+    private final int[] settled;        // epoch in which v was last settled
+    private int epoch;
+    private int src;
+    private int settledNum;
+
+    public SSSPResult(CompactGraph cg) {
+        this.cg = cg;
+        int V = cg.getVertexNum();
+        dist = new double[V];
+        parentDart = new int[V];
+        reached = new int[V];
+        settled = new int[V];
+        src = -1;
+    }
+
+    /**
+     * forget the previous query and start a new one from src
+     *
+     * @param src dense index of source vertex
+     */
+    public void reset(int src) {
+        if (++epoch == Integer.MAX_VALUE) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(settled, 0);
+            epoch = 1;
+        }
+        this.src = src;
+        settledNum = 0;
+        setDist(src, 0, -1);
+    }
+
+    public CompactGraph getGraph() {
+        return cg;
+    }
+
+    /**
+     * @return dense index of source vertex, -1 if no query has been made
+     */
+    public int getSource() {
+        return src;
+    }
+
+    public boolean isReached(int v) {
+        return reached[v] == epoch;
+    }
+
+    /**
+     * @param v
+     * @return tentative (or final, if settled) distance to v, Double.MAX_VALUE if not reached
+     */
+    public double getDist(int v) {
+        return reached[v] == epoch ? dist[v] : Double.MAX_VALUE;
+    }
+
+    public int getParentDart(int v) {
+        return reached[v] == epoch ? parentDart[v] : -1;
+    }
+
+    public void setDist(int v, double d, int parent) {
+        reached[v] = epoch;
+        dist[v] = d;
+        parentDart[v] = parent;
+    }
+
+    public boolean isSettled(int v) {
+        return settled[v] == epoch;
+    }
+
+    public void settle(int v) {
+        if (settled[v] != epoch) settledNum++;
+        settled[v] = epoch;
+    }
+
+    /**
+     * @return number of vertices settled by the current query
+     */
+    public int getSettledNum() {
+        return settledNum;
+    }
+
+    /**
+     * @param v vertex of the graph the CompactGraph was taken from
+     * @return distance to v, Double.MAX_VALUE if not reached
+     */
+    public double getDist(Vertex v) {
+        return getDist(cg.getIndex(v));
+    }
+
+    /**
+     * @param dest dense index of destination vertex
+     * @return darts on the shortest path from source to dest, empty if dest is the source or not reached
+     */
+    public int[] getPathDarts(int dest) {
+        int len = 0;
+        for (int v = dest; getParentDart(v) >= 0; v = cg.getTail(parentDart[v])) len++;
+        int[] path = new int[len];
+        for (int v = dest; getParentDart(v) >= 0; v = cg.getTail(parentDart[v])) path[--len] = parentDart[v];
+        return path;
+    }
+
+    /**
+     * only available if the CompactGraph was taken from a SelfDualGraph
+     *
+     * @param dest
+     * @return vertices on the shortest path from source to dest, null if dest is not reached
+     */
+    public List<Vertex> getPath(Vertex dest) {
+        int v = cg.getIndex(dest);
+        if (!isReached(v)) return null;
+        LinkedList<Vertex> path = new LinkedList<>();
+        while (parentDart[v] >= 0) {
+            path.addFirst(cg.getVertex(v));
+            v = cg.getTail(parentDart[v]);
+        }
+        path.addFirst(cg.getVertex(v));
+        return path;
+    }
+
+    /**
+     * write distances and settled marks into the Vertex objects, for callers of the legacy SSSP interface
+     */
+    public void copyToVertices() {
+        for (int v = 0; v < cg.getVertexNum(); v++) {
+            Vertex vertex = cg.getVertex(v);
+            vertex.setDistance(getDist(v));
+            vertex.setVisited(isSettled(v));
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package algorithms.SSSP;
+
+import algorithms.IndexedHeap.*;
+import selfdualgraph.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Answers shortest path queries concurrently over one shared, read-only snapshot of a graph
+ * <p>
+ * The snapshot (CompactGraph) is taken at construction and taken again by the first query after the
+ * SelfDualGraph is modified; queries already running finish on the old snapshot. Queries are dispatched to a fixed pool of worker threads, each worker owns a reusable SSSPResult and heap,
+ * so a query allocates nothing but its answer. Nothing is written to the Vertex objects.
+ */
+public class SSSPService implements AutoCloseable {
+    private final Dijkstra dijkstra;
+    private final ExecutorService pool;
+    private final ThreadLocal<SSSPResult> results;
+    private final ThreadLocal<IndexedHeap> heaps;
+
+    public SSSPService(SelfDualGraph g, int dist_measure) {
+        this(g, dist_measure, Runtime.getRuntime().availableProcessors(), new BinaryHeap());
+    }
+
+    /**
+     * @param g
+     * @param dist_measure SSSP.WEIGHT_AS_DISTANCE or SSSP.CAPACITY_AS_DISTANCE
+     * @param threads      number of worker threads
+     * @param heap         priority queue strategy, each worker gets its own heap.newHeap();
+     *                     null falls back to BinaryHeap, as the array-backed queries of Dijkstra do
+     */
+    public SSSPService(SelfDualGraph g, int dist_measure, int threads, IndexedHeap heap) {
+        dijkstra = new Dijkstra(g, dist_measure, heap);
+        dijkstra.getCompactGraph();
+        pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "sssp-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        results = new ThreadLocal<>();
+        IndexedHeap prototype = heap == null ? new BinaryHeap() : heap;
+        heaps = ThreadLocal.withInitial(prototype::newHeap);
+    }
+
+    /**
+     * @return snapshot of the current graph, taken again if the graph was modified since the last one
+     */
+    public CompactGraph getCompactGraph() {
+        return dijkstra.getCompactGraph();
+    }
+
+    /**
+     * point-to-point query on the calling thread's scratch buffers, stops as soon as t is settled
+     *
+     * @param cg snapshot the indices refer to
+     * @param s  dense index of source vertex
+     * @param t  dense index of destination vertex, -1 for all vertices
+     * @return the calling thread's result, only valid until its next query
+     */
+    private SSSPResult search(CompactGraph cg, int s, int t) {
+        SSSPResult res = results.get();
+        if (res == null || res.getGraph() != cg) {
+            res = new SSSPResult(cg);
+            results.set(res);
+        }
+        dijkstra.query(s, t, res, heaps.get());
+        return res;
+    }
+
+    private static int indexOf(CompactGraph cg, Vertex v) {
+        int idx = cg.getIndex(v);
+        if (idx < 0) {
+            throw new RuntimeException("Vertex not in graph");
+        }
+        return idx;
+    }
+
+    public Future<Double> distFromTo(Vertex src, Vertex dest) {
+        CompactGraph cg = getCompactGraph();
+        int s = indexOf(cg, src), t = indexOf(cg, dest);
+        return pool.submit(() -> search(cg, s, t).getDist(t));
+    }
+
+    public Future<List<Vertex>> getPath(Vertex src, Vertex dest) {
+        CompactGraph cg = getCompactGraph();
+        int s = indexOf(cg, src), t = indexOf(cg, dest);
+        return pool.submit(() -> search(cg, s, t).getPath(dest));
+    }
+
+    /**
+     * @param s dense index of source vertex in getCompactGraph()
+     * @param t dense index of destination vertex in getCompactGraph()
+     * @return darts on the shortest path, see SSSPResult.getPathDarts()
+     */
+    public Future<int[]> getPathDarts(int s, int t) {
+        CompactGraph cg = getCompactGraph();
+        return pool.submit(() -> search(cg, s, t).getPathDarts(t));
+    }
+
+    /**
+     * @param src
+     * @return distances to all vertices, indexed by dense vertex index of getCompactGraph()
+     */
+    public Future<double[]> distancesFrom(Vertex src) {
+        CompactGraph cg = getCompactGraph();
+        int s = indexOf(cg, src);
+        return pool.submit(() -> {
+            SSSPResult res = search(cg, s, -1);
+            double[] dist = new double[cg.getVertexNum()];
+            for (int v = 0; v < dist.length; v++) dist[v] = res.getDist(v);
+            return dist;
+        });
+    }
+
+    /**
+     * answer a batch of point-to-point distance queries
+     *
+     * @param srcs
+     * @param dests
+     * @return dist[i] = distance from srcs[i] to dests[i]
+     */
+    public double[] distances(Vertex[] srcs, Vertex[] dests) throws InterruptedException, ExecutionException {
+        if (srcs.length != dests.length) {
+            throw new RuntimeException("Sources and destinations do not match.");
+        }
+        List<Future<Double>> futures = new ArrayList<>(srcs.length);
+        for (int i = 0; i < srcs.length; i++) futures.add(distFromTo(srcs[i], dests[i]));
+        double[] dist = new double[srcs.length];
+        for (int i = 0; i < dist.length; i++) dist[i] = futures.get(i).get();
+        return dist;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+}
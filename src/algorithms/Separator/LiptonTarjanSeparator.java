@@ -75,7 +75,8 @@ public class LiptonTarjanSeparator extends Separator {
         outsideMiddle.removeAll(heavyMiddle);
         Map<Vertex, Tree.TreeNode> faceToNode = trees[1].mapVertexToTreeNode(false);
         for (Vertex v : outsideMiddle) {
-            for (Dart d : v.getIncidenceList()) {
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
                 if (outsideMiddle.contains(d.getHead())) {
                     faceToNode.get(d.getRight()).setSelfWeight(0);
                     faceToNode.get(d.getLeft()).setSelfWeight(0);
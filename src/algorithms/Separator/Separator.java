@@ -276,7 +276,8 @@ public abstract class Separator {
     protected Set<Vertex> getIncidentalVertices(Set<Vertex> faces) {
         Set<Vertex> vertices = new HashSet<>();
         for (Vertex f : faces) {
-            for (Dart d : f.getIncidenceList()) {
+            Dart d = f.getFirstDart();
+            for (int i = 0; i < f.getDegree(); i++, d = d.getNext()) {
                 vertices.add(d.getTail());
             }
         }
@@ -0,0 +1,323 @@
+package algorithms.Separator;
+
+import selfdualgraph.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+/**
+ * Recursive separator decomposition of a graph, computed once and shared by its consumers
+ * (r-division, nested dissection, distance oracles)
+ * <p>
+ * A node is a piece of the graph. A connected piece larger than leafSize is split by a separator S into
+ * the connected components of the piece without S, its children; a piece which is not connected has no
+ * separator and its components are its children; other pieces are leaves. So the pieces of the children of a
+ * node are disjoint, and every vertex is in the separator of exactly one node or in exactly one leaf.
+ * The boundary of a piece is the set of vertices outside it with a neighbor inside, all of them are in
+ * separators of its ancestors.
+ * <p>
+ * Vertices are kept by ID, so a tree saved to disk can be used with any later copy of the same graph.
+ * Each piece is separated on a copy of its own, so pieces can be separated in parallel.
+ */
+public class SeparatorTree implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final Node root;
+    private final int leafSize;
+    private int nodeNum;
+
+    public static class Node implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] vertices;       // IDs, ascending
+        private int[] separator = new int[0];
+        private int[][] separatorPaths;     // only for separators made of paths, e.g. ShortestPathSeparator
+        private int[] boundary;
+        private final List<Node> children = new ArrayList<>();
+        private final Node parent;
+        private final int depth;
+        private int index;
+
+        private Node(int[] vertices, Node parent) {
+            this.vertices = vertices;
+            this.parent = parent;
+            depth = parent == null ? 0 : parent.depth + 1;
+        }
+
+        /**
+         * @return vertex IDs of the piece, ascending
+         */
+        public int[] getVertices() {
+            return vertices;
+        }
+
+        /**
+         * @return vertex IDs of the separator, ascending, empty for leaves and pieces which are not connected
+         */
+        public int[] getSeparator() {
+            return separator;
+        }
+
+        /**
+         * @return vertex IDs of each path of the separator in path order, null if the separator is not made of paths
+         */
+        public int[][] getSeparatorPaths() {
+            return separatorPaths;
+        }
+
+        /**
+         * @return IDs of the vertices outside the piece with a neighbor inside, ascending
+         */
+        public int[] getBoundary() {
+            return boundary;
+        }
+
+        public List<Node> getChildren() {
+            return children;
+        }
+
+        public Node getParent() {
+            return parent;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * @return position of the node in preorder
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public int getSize() {
+            return vertices.length;
+        }
+
+        public boolean isLeaf() {
+            return children.isEmpty();
+        }
+    }
+
+    /**
+     * @param g
+     * @param separator separator for a piece, the piece is a copy that may be modified
+     * @param leafSize  pieces up to this size are not separated
+     */
+    public SeparatorTree(SelfDualGraph g, Function<SelfDualGraph, Separator> separator, int leafSize) {
+        this(g, separator, leafSize, 1);
+    }
+
+    /**
+     * @param g
+     * @param separator separator for a piece, the piece is a copy that may be modified
+     * @param leafSize  pieces up to this size are not separated
+     * @param threads   pieces are separated on a ForkJoinPool of this many threads if more than 1
+     */
+    public SeparatorTree(SelfDualGraph g, Function<SelfDualGraph, Separator> separator, int leafSize, int threads) {
+        if (leafSize < 1) {
+            throw new RuntimeException("Leaf size must be positive");
+        }
+        this.leafSize = leafSize;
+        SelfDualGraph whole = g.buildSubgraph(g.getVertices());
+        root = new Node(idsOf(whole.getVertices()), null);
+        SplitTask task = new SplitTask(root, whole, separator, leafSize);
+        if (threads > 1) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                pool.invoke(task);
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            task.compute();
+        }
+        for (Node node : preorder()) node.index = nodeNum++;
+        assignBoundaries(new CompactGraph(g));
+    }
+
+    /**
+     * split the piece of a node, then the pieces of its children
+     */
+    private static class SplitTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Node node;
+        private final SelfDualGraph piece;
+        private final Function<SelfDualGraph, Separator> separator;
+        private final int leafSize;
+
+        SplitTask(Node node, SelfDualGraph piece, Function<SelfDualGraph, Separator> separator, int leafSize) {
+            this.node = node;
+            this.piece = piece;
+            this.separator = separator;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (piece.getVertexNum() <= leafSize) return;
+            List<Set<Vertex>> components = components(piece, Collections.emptySet());
+            if (components.size() == 1) {
+                Separator sp = separator.apply(piece.buildSubgraph(piece.getVertices()));
+                Set<Integer> sep = new HashSet<>();
+                for (Vertex v : sp.findSeparator()) sep.add(v.getID());
+                if (sep.isEmpty()) return;
+                node.separator = sortedArray(sep);
+                if (sp instanceof ShortestPathSeparator) {
+                    List<List<Vertex>> paths = ((ShortestPathSeparator) sp).getPaths();
+                    node.separatorPaths = new int[paths.size()][];
+                    for (int i = 0; i < paths.size(); i++) {
+                        node.separatorPaths[i] = paths.get(i).stream().mapToInt(Vertex::getID).toArray();
+                    }
+                }
+                components = components(piece, sep);
+            }
+            List<SplitTask> tasks = new ArrayList<>();
+            for (Set<Vertex> component : components) {
+                Node child = new Node(idsOf(component), node);
+                node.children.add(child);
+                if (component.size() > leafSize) {
+                    tasks.add(new SplitTask(child, piece.buildSubgraph(component), separator, leafSize));
+                }
+            }
+            node.children.sort(Comparator.comparingInt(n -> n.vertices[0]));
+            if (getPool() != null) {
+                invokeAll(tasks);
+            } else {
+                for (SplitTask task : tasks) task.compute();
+            }
+        }
+    }
+
+    /**
+     * @param piece
+     * @param removed IDs of vertices left out
+     * @return connected components of the piece without the removed vertices
+     */
+    private static List<Set<Vertex>> components(SelfDualGraph piece, Set<Integer> removed) {
+        List<Set<Vertex>> components = new ArrayList<>();
+        Set<Vertex> seen = new HashSet<>();
+        for (Vertex s : piece.getVertices()) {
+            if (removed.contains(s.getID()) || !seen.add(s)) continue;
+            Set<Vertex> component = new HashSet<>();
+            Queue<Vertex> q = new LinkedList<>();
+            q.add(s);
+            component.add(s);
+            while (!q.isEmpty()) {
+                Vertex v = q.poll();
+                Dart d = v.getFirstDart();
+                for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+                    Vertex u = d.getHead();
+                    if (!removed.contains(u.getID()) && seen.add(u)) {
+                        component.add(u);
+                        q.add(u);
+                    }
+                }
+            }
+            components.add(component);
+        }
+        return components;
+    }
+
+    private void assignBoundaries(CompactGraph cg) {
+        Map<Integer, Integer> indexOf = new HashMap<>();
+        for (int v = 0; v < cg.getVertexNum(); v++) indexOf.put(cg.getVertexID(v), v);
+        int[] mark = new int[cg.getVertexNum()];
+        int stamp = 0;
+        for (Node node : preorder()) {
+            stamp++;
+            for (int id : node.vertices) mark[indexOf.get(id)] = stamp;
+            Set<Integer> boundary = new HashSet<>();
+            for (int id : node.vertices) {
+                int v = indexOf.get(id);
+                for (int i = 0, d = cg.getFirstDart(v); i < cg.getDegree(v); i++, d = cg.getSuccessor(d)) {
+                    int u = cg.getHead(d);
+                    if (mark[u] != stamp) boundary.add(cg.getVertexID(u));
+                }
+            }
+            node.boundary = sortedArray(boundary);
+        }
+    }
+
+    private static int[] idsOf(Collection<Vertex> vertices) {
+        int[] ids = new int[vertices.size()];
+        int n = 0;
+        for (Vertex v : vertices) ids[n++] = v.getID();
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static int[] sortedArray(Collection<Integer> ids) {
+        int[] array = ids.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    public int getNodeNum() {
+        return nodeNum;
+    }
+
+    public int getLeafSize() {
+        return leafSize;
+    }
+
+    /**
+     * @return all nodes, every node before its children
+     */
+    public List<Node> preorder() {
+        List<Node> nodes = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            nodes.add(node);
+            for (int i = node.children.size() - 1; i >= 0; i--) stack.push(node.children.get(i));
+        }
+        return nodes;
+    }
+
+    /**
+     * nested dissection: the vertices of the children of a node come before its separator
+     *
+     * @return vertex IDs in elimination order
+     */
+    public int[] getNestedDissectionOrder() {
+        // reversed preorder with the children taken right to left is postorder
+        List<Node> nodes = new ArrayList<>();
+        Deque<Node> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.pop();
+            nodes.add(node);
+            for (Node child : node.children) stack.push(child);
+        }
+        int[] order = new int[root.vertices.length];
+        int n = 0;
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            Node node = nodes.get(i);
+            for (int v : node.isLeaf() ? node.vertices : node.separator) order[n++] = v;
+        }
+        return order;
+    }
+
+    public void save(String fileName) throws IOException {
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(fileName)))) {
+            out.writeObject(this);
+        }
+    }
+
+    public static SeparatorTree load(String fileName) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(fileName)))) {
+            return (SeparatorTree) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Not a separator tree file: " + fileName, e);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package algorithms.Separator;
+
+import algorithms.RootFinder.*;
+import algorithms.SpanningTreeSolver.*;
+import algorithms.TreeWeightAssigner.*;
+import selfdualgraph.*;
+
+import java.util.*;
+
+/**
+ * Fundamental cycle separator of a shortest path tree: the separator is the union of two shortest paths
+ * from the LCA of the non-tree edge uv down to u and to v
+ * <p>
+ * The tree only uses the darts of the graph before triangulation, see ShortestPathTreeSolver,
+ * so the two paths are shortest paths of the graph as given.
+ */
+public class ShortestPathSeparator extends FundamentalCycleSeparator {
+    private final int distance_measure;
+    private Tree tree;
+    private Dart uv;
+
+    /**
+     * @param g            connected graph, will be triangulated
+     * @param dist_measure SSSP.WEIGHT_AS_DISTANCE or SSSP.CAPACITY_AS_DISTANCE
+     */
+    public ShortestPathSeparator(SelfDualGraph g, int dist_measure) {
+        super(g);
+        distance_measure = dist_measure;
+    }
+
+    /**
+     * @param sts ignored, the tree is always a shortest path tree
+     * @param rf  if null, use default MaxDegreeRoot
+     * @param twa if null, use default VertexCount
+     * @return
+     */
+    @Override
+    public Set<Vertex> findSeparator(SpanningTreeSolver sts, RootFinder rf, TreeWeightAssigner twa) {
+        g.flatten();
+        g.triangulate();
+        return findSeparator(new ShortestPathTreeSolver(distance_measure), rf, twa, 3);
+    }
+
+    @Override
+    public Tree.TreeNode chooseNode(Tree.TreeNode node, Tree tree, Tree coTree, int maxDegree) {
+        this.tree = tree;
+        uv = node.getParentDart();
+        return node;
+    }
+
+    /**
+     * @return the two paths of the separator, each from the LCA down, both start with the LCA
+     */
+    public List<List<Vertex>> getPaths() {
+        if (separator == null) {
+            findSeparator();
+        }
+        Map<Vertex, Tree.TreeNode> map = tree.mapVertexToTreeNode(false);
+        Tree.TreeNode p = map.get(uv.getTail()), q = map.get(uv.getHead());
+        Tree.TreeNode lca = tree.leastCommonAncestor(p, q);
+        List<List<Vertex>> paths = new ArrayList<>();
+        for (Tree.TreeNode n : new Tree.TreeNode[]{p, q}) {
+            List<Vertex> path = new ArrayList<>();
+            for (; n != lca; n = n.getParent()) path.add(n.getData());
+            path.add(lca.getData());
+            Collections.reverse(path);
+            paths.add(path);
+        }
+        return paths;
+    }
+}
@@ -201,7 +201,8 @@ public class SimpleCycleSeparator extends Separator {
             vv.setVisited(true);
             while (!q.isEmpty()) {
                 Vertex v = q.poll();
-                for (Dart d : v.getIncidenceList()) {
+                Dart d = v.getFirstDart();
+                for (int k = 0; k < v.getDegree(); k++, d = d.getSuccessor()) {
                     Vertex u = d.getHead();
                     if (!u.isVisited()) {
                         u.setVisited(true);
@@ -239,7 +240,8 @@ public class SimpleCycleSeparator extends Separator {
             q.addAll(outerBoundaries.get(i - 1));
             while (!q.isEmpty()) {
                 Vertex curr = q.poll();
-                for (Dart d : curr.getIncidenceList()) {
+                Dart d = curr.getFirstDart();
+                for (int k = 0; k < curr.getDegree(); k++, d = d.getSuccessor()) {
                     Vertex neighbor = d.getHead();
                     if (!neighbor.isVisited()) {
                         neighbor.setVisited(true);
@@ -306,10 +308,11 @@ public class SimpleCycleSeparator extends Separator {
 
             // start with the dart pointing "outward"
             Dart nextD = null;
-            for (Dart d : startV.getIncidenceList()) {
-                Vertex nextV = d.getHead();
+            Dart out = startV.getFirstDart();
+            for (int k = 0; k < startV.getDegree(); k++, out = out.getSuccessor()) {
+                Vertex nextV = out.getHead();
                 if (path.contains(nextV) && primalTreeMap.get(nextV).getDist() > primalTreeMap.get(startV).getDist()) {
-                    nextD = d;
+                    nextD = out;
                     break;
                 }
             }
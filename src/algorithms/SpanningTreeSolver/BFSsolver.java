@@ -16,7 +16,8 @@ public class BFSsolver extends SpanningTreeSolver {
         while (!q.isEmpty()) {
             Tree.TreeNode node = q.poll();
             Vertex vertex = node.getData();
-            for (Dart d : vertex.getIncidenceList()) {
+            Dart d = vertex.getFirstDart();
+            for (int i = 0; i < vertex.getDegree(); i++, d = d.getSuccessor()) {
                 Vertex v = d.getHead();
                 if (!d.isVisited() && !v.isVisited()) {
                     Tree.TreeNode child = new Tree.TreeNode(v, node, d);
@@ -39,7 +40,8 @@ public class BFSsolver extends SpanningTreeSolver {
         while (!q.isEmpty()) {
             Tree.TreeNode node = q.poll();
             Vertex vertex = node.getData();
-            for (Dart d : vertex.getIncidenceList()) {
+            Dart d = vertex.getFirstDart();
+            for (int i = 0; i < vertex.getDegree(); i++, d = d.getSuccessor()) {
                 Vertex v = d.getHead();
                 if (!d.isVisited() && !v.isVisited()) {
                     Tree.TreeNode child = new Tree.TreeNode(v, node, d);
@@ -21,7 +21,8 @@ public class DFSsolver extends SpanningTreeSolver{
         while (!stack.isEmpty()) {
             Tree.TreeNode node = stack.pop();
             vertex = node.getData();
-            for (Dart d : vertex.getIncidenceList()) {
+            Dart d = vertex.getFirstDart();
+            for (int i = 0; i < vertex.getDegree(); i++, d = d.getSuccessor()) {
                 Vertex v = d.getHead();
                 if (!d.isVisited() && !v.isVisited()) {
                     Tree.TreeNode child = new Tree.TreeNode(v, node, d);
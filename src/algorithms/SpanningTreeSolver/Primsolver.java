@@ -18,7 +18,8 @@ public class Primsolver extends SpanningTreeSolver {
 
         while (true) {
             vertex.setVisited(true);
-            for (Dart d : vertex.getIncidenceList()) {
+            Dart d = vertex.getFirstDart();
+            for (int i = 0; i < vertex.getDegree(); i++, d = d.getSuccessor()) {
                 if (!d.isVisited() && !d.getHead().isVisited()) {
                     frontier.add(d);
                 }
@@ -0,0 +1,74 @@
+package algorithms.SpanningTreeSolver;
+
+import algorithms.SSSP.*;
+import selfdualgraph.*;
+
+import java.util.*;
+
+/**
+ * build the shortest path tree from the root using Dijkstra's algorithm
+ * time complexity: O(VlogV), E = O(V)
+ * <p>
+ * darts with negative IDs, added by triangulate(), are not used, so in a triangulated copy of a graph
+ * every root path of the tree is a shortest path of the graph; the graph must be connected without them
+ */
+public class ShortestPathTreeSolver extends SpanningTreeSolver {
+    private final int distance_measure;
+
+    /**
+     * @param dist_measure SSSP.WEIGHT_AS_DISTANCE or SSSP.CAPACITY_AS_DISTANCE
+     */
+    public ShortestPathTreeSolver(int dist_measure) {
+        distance_measure = dist_measure;
+    }
+
+    private double length(Dart d) {
+        return distance_measure == SSSP.WEIGHT_AS_DISTANCE ? d.getWeight() : d.getCapacity();
+    }
+
+    @Override
+    public void buildTreeFromRoot(Tree.TreeNode root) {
+        Map<Vertex, Tree.TreeNode> map = new HashMap<>();
+        Map<Vertex, Double> dist = new HashMap<>();
+        PriorityQueue<Map.Entry<Dart, Double>> frontier = new PriorityQueue<>(Map.Entry.comparingByValue());
+        Vertex vertex = root.getData();
+        map.put(vertex, root);
+        dist.put(vertex, 0.0);
+
+        while (true) {
+            vertex.setVisited(true);
+            double dv = dist.get(vertex);
+            Dart d = vertex.getFirstDart();
+            for (int i = 0; i < vertex.getDegree(); i++, d = d.getSuccessor()) {
+                Vertex u = d.getHead();
+                if (d.getID() < 0 || u.isVisited()) continue;
+                double newDist = dv + length(d);
+                if (newDist < dist.getOrDefault(u, Double.MAX_VALUE)) {
+                    dist.put(u, newDist);
+                    frontier.add(new AbstractMap.SimpleEntry<>(d, newDist));
+                }
+            }
+            Map.Entry<Dart, Double> toAdd;
+            do {
+                toAdd = frontier.poll();
+            } while (toAdd != null && toAdd.getKey().getHead().isVisited());
+
+            if (toAdd == null) break;
+
+            Dart dart = toAdd.getKey();
+            dart.setVisited(true);
+            dart.getReverse().setVisited(true);
+            Vertex v = dart.getHead();
+            Tree.TreeNode node = map.get(dart.getTail());
+            Tree.TreeNode child = new Tree.TreeNode(v, node, dart);
+            node.addChild(child);
+            map.put(v, child);
+            vertex = v;
+        }
+    }
+
+    @Override
+    public void rebuildTreeFromRoot(Tree.TreeNode root, Map<Vertex, Tree.TreeNode> boundary) {
+        throw new RuntimeException("Function not implemented");
+    }
+}
@@ -146,7 +146,8 @@ public abstract class SpanningTreeSolver {
             Tree.TreeNode node = stack.pop();
             Vertex vertex = node.getData();
             vertex.setVisited(true);
-            for (Dart d : vertex.getIncidenceList()) {
+            Dart d = vertex.getFirstDart();
+            for (int i = 0; i < vertex.getDegree(); i++, d = vertex.nextIncidentDart(d)) {
                 Vertex f = d.getLeft();
                 if (!d.isVisited() && !f.isVisited()) {
                     Tree.TreeNode child = new Tree.TreeNode(f, node, d);
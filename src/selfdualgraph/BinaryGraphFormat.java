@@ -0,0 +1,183 @@
+package selfdualgraph;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/**
+ * Versioned binary on-disk format of a CompactGraph, all values little-endian
+ * <p>
+ * header (32 bytes): magic "SDGB", version, V, D, F, 3 reserved ints
+ * vertex sections: ID int[V], coordX float[V], coordY float[V], weight double[V], firstDart int[V], degree int[V]
+ * face sections:   ID int[F], coordX float[F], coordY float[F], weight double[F], firstDart int[F], degree int[F]
+ * dart sections:   ID int[D], tail int[D], right int[D], next int[D], prev int[D], weight double[D], capacity double[D]
+ * <p>
+ * Darts are stored in reverse pairs (2k, 2k+1) as in CompactGraph, so reverse, head, left, successor
+ * and predecessor are implied. Dart and vertex references are dense indices, not IDs; -1 means none.
+ * Face dart cycles are given by firstDart of each face and next of each dart.
+ * Sections are memory-mapped and copied in bulk when loading, no per-record parsing.
+ */
+class BinaryGraphFormat {
+    static final int MAGIC = 0x42474453;    // "SDGB" read as little-endian int
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private BinaryGraphFormat() {
+    }
+
+    static void write(CompactGraph cg, String fileName) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buf.putInt(MAGIC).putInt(VERSION);
+            buf.putInt(cg.getVertexNum()).putInt(cg.getDartNum()).putInt(cg.getFaceNum());
+            buf.putInt(0).putInt(0).putInt(0);
+
+            writeInts(ch, buf, cg.vertexID);
+            writeFloats(ch, buf, cg.vertexX);
+            writeFloats(ch, buf, cg.vertexY);
+            writeDoubles(ch, buf, cg.vertexWeight);
+            writeInts(ch, buf, cg.vertexDart);
+            writeInts(ch, buf, cg.vertexDegree);
+
+            writeInts(ch, buf, cg.faceID);
+            writeFloats(ch, buf, cg.faceX);
+            writeFloats(ch, buf, cg.faceY);
+            writeDoubles(ch, buf, cg.faceWeight);
+            writeInts(ch, buf, cg.faceDart);
+            writeInts(ch, buf, cg.faceDegree);
+
+            writeInts(ch, buf, cg.dartID);
+            writeInts(ch, buf, cg.tail);
+            writeInts(ch, buf, cg.right);
+            writeInts(ch, buf, cg.next);
+            writeInts(ch, buf, cg.prev);
+            writeDoubles(ch, buf, cg.weight);
+            writeDoubles(ch, buf, cg.capacity);
+            flush(ch, buf);
+        }
+    }
+
+    static CompactGraph read(String fileName) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            if (ch.size() < HEADER_SIZE) {
+                throw new RuntimeException("Not a binary graph file: too short.");
+            }
+            ByteBuffer header = map(ch, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC) {
+                throw new RuntimeException("Not a binary graph file: wrong magic number.");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new RuntimeException("Unsupported binary graph version " + version);
+            }
+            int V = header.getInt();
+            int D = header.getInt();
+            int F = header.getInt();
+            long expected = HEADER_SIZE + 28L * V + 28L * F + 36L * D;
+            if (ch.size() != expected) {
+                throw new RuntimeException("Binary graph file is truncated or corrupted.");
+            }
+
+            CompactGraph cg = new CompactGraph(V, D, F);
+            long pos = HEADER_SIZE;
+            pos = readInts(ch, pos, cg.vertexID);
+            pos = readFloats(ch, pos, cg.vertexX);
+            pos = readFloats(ch, pos, cg.vertexY);
+            pos = readDoubles(ch, pos, cg.vertexWeight);
+            pos = readInts(ch, pos, cg.vertexDart);
+            pos = readInts(ch, pos, cg.vertexDegree);
+
+            pos = readInts(ch, pos, cg.faceID);
+            pos = readFloats(ch, pos, cg.faceX);
+            pos = readFloats(ch, pos, cg.faceY);
+            pos = readDoubles(ch, pos, cg.faceWeight);
+            pos = readInts(ch, pos, cg.faceDart);
+            pos = readInts(ch, pos, cg.faceDegree);
+
+            pos = readInts(ch, pos, cg.dartID);
+            pos = readInts(ch, pos, cg.tail);
+            pos = readInts(ch, pos, cg.right);
+            pos = readInts(ch, pos, cg.next);
+            pos = readInts(ch, pos, cg.prev);
+            pos = readDoubles(ch, pos, cg.weight);
+            readDoubles(ch, pos, cg.capacity);
+            return cg;
+        }
+    }
+
+    private static ByteBuffer map(FileChannel ch, long pos, long len) throws IOException {
+        return ch.map(FileChannel.MapMode.READ_ONLY, pos, len).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // a section larger than 2GB can not be mapped at once, map it piece by piece
+    private static final int MAX_MAP = Integer.MAX_VALUE & ~7;
+
+    private static long readInts(FileChannel ch, long pos, int[] arr) throws IOException {
+        for (int off = 0; off < arr.length; ) {
+            int n = Math.min(arr.length - off, MAX_MAP / 4);
+            map(ch, pos, 4L * n).asIntBuffer().get(arr, off, n);
+            off += n;
+            pos += 4L * n;
+        }
+        return pos;
+    }
+
+    private static long readFloats(FileChannel ch, long pos, float[] arr) throws IOException {
+        for (int off = 0; off < arr.length; ) {
+            int n = Math.min(arr.length - off, MAX_MAP / 4);
+            map(ch, pos, 4L * n).asFloatBuffer().get(arr, off, n);
+            off += n;
+            pos += 4L * n;
+        }
+        return pos;
+    }
+
+    private static long readDoubles(FileChannel ch, long pos, double[] arr) throws IOException {
+        for (int off = 0; off < arr.length; ) {
+            int n = Math.min(arr.length - off, MAX_MAP / 8);
+            map(ch, pos, 8L * n).asDoubleBuffer().get(arr, off, n);
+            off += n;
+            pos += 8L * n;
+        }
+        return pos;
+    }
+
+    private static void flush(FileChannel ch, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) ch.write(buf);
+        buf.clear();
+    }
+
+    private static void writeInts(FileChannel ch, ByteBuffer buf, int[] arr) throws IOException {
+        for (int off = 0; off < arr.length; ) {
+            if (buf.remaining() < 4) flush(ch, buf);
+            int n = Math.min(arr.length - off, buf.remaining() / 4);
+            buf.asIntBuffer().put(arr, off, n);
+            buf.position(buf.position() + 4 * n);
+            off += n;
+        }
+    }
+
+    private static void writeFloats(FileChannel ch, ByteBuffer buf, float[] arr) throws IOException {
+        for (int off = 0; off < arr.length; ) {
+            if (buf.remaining() < 4) flush(ch, buf);
+            int n = Math.min(arr.length - off, buf.remaining() / 4);
+            buf.asFloatBuffer().put(arr, off, n);
+            buf.position(buf.position() + 4 * n);
+            off += n;
+        }
+    }
+
+    private static void writeDoubles(FileChannel ch, ByteBuffer buf, double[] arr) throws IOException {
+        for (int off = 0; off < arr.length; ) {
+            if (buf.remaining() < 8) flush(ch, buf);
+            int n = Math.min(arr.length - off, buf.remaining() / 8);
+            buf.asDoubleBuffer().put(arr, off, n);
+            buf.position(buf.position() + 8 * n);
+            off += n;
+        }
+    }
+}
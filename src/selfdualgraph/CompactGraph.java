@@ -0,0 +1,346 @@
+package selfdualgraph;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Array-backed (struct-of-arrays) storage of a self-dual planar graph
+ * <p>
+ * Vertices, faces and darts are dense integer indices into primitive columns, no per-element objects.
+ * Darts are stored in reverse pairs, so most pointers of Dart are implied:
+ * rev(d) = d ^ 1, head(d) = tail(rev(d)), left(d) = right(rev(d))
+ * successor(d) = next(rev(d)), predecessor(d) = rev(prev(d))
+ * <p>
+ * A CompactGraph is read-only after construction and safe to share between threads.
+ * When built from a SelfDualGraph, index <--> object mappings are kept for translating results back.
+ */
+public class CompactGraph {
+    // vertex columns
+    final int[] vertexID;
+    final float[] vertexX, vertexY;
+    final double[] vertexWeight;
+    final int[] vertexDart;     // an arbitrary dart d with tail(d) = v
+    final int[] vertexDegree;
+
+    // face columns
+    final int[] faceID;
+    final float[] faceX, faceY;
+    final double[] faceWeight;
+    final int[] faceDart;       // an arbitrary dart d with right(d) = f
+    final int[] faceDegree;
+
+    // dart columns
+    final int[] dartID;
+    final int[] tail, right, next, prev;
+    final double[] weight, capacity;
+
+    // object graph this snapshot was taken from, null if built from raw columns
+    private Vertex[] vertexObjects;
+    private Vertex[] faceObjects;
+    private Dart[] dartObjects;
+    private Map<Vertex, Integer> vertexIndex;
+    private Map<Dart, Integer> dartIndex;
+
+    /**
+     * allocate empty columns, used by loaders which fill in the columns directly
+     *
+     * @param V number of vertices
+     * @param D number of darts, must be even
+     * @param F number of faces
+     */
+    CompactGraph(int V, int D, int F) {
+        if (D % 2 != 0) {
+            throw new RuntimeException("Darts must come in reverse pairs.");
+        }
+        vertexID = new int[V];
+        vertexX = new float[V];
+        vertexY = new float[V];
+        vertexWeight = new double[V];
+        vertexDart = new int[V];
+        vertexDegree = new int[V];
+
+        faceID = new int[F];
+        faceX = new float[F];
+        faceY = new float[F];
+        faceWeight = new double[F];
+        faceDart = new int[F];
+        faceDegree = new int[F];
+
+        dartID = new int[D];
+        tail = new int[D];
+        right = new int[D];
+        next = new int[D];
+        prev = new int[D];
+        weight = new double[D];
+        capacity = new double[D];
+    }
+
+    /**
+     * take an array-backed snapshot of the given graph
+     * vertices and faces are indexed in ID order, each dart d and rev(d) are given indices 2k and 2k+1
+     *
+     * @param g
+     */
+    public CompactGraph(SelfDualGraph g) {
+        this(g.getVertexNum(), countDarts(g), g.getFaceNum());
+        vertexObjects = sortedByID(g.getVertices());
+        faceObjects = sortedByID(g.getFaces());
+        dartObjects = new Dart[dartID.length];
+
+        vertexIndex = new HashMap<>(2 * vertexObjects.length);
+        Map<Vertex, Integer> faceIndex = new HashMap<>(2 * faceObjects.length);
+        dartIndex = new HashMap<>(2 * dartObjects.length);
+        for (int i = 0; i < vertexObjects.length; i++) vertexIndex.put(vertexObjects[i], i);
+        for (int i = 0; i < faceObjects.length; i++) faceIndex.put(faceObjects[i], i);
+        int dNum = 0;
+        for (Vertex v : vertexObjects) {
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+                if (dartIndex.containsKey(d)) continue;
+                dartObjects[dNum] = d;
+                dartIndex.put(d, dNum++);
+                dartObjects[dNum] = d.getReverse();
+                dartIndex.put(d.getReverse(), dNum++);
+            }
+        }
+
+        for (int i = 0; i < vertexObjects.length; i++) {
+            Vertex v = vertexObjects[i];
+            vertexID[i] = v.getID();
+            vertexX[i] = v.getCoordX();
+            vertexY[i] = v.getCoordY();
+            vertexWeight[i] = v.getWeight();
+            vertexDart[i] = v.getDegree() == 0 ? -1 : dartIndex.get(v.getFirstDart());
+            vertexDegree[i] = v.getDegree();
+        }
+        for (int i = 0; i < faceObjects.length; i++) {
+            Vertex f = faceObjects[i];
+            faceID[i] = f.getID();
+            faceX[i] = f.getCoordX();
+            faceY[i] = f.getCoordY();
+            faceWeight[i] = f.getWeight();
+            faceDart[i] = f.getDegree() == 0 ? -1 : dartIndex.get(f.getFirstDart());
+            faceDegree[i] = f.getDegree();
+        }
+        for (int i = 0; i < dartObjects.length; i++) {
+            Dart d = dartObjects[i];
+            dartID[i] = d.getID();
+            tail[i] = vertexIndex.get(d.getTail());
+            right[i] = d.getRight() == null ? -1 : faceIndex.get(d.getRight());
+            next[i] = dartIndex.get(d.getNext());
+            prev[i] = dartIndex.get(d.getPrev());
+            weight[i] = d.getWeight();
+            capacity[i] = d.getCapacity();
+        }
+    }
+
+    private static int countDarts(SelfDualGraph g) {
+        int dNum = 0;
+        for (Vertex v : g.getVertices()) dNum += v.getDegree();
+        return dNum;
+    }
+
+    private static Vertex[] sortedByID(Set<Vertex> set) {
+        Vertex[] arr = set.toArray(new Vertex[0]);
+        Arrays.sort(arr);
+        return arr;
+    }
+
+    /**
+     * load a graph saved in binary format, see BinaryGraphFormat
+     * the loaded graph has no Vertex/Dart objects, use SelfDualGraph.buildGraph(CompactGraph) to materialize them
+     *
+     * @param fileName
+     * @return
+     * @throws IOException
+     */
+    public static CompactGraph loadBinary(String fileName) throws IOException {
+        return BinaryGraphFormat.read(fileName);
+    }
+
+    /**
+     * save this graph in binary format, see BinaryGraphFormat
+     *
+     * @param fileName
+     * @throws IOException
+     */
+    public void saveBinary(String fileName) throws IOException {
+        BinaryGraphFormat.write(this, fileName);
+    }
+
+    public int getVertexNum() {
+        return vertexID.length;
+    }
+
+    public int getFaceNum() {
+        return faceID.length;
+    }
+
+    public int getDartNum() {
+        return dartID.length;
+    }
+
+    // ---------------- dart navigation ----------------
+
+    public int getReverse(int d) {
+        return d ^ 1;
+    }
+
+    public int getTail(int d) {
+        return tail[d];
+    }
+
+    public int getHead(int d) {
+        return tail[d ^ 1];
+    }
+
+    public int getRight(int d) {
+        return right[d];
+    }
+
+    public int getLeft(int d) {
+        return right[d ^ 1];
+    }
+
+    /**
+     * the next dart leaving tail(d) in counter-clockwise order
+     */
+    public int getSuccessor(int d) {
+        return next[d ^ 1];
+    }
+
+    /**
+     * the next dart leaving tail(d) in clockwise order
+     */
+    public int getPredecessor(int d) {
+        return prev[d] ^ 1;
+    }
+
+    /**
+     * the next dart after d in clockwise order around right(d)
+     */
+    public int getNext(int d) {
+        return next[d];
+    }
+
+    public int getPrev(int d) {
+        return prev[d];
+    }
+
+    public double getWeight(int d) {
+        return weight[d];
+    }
+
+    public double getCapacity(int d) {
+        return capacity[d];
+    }
+
+    public int getDartID(int d) {
+        return dartID[d];
+    }
+
+    // ---------------- vertices & faces ----------------
+
+    /**
+     * incidence list of v can be walked without allocation:
+     * for (int i = 0, d = getFirstDart(v); i < getDegree(v); i++, d = getSuccessor(d))
+     *
+     * @param v
+     * @return an arbitrary dart leaving v, -1 if v is isolated
+     */
+    public int getFirstDart(int v) {
+        return vertexDart[v];
+    }
+
+    public int getDegree(int v) {
+        return vertexDegree[v];
+    }
+
+    public int getVertexID(int v) {
+        return vertexID[v];
+    }
+
+    public float getCoordX(int v) {
+        return vertexX[v];
+    }
+
+    public float getCoordY(int v) {
+        return vertexY[v];
+    }
+
+    public double getVertexWeight(int v) {
+        return vertexWeight[v];
+    }
+
+    /**
+     * boundary of f can be walked without allocation:
+     * for (int i = 0, d = getFaceFirstDart(f); i < getFaceDegree(f); i++, d = getNext(d))
+     *
+     * @param f
+     * @return an arbitrary dart whose right is f, -1 if f has no incident dart
+     */
+    public int getFaceFirstDart(int f) {
+        return faceDart[f];
+    }
+
+    public int getFaceDegree(int f) {
+        return faceDegree[f];
+    }
+
+    public int getFaceID(int f) {
+        return faceID[f];
+    }
+
+    public float getFaceCoordX(int f) {
+        return faceX[f];
+    }
+
+    public float getFaceCoordY(int f) {
+        return faceY[f];
+    }
+
+    public double getFaceWeight(int f) {
+        return faceWeight[f];
+    }
+
+    // ---------------- mapping to the object graph ----------------
+
+    /**
+     * @return true if this snapshot was taken from a SelfDualGraph, and objects can be looked up
+     */
+    public boolean hasObjects() {
+        return vertexObjects != null;
+    }
+
+    public Vertex getVertex(int v) {
+        return vertexObjects[v];
+    }
+
+    public Vertex getFace(int f) {
+        return faceObjects[f];
+    }
+
+    public Dart getDart(int d) {
+        return dartObjects[d];
+    }
+
+    /**
+     * @param v a vertex of the graph this snapshot was taken from
+     * @return dense index of v, -1 if v is not in the snapshot
+     */
+    public int getIndex(Vertex v) {
+        if (vertexIndex == null) return -1;
+        Integer idx = vertexIndex.get(v);
+        return idx == null ? -1 : idx;
+    }
+
+    /**
+     * @param d a dart of the graph this snapshot was taken from
+     * @return dense index of d, -1 if d is not in the snapshot
+     */
+    public int getIndex(Dart d) {
+        if (dartIndex == null) return -1;
+        Integer idx = dartIndex.get(d);
+        return idx == null ? -1 : idx;
+    }
+}
@@ -15,13 +15,16 @@ public class Dart implements Comparable<Dart> {
     public static int uniqueID = 0;
 
     private int ID;
+    private final int hash;     // ID at construction, see Vertex.hashCode()
     private double weight, capacity;
     private Vertex tail, head, left, right;
     private Dart reverse, successor, predecessor, next, prev;
     private boolean visited;
+    int index = -1;     // dense index assigned by the owning SelfDualGraph
 
     public Dart(int ID, Vertex t, Vertex h, double w, double c) {
         this.ID = ID;
+        hash = ID;
         tail = t;
         head = h;
         weight = w;
@@ -31,6 +34,7 @@ public class Dart implements Comparable<Dart> {
 
     public Dart(Dart other) {
         ID = other.ID;
+        hash = other.ID;
         weight = other.weight;
         capacity = other.capacity;
         visited = false;
@@ -40,12 +44,21 @@ public class Dart implements Comparable<Dart> {
         return ID;
     }
 
-    public void setID(int ID) {
+    void setID(int ID) {
         this.ID = ID;
     }
 
     public Dart(Vertex t, Vertex h) {
-        this(--uniqueID, t, h, 0.0, 0.0);
+        this(nextUniqueID(), t, h, 0.0, 0.0);
+    }
+
+    /**
+     * new negative IDs may be taken from several threads, e.g. by the parallel r-division
+     *
+     * @return
+     */
+    private static synchronized int nextUniqueID() {
+        return --uniqueID;
     }
 
     public double getWeight() {
@@ -139,6 +152,14 @@ public class Dart implements Comparable<Dart> {
         return String.format("D<%d> (%s, %s)", ID, head, left);
     }
 
+    /**
+     * hash by the ID given at construction, see Vertex.hashCode()
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
     @Override
     public int compareTo(Dart other) {
         if (this.weight == other.weight) return this.ID - other.ID;
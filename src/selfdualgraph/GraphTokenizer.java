@@ -0,0 +1,296 @@
+package selfdualgraph;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.util.*;
+import java.util.function.*;
+import java.util.zip.*;
+
+/**
+ * Byte-level tokenizer for the text graph format (see input_format.txt)
+ * <p>
+ * Reads through a private byte buffer and parses numbers in place, no String or String[] per line.
+ * Tokens are separated by spaces or tabs, lines by '\n' (a trailing '\r' is ignored).
+ * Source can be an InputStream (plain or gzip-compressed file) or a ByteBuffer such as a MappedByteBuffer.
+ */
+public class GraphTokenizer implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final double[] POW10 = new double[23];
+
+    static {
+        POW10[0] = 1;
+        for (int i = 1; i < POW10.length; i++) POW10[i] = POW10[i - 1] * 10;
+    }
+
+    private final InputStream in;
+    private final ByteBuffer src;
+    private final byte[] buf;
+    private int pos, limit;
+    private long consumed;      // bytes moved into buf before the current fill
+    private byte[] tok = new byte[64];
+    private int tokLen;
+    private long mantissa;      // scanDecimal results for the current token
+    private int exp10;
+    private boolean neg;
+
+    private LongConsumer progress;
+    private long progressInterval;
+    private long nextReport;
+
+    public GraphTokenizer(InputStream in) {
+        this.in = in;
+        this.src = null;
+        buf = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * tokenize the remaining bytes of the given buffer, from its position to its limit
+     *
+     * @param src
+     */
+    public GraphTokenizer(ByteBuffer src) {
+        this.in = null;
+        this.src = src;
+        buf = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * open a graph file, gzip-compressed files are detected by their magic number
+     *
+     * @param fileName
+     * @return
+     * @throws FileNotFoundException
+     */
+    public static GraphTokenizer open(String fileName) throws FileNotFoundException {
+        InputStream in = new BufferedInputStream(new FileInputStream(fileName), BUFFER_SIZE);
+        try {
+            in.mark(2);
+            int b0 = in.read(), b1 = in.read();
+            in.reset();
+            if (b0 == 0x1f && b1 == 0x8b) {
+                in = new GZIPInputStream(in, BUFFER_SIZE);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new GraphTokenizer(in);
+    }
+
+    /**
+     * report the number of bytes read from the source (compressed bytes for gzip files),
+     * roughly every interval bytes
+     *
+     * @param listener
+     * @param interval
+     */
+    public void setProgressListener(LongConsumer listener, long interval) {
+        progress = listener;
+        progressInterval = interval;
+        nextReport = consumed + interval;
+    }
+
+    /**
+     * @return number of bytes consumed so far
+     */
+    public long getPosition() {
+        return consumed + pos;
+    }
+
+    private boolean fill() {
+        if (pos < limit) return true;
+        consumed += limit;
+        pos = limit = 0;
+        if (src != null) {
+            int n = Math.min(buf.length, src.remaining());
+            src.get(buf, 0, n);
+            limit = n;
+        } else {
+            try {
+                int n = in.read(buf, 0, buf.length);
+                limit = Math.max(n, 0);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (progress != null && consumed >= nextReport) {
+            progress.accept(consumed);
+            nextReport = consumed + progressInterval;
+        }
+        return limit > 0;
+    }
+
+    /**
+     * skip spaces and tabs
+     *
+     * @return true if there is another token on the current line
+     */
+    public boolean hasNextOnLine() {
+        while (fill()) {
+            byte b = buf[pos];
+            if (b == ' ' || b == '\t' || b == '\r') pos++;
+            else return b != '\n';
+        }
+        return false;
+    }
+
+    /**
+     * skip the rest of the current line, including the line break
+     */
+    public void nextLine() {
+        while (fill()) {
+            if (buf[pos++] == '\n') return;
+        }
+    }
+
+    /**
+     * copy the next token into tok[0 .. tokLen-1]
+     */
+    private void readToken() {
+        if (!hasNextOnLine()) {
+            throw new RuntimeException("Unexpected end of line at byte " + getPosition());
+        }
+        tokLen = 0;
+        while (fill()) {
+            byte b = buf[pos];
+            if (b == ' ' || b == '\t' || b == '\r' || b == '\n') break;
+            if (tokLen == tok.length) tok = Arrays.copyOf(tok, 2 * tok.length);
+            tok[tokLen++] = b;
+            pos++;
+        }
+    }
+
+    public int nextInt() {
+        readToken();
+        int i = 0;
+        boolean neg = false;
+        if (tok[0] == '-' || tok[0] == '+') {
+            neg = tok[i++] == '-';
+        }
+        if (i == tokLen || tokLen - i > 10) {
+            throw new RuntimeException("Malformed integer \"" + tokenString() + "\" at byte " + getPosition());
+        }
+        long val = 0;
+        for (; i < tokLen; i++) {
+            int c = tok[i] - '0';
+            if (c < 0 || c > 9) {
+                throw new RuntimeException("Malformed integer \"" + tokenString() + "\" at byte " + getPosition());
+            }
+            val = val * 10 + c;
+        }
+        val = neg ? -val : val;
+        if (val != (int) val) {
+            throw new RuntimeException("Integer overflow \"" + tokenString() + "\" at byte " + getPosition());
+        }
+        return (int) val;
+    }
+
+    /**
+     * exact fast path when the decimal significand fits in 24 bits and |exponent| <= 10,
+     * everything else falls back to Float.parseFloat so the value is rounded only once
+     *
+     * @return
+     */
+    public float nextFloat() {
+        readToken();
+        if (!scanDecimal() || mantissa > 1 << 24 || exp10 < -10 || exp10 > 10) {
+            try {
+                return Float.parseFloat(tokenString());
+            } catch (NumberFormatException e) {
+                throw malformed();
+            }
+        }
+        float val = exp10 < 0 ? mantissa / (float) POW10[-exp10] : mantissa * (float) POW10[exp10];
+        return neg ? -val : val;
+    }
+
+    /**
+     * exact fast path when the decimal significand fits in 15 digits and |exponent| <= 22 (Clinger),
+     * everything else (long significands, NaN, Infinity, ...) falls back to Double.parseDouble
+     *
+     * @return
+     */
+    public double nextDouble() {
+        readToken();
+        if (!scanDecimal() || exp10 < -22 || exp10 > 22) {
+            try {
+                return Double.parseDouble(tokenString());
+            } catch (NumberFormatException e) {
+                throw malformed();
+            }
+        }
+        double val = exp10 < 0 ? mantissa / POW10[-exp10] : mantissa * POW10[exp10];
+        return neg ? -val : val;
+    }
+
+    /**
+     * splits the current token into sign, significand (at most 15 digits) and decimal exponent
+     *
+     * @return false if the token is not a plain decimal number the fast paths can handle
+     */
+    private boolean scanDecimal() {
+        int i = 0;
+        neg = false;
+        if (tok[0] == '-' || tok[0] == '+') {
+            neg = tok[i++] == '-';
+        }
+        mantissa = 0;
+        exp10 = 0;
+        int digits = 0;
+        boolean sawDigit = false, sawPoint = false;
+        for (; i < tokLen; i++) {
+            byte b = tok[i];
+            if (b >= '0' && b <= '9') {
+                sawDigit = true;
+                if (mantissa == 0 && b == '0') {
+                    if (sawPoint) exp10--;
+                } else if (digits < 15) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    digits++;
+                    if (sawPoint) exp10--;
+                } else {
+                    return false;
+                }
+            } else if (b == '.' && !sawPoint) {
+                sawPoint = true;
+            } else if ((b == 'e' || b == 'E') && sawDigit && i + 1 < tokLen) {
+                int e = 0;
+                int j = i + 1;
+                boolean negE = false;
+                if (tok[j] == '-' || tok[j] == '+') {
+                    negE = tok[j++] == '-';
+                }
+                if (j == tokLen || tokLen - j > 3) return false;
+                for (; j < tokLen; j++) {
+                    int c = tok[j] - '0';
+                    if (c < 0 || c > 9) return false;
+                    e = e * 10 + c;
+                }
+                exp10 += negE ? -e : e;
+                break;
+            } else {
+                return false;
+            }
+        }
+        return sawDigit;
+    }
+
+    private RuntimeException malformed() {
+        return new RuntimeException("Malformed number \"" + tokenString() + "\" at byte " + getPosition());
+    }
+
+    private String tokenString() {
+        return new String(tok, 0, tokLen, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void close() {
+        if (in != null) {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package selfdualgraph;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.*;
+
+/**
+ * Buffered writer for the text graph format (see input_format.txt)
+ * <p>
+ * Numbers are formatted straight into a byte buffer, no String.format or PrintWriter per record.
+ * Real numbers are written with 6 decimals, the same layout as "%f".
+ * Output is gzip-compressed if requested, GraphTokenizer detects and reads such files transparently.
+ * For the binary format see SelfDualGraph.saveBinary()
+ */
+public class GraphWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int DECIMALS = 6;
+    private static final long SCALE = 1000000;
+    // beyond this the scaled value no longer fits exactly in a double mantissa
+    private static final double MAX_FAST = 1e9;
+
+    private final OutputStream out;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private final byte[] digits = new byte[20];
+    private int pos;
+
+    public GraphWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * @param fileName
+     * @param gzip     compress the output
+     * @throws FileNotFoundException
+     */
+    public GraphWriter(String fileName, boolean gzip) throws FileNotFoundException {
+        OutputStream os = new FileOutputStream(fileName);
+        if (gzip) {
+            try {
+                os = new GZIPOutputStream(os, BUFFER_SIZE);
+            } catch (IOException | RuntimeException e) {
+                // the file stream is not handed over, close it here
+                try {
+                    os.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                if (e instanceof IOException) throw new UncheckedIOException((IOException) e);
+                throw (RuntimeException) e;
+            }
+        }
+        this.out = os;
+    }
+
+    /**
+     * write vertices in ID order, darts in incidence order of each vertex, faces in ID order
+     *
+     * @param g
+     */
+    public void writeGraph(SelfDualGraph g) {
+        Vertex[] vArr = g.getVertices().toArray(new Vertex[0]);
+        Vertex[] fArr = g.getFaces().toArray(new Vertex[0]);
+        Arrays.sort(vArr);
+        Arrays.sort(fArr);
+        int eNum = 0;
+        for (Vertex face : fArr) {
+            eNum += face.getDegree();
+        }
+        writeInt(vArr.length).writeSpace().writeInt(eNum).writeSpace().writeInt(fArr.length).writeNewLine();
+
+        for (Vertex v : vArr) {
+            writeInt(v.getID()).writeSpace().writeReal(v.getCoordX()).writeSpace().writeReal(v.getCoordY())
+                    .writeSpace().writeReal(v.getWeight()).writeNewLine();
+        }
+        for (Vertex v : vArr) {
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+                writeInt(d.getID()).writeSpace().writeInt(d.getReverse().getID()).writeSpace()
+                        .writeInt(d.getTail().getID()).writeSpace().writeInt(d.getHead().getID()).writeSpace()
+                        .writeReal(d.getWeight()).writeSpace().writeReal(d.getCapacity()).writeNewLine();
+            }
+        }
+        for (Vertex f : fArr) {
+            writeInt(f.getID()).writeSpace().writeInt(f.getDegree());
+            Dart d = f.getFirstDart();
+            for (int i = 0; i < f.getDegree(); i++, d = d.getNext()) {
+                writeSpace().writeInt(d.getID());
+            }
+            writeSpace().writeReal(f.getCoordX()).writeSpace().writeReal(f.getCoordY())
+                    .writeSpace().writeReal(f.getWeight()).writeNewLine();
+        }
+    }
+
+    private void ensure(int n) {
+        if (pos + n > buf.length) flush();
+    }
+
+    private void putByte(int b) {
+        ensure(1);
+        buf[pos++] = (byte) b;
+    }
+
+    public GraphWriter writeSpace() {
+        putByte(' ');
+        return this;
+    }
+
+    public GraphWriter writeNewLine() {
+        putByte('\n');
+        return this;
+    }
+
+    public GraphWriter writeInt(long x) {
+        ensure(20);
+        if (x < 0) {
+            if (x == Long.MIN_VALUE) return writeString(Long.toString(x));
+            buf[pos++] = '-';
+            x = -x;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + x % 10);
+            x /= 10;
+        } while (x > 0);
+        while (n > 0) buf[pos++] = digits[--n];
+        return this;
+    }
+
+    /**
+     * fixed-point with 6 decimals, byte for byte as "%f": rounded half up from the shortest decimal form of x,
+     * negative values that round to zero keep their sign
+     *
+     * @param x
+     * @return
+     */
+    public GraphWriter writeReal(double x) {
+        if (Double.isNaN(x) || Double.isInfinite(x) || Math.abs(x) >= MAX_FAST) {
+            return writeString(String.format("%f", x));
+        }
+        double exact = Math.abs(x) * SCALE;
+        // the product may be off by an ulp or so, close to a tie only the decimal form tells which way to round
+        if (Math.abs(exact - Math.floor(exact) - 0.5) <= 4 * Math.ulp(exact)) {
+            return writeString(String.format("%f", x));
+        }
+        long scaled = Math.round(exact);
+        if (Double.doubleToRawLongBits(x) < 0) putByte('-');
+        writeInt(scaled / SCALE);
+        ensure(1 + DECIMALS);
+        buf[pos++] = '.';
+        long frac = scaled % SCALE;
+        for (int i = DECIMALS - 1; i >= 0; i--) {
+            buf[pos + i] = (byte) ('0' + frac % 10);
+            frac /= 10;
+        }
+        pos += DECIMALS;
+        return this;
+    }
+
+    public GraphWriter writeString(String s) {
+        for (int i = 0; i < s.length(); i++) putByte(s.charAt(i));
+        return this;
+    }
+
+    public void flush() {
+        try {
+            out.write(buf, 0, pos);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pos = 0;
+    }
+
+    @Override
+    public void close() {
+        flush();
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package selfdualgraph;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+
+/**
+ * Multi-threaded loader for the text graph format (see input_format.txt)
+ * <p>
+ * 1. the memory-mapped file is cut into newline-aligned byte ranges, lines are counted per range,
+ * a prefix sum gives the global line number where each range starts, so each line's record type is known
+ * 2. ranges are parsed in parallel into primitive columns
+ * 3. objects are created and linked in parallel: face cycles per face, rotation systems per vertex;
+ * each pass only writes darts owned by one face (or leaving one vertex), so no locking is needed
+ * <p>
+ * The result is identical to the sequential SelfDualGraph.buildGraph(String).
+ * gzip-compressed files can not be split, and are loaded sequentially.
+ */
+class ParallelGraphLoader {
+    private static final int MAX_CHUNK = 1 << 30;
+
+    private final ForkJoinPool pool;
+
+    // header
+    private int V, E, F;
+
+    // columns, indexed by record number within each section
+    private int[] vID;
+    private float[] vX, vY;
+    private double[] vWeight;
+    private int[] dID, dRev, dTail, dHead;
+    private double[] dWeight, dCapacity;
+    private int[] fID;
+    private int[][] fDarts;
+    private float[] fX, fY;
+    private boolean[] fHasCoord, fHasWeight;
+    private double[] fWeight;
+
+    // results
+    Vertex[] verticesArr;
+    Vertex[] facesArr;
+
+    ParallelGraphLoader(int threads) {
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * @param fileName
+     * @return false if the file is gzip-compressed and must be loaded sequentially
+     * @throws IOException
+     */
+    boolean load(String fileName) throws IOException {
+        try {
+            return loadFile(fileName);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private boolean loadFile(String fileName) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size >= 2) {
+                ByteBuffer magic = ByteBuffer.allocate(2);
+                ch.read(magic, 0);
+                if ((magic.get(0) & 0xff) == 0x1f && (magic.get(1) & 0xff) == 0x8b) return false;
+            }
+
+            long[] bounds = splitByLines(ch, size, pool.getParallelism() * 4);
+            int chunks = bounds.length - 1;
+            long[] lineStart = new long[chunks + 1];
+            run(() -> IntStream.range(0, chunks).parallel().forEach(i ->
+                    lineStart[i + 1] = countLines(map(ch, bounds[i], bounds[i + 1]), i == chunks - 1)));
+            for (int i = 0; i < chunks; i++) lineStart[i + 1] += lineStart[i];
+
+            GraphTokenizer header = new GraphTokenizer(map(ch, 0, bounds[1]));
+            V = header.nextInt();
+            E = header.nextInt();
+            F = header.nextInt();
+            if (lineStart[chunks] < 1L + V + E + F) {
+                throw new RuntimeException("Graph file has fewer lines than declared.");
+            }
+            allocateColumns();
+            run(() -> IntStream.range(0, chunks).parallel().forEach(i ->
+                    parseChunk(new GraphTokenizer(map(ch, bounds[i], bounds[i + 1])), lineStart[i], lineStart[i + 1])));
+        }
+        link();
+        return true;
+    }
+
+    private void run(Runnable task) {
+        try {
+            pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static ByteBuffer map(FileChannel ch, long from, long to) {
+        try {
+            return ch.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return boundaries b[0] = 0 < b[1] < ... < b[k] = size, each b[i] (0 < i < k) is right after a '\n'
+     */
+    private static long[] splitByLines(FileChannel ch, long size, int chunks) throws IOException {
+        chunks = (int) Math.max(chunks, size / MAX_CHUNK + 1);
+        long[] bounds = new long[chunks + 1];
+        int k = 0;
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        for (int i = 1; i < chunks; i++) {
+            long pos = Math.max(size / chunks * i, bounds[k]);
+            // advance to the byte after the next line break
+            boolean found = false;
+            while (!found && pos < size) {
+                window.clear();
+                int n = ch.read(window, pos);
+                for (int j = 0; j < n; j++) {
+                    if (window.get(j) == '\n') {
+                        pos += j + 1;
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) pos += n;
+            }
+            if (pos > bounds[k] && pos < size) bounds[++k] = pos;
+        }
+        bounds[++k] = size;
+        long[] result = new long[k + 1];
+        System.arraycopy(bounds, 0, result, 0, k + 1);
+        return result;
+    }
+
+    private static long countLines(ByteBuffer buf, boolean last) {
+        long lines = 0;
+        int n = buf.limit();
+        for (int i = 0; i < n; i++) {
+            if (buf.get(i) == '\n') lines++;
+        }
+        if (last && n > 0 && buf.get(n - 1) != '\n') lines++;
+        return lines;
+    }
+
+    private void allocateColumns() {
+        vID = new int[V];
+        vX = new float[V];
+        vY = new float[V];
+        vWeight = new double[V];
+        dID = new int[E];
+        dRev = new int[E];
+        dTail = new int[E];
+        dHead = new int[E];
+        dWeight = new double[E];
+        dCapacity = new double[E];
+        fID = new int[F];
+        fDarts = new int[F][];
+        fX = new float[F];
+        fY = new float[F];
+        fHasCoord = new boolean[F];
+        fHasWeight = new boolean[F];
+        fWeight = new double[F];
+    }
+
+    /**
+     * parse lines [from, to) of the file, the record type of each line is determined by its line number
+     */
+    private void parseChunk(GraphTokenizer in, long from, long to) {
+        for (long line = from; line < to; line++, in.nextLine()) {
+            if (line == 0) continue;
+            long k = line - 1;
+            if (k < V) {
+                int i = (int) k;
+                vID[i] = in.nextInt();
+                vX[i] = in.nextFloat();
+                vY[i] = in.nextFloat();
+                vWeight[i] = in.hasNextOnLine() ? in.nextDouble() : 1.0;
+                continue;
+            }
+            k -= V;
+            if (k < E) {
+                int i = (int) k;
+                dID[i] = in.nextInt();
+                dRev[i] = in.nextInt();
+                dTail[i] = in.nextInt();
+                dHead[i] = in.nextInt();
+                dWeight[i] = in.hasNextOnLine() ? in.nextDouble() : 1.0;
+                dCapacity[i] = in.hasNextOnLine() ? in.nextDouble() : 1.0;
+                continue;
+            }
+            k -= E;
+            if (k < F) {
+                int i = (int) k;
+                fID[i] = in.nextInt();
+                if (!in.hasNextOnLine())
+                    throw new RuntimeException("Wrong format for face information.");
+                int degree = in.nextInt();
+                if (!in.hasNextOnLine())
+                    throw new RuntimeException("Wrong format for face information.");
+                int[] darts = new int[degree];
+                for (int j = 0; j < degree; j++) darts[j] = in.nextInt();
+                fDarts[i] = darts;
+                if (in.hasNextOnLine()) {
+                    fX[i] = in.nextFloat();
+                    // must provide coordY if coordX is provided
+                    if (!in.hasNextOnLine())
+                        throw new RuntimeException("Must provide coordY if coordX is provided.");
+                    fY[i] = in.nextFloat();
+                    fHasCoord[i] = true;
+                }
+                if (in.hasNextOnLine()) {
+                    fWeight[i] = in.nextDouble();
+                    fHasWeight[i] = true;
+                }
+            }
+        }
+    }
+
+    private void link() {
+        verticesArr = new Vertex[V];
+        Dart[] dartsArr = new Dart[E];
+        facesArr = new Vertex[F];
+
+        run(() -> IntStream.range(0, V).parallel().forEach(i ->
+                verticesArr[vID[i]] = new Vertex(vID[i], Vertex.VERTEX, vX[i], vY[i], vWeight[i])));
+        run(() -> IntStream.range(0, E).parallel().forEach(i ->
+                dartsArr[dID[i]] = new Dart(dID[i], verticesArr[dTail[i]], verticesArr[dHead[i]], dWeight[i], dCapacity[i])));
+
+        // first dart of each vertex: the dart on the first line with that tail, as in the sequential loader
+        for (int i = 0; i < E; i++) {
+            Vertex t = verticesArr[dTail[i]];
+            if (t.getDegree() == 0) t.initDart(dartsArr[dID[i]]);
+        }
+
+        int[] revOf = new int[E];
+        run(() -> IntStream.range(0, E).parallel().forEach(i -> revOf[dID[i]] = dRev[i]));
+        run(() -> IntStream.range(0, E).parallel().forEach(id -> {
+            if (revOf[revOf[id]] != id)
+                throw new RuntimeException("The other dart has a different reverse dart.");
+            dartsArr[id].setReverse(dartsArr[revOf[id]]);
+        }));
+
+        // face cycles, each dart is on exactly one face
+        run(() -> IntStream.range(0, F).parallel().forEach(i -> {
+            int[] darts = fDarts[i];
+            Vertex face = new Vertex(fID[i], Vertex.FACE);
+            float coordX = 0, coordY = 0;
+            Dart cur = dartsArr[darts[0]];
+            coordX += cur.getTail().getCoordX();
+            coordY += cur.getTail().getCoordY();
+            face.initDart(cur);
+            for (int j = 1; j < darts.length; j++) {
+                Dart next = dartsArr[darts[j]];
+                face.incrementDegree();
+                cur.setNext(next);
+                next.setPrev(cur);
+                cur.setRight(face);
+                cur = next;
+                coordX += cur.getTail().getCoordX();
+                coordY += cur.getTail().getCoordY();
+            }
+            cur.setNext(face.getFirstDart());
+            face.getFirstDart().setPrev(cur);
+            cur.setRight(face);
+            if (fHasCoord[i]) {
+                coordX = fX[i];
+                coordY = fY[i];
+            } else {
+                coordX /= darts.length;
+                coordY /= darts.length;
+            }
+            face.setCoordX(coordX);
+            face.setCoordY(coordY);
+            if (fHasWeight[i]) face.setWeight(fWeight[i]);
+            facesArr[i] = face;
+        }));
+
+        // rotation systems, each dart leaves exactly one vertex
+        run(() -> IntStream.range(0, V).parallel().forEach(i -> {
+            Vertex v = verticesArr[i];
+            Dart cur = v.getFirstDart();
+            Dart succ = cur.getReverse().getNext();
+            while (succ != v.getFirstDart()) {
+                cur.setSuccessor(succ);
+                cur.setLeft(succ.getRight());
+                succ.setPredecessor(cur);
+                v.incrementDegree();
+                cur = succ;
+                succ = succ.getReverse().getNext();
+            }
+            cur.setSuccessor(succ);
+            cur.setLeft(succ.getRight());
+            succ.setPredecessor(cur);
+        }));
+    }
+}
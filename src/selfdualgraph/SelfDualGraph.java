@@ -20,6 +20,12 @@ public class SelfDualGraph {
     private Map<Integer, Vertex> idToFace;
     private Set<Vertex> boundary;
 
+    // dense indices of vertices, faces and darts, see ensureIndex()
+    private Vertex[] vertexAt, faceAt;
+    private Dart[] dartAt;
+    private boolean indexValid;
+    private int indexVersion;
+
     public SelfDualGraph(int V, int E, int F) {
         vertices = new HashSet<>(V);
         faces = new HashSet<>(F);
@@ -33,17 +39,53 @@ public class SelfDualGraph {
 
     /**
      * Build self-dual planar graph from given file
-     * file format see input_format.txt
+     * file format see input_format.txt, the file may be gzip-compressed
      *
      * @param fileName
      * @throws FileNotFoundException
      */
     public void buildGraph(String fileName) throws FileNotFoundException {
-        Scanner graphInput = new Scanner(new File(fileName));
+        try (GraphTokenizer in = GraphTokenizer.open(fileName)) {
+            buildGraph(in);
+        }
+    }
+
+    /**
+     * Build self-dual planar graph from given file using multiple threads, see ParallelGraphLoader
+     * the result is identical to buildGraph(fileName)
+     *
+     * @param fileName
+     * @param threads
+     * @throws IOException
+     */
+    public void buildGraphParallel(String fileName, int threads) throws IOException {
+        indexValid = false;
+        ParallelGraphLoader loader = new ParallelGraphLoader(threads);
+        if (!loader.load(fileName)) {
+            buildGraph(fileName);
+            return;
+        }
+        if (vertices.isEmpty()) vertices = new HashSet<>(2 * loader.verticesArr.length);
+        if (faces.isEmpty()) faces = new HashSet<>(2 * loader.facesArr.length);
+        Collections.addAll(vertices, loader.verticesArr);
+        Collections.addAll(faces, loader.facesArr);
+    }
+
+    /**
+     * Build self-dual planar graph from a tokenized text graph
+     * file format see input_format.txt
+     *
+     * @param graphInput
+     */
+    public void buildGraph(GraphTokenizer graphInput) {
+        indexValid = false;
         int V = graphInput.nextInt();
         int E = graphInput.nextInt();
         int F = graphInput.nextInt();
         graphInput.nextLine();
+        // avoid re-hashing while the sets grow
+        if (vertices.isEmpty()) vertices = new HashSet<>(2 * V);
+        if (faces.isEmpty()) faces = new HashSet<>(2 * F);
 
         Vertex[] verticesArr = new Vertex[V];
         Dart[] dartsArr = new Dart[E];
@@ -51,27 +93,27 @@ public class SelfDualGraph {
 
         // read and create all vertices
         for (int i = 0; i < V; i++) {
-            String[] content = graphInput.nextLine().split("\\s+");
-            int id = Integer.parseInt(content[0]);
-            float coordX = Float.parseFloat(content[1]);
-            float coordY = Float.parseFloat(content[2]);
-            double weight = content.length > 3 ? Double.parseDouble(content[3]) : 1.0;
+            int id = graphInput.nextInt();
+            float coordX = graphInput.nextFloat();
+            float coordY = graphInput.nextFloat();
+            double weight = graphInput.hasNextOnLine() ? graphInput.nextDouble() : 1.0;
+            graphInput.nextLine();
             verticesArr[id] = new Vertex(id, Vertex.VERTEX, coordX, coordY, weight);
             vertices.add(verticesArr[id]);
         }
 
         // read and create all darts
         for (int i = 0; i < E; i++) {
-            String[] content = graphInput.nextLine().split("\\s+");
-            int id = Integer.parseInt(content[0]);
-            dartRev[id] = Integer.parseInt(content[1]);
-            int t = Integer.parseInt(content[2]);
-            int h = Integer.parseInt(content[3]);
-            double weight = content.length > 4 ? Double.parseDouble(content[4]) : 1.0;
-            double capacity = content.length > 5 ? Double.parseDouble(content[5]) : 1.0;
+            int id = graphInput.nextInt();
+            dartRev[id] = graphInput.nextInt();
+            int t = graphInput.nextInt();
+            int h = graphInput.nextInt();
+            double weight = graphInput.hasNextOnLine() ? graphInput.nextDouble() : 1.0;
+            double capacity = graphInput.hasNextOnLine() ? graphInput.nextDouble() : 1.0;
+            graphInput.nextLine();
             dartsArr[id] = new Dart(id, verticesArr[t], verticesArr[h], weight, capacity);
             if (verticesArr[t].getDegree() == 0) {
-                verticesArr[t].initDart(dartsArr[i]);
+                verticesArr[t].initDart(dartsArr[id]);
             }
         }
 
@@ -85,19 +127,20 @@ public class SelfDualGraph {
 
         // read all faces and set incident darts: next, prev, right
         for (int i = 0; i < F; i++) {
-            String[] content = graphInput.nextLine().split("\\s+");
-            if (content.length < 3)
+            Vertex face = new Vertex(graphInput.nextInt(), Vertex.FACE);
+            if (!graphInput.hasNextOnLine())
+                throw new RuntimeException("Wrong format for face information.");
+            int degree = graphInput.nextInt();
+            if (!graphInput.hasNextOnLine())
                 throw new RuntimeException("Wrong format for face information.");
-            Vertex face = new Vertex(Integer.parseInt(content[0]), Vertex.FACE);
             float coordX = 0, coordY = 0;
-            int degree = Integer.parseInt(content[1]);
-            Dart cur = dartsArr[Integer.parseInt(content[2])];
+            Dart cur = dartsArr[graphInput.nextInt()];
             coordX += cur.getTail().getCoordX();
             coordY += cur.getTail().getCoordY();
             face.initDart(cur);
             // read all incidental darts of given face
             for (int j = 1; j < degree; j++) {
-                Dart next = dartsArr[Integer.parseInt(content[j + 2])];
+                Dart next = dartsArr[graphInput.nextInt()];
                 face.incrementDegree();
                 cur.setNext(next);
                 next.setPrev(cur);
@@ -110,21 +153,22 @@ public class SelfDualGraph {
             face.getFirstDart().setPrev(cur);
             cur.setRight(face);
 
-            if (content.length > degree + 2) {
+            if (graphInput.hasNextOnLine()) {
+                coordX = graphInput.nextFloat();
                 // must provide coordY if coordX is provided
-                if (content.length <= degree + 3)
+                if (!graphInput.hasNextOnLine())
                     throw new RuntimeException("Must provide coordY if coordX is provided.");
-                coordX = Float.parseFloat(content[degree + 2]);
-                coordY = Float.parseFloat(content[degree + 3]);
+                coordY = graphInput.nextFloat();
             } else {
                 coordX /= degree;
                 coordY /= degree;
             }
             face.setCoordX(coordX);
             face.setCoordY(coordY);
-            if (content.length > degree + 4) {
-                face.setWeight(Double.parseDouble(content[degree + 4]));
+            if (graphInput.hasNextOnLine()) {
+                face.setWeight(graphInput.nextDouble());
             }
+            graphInput.nextLine();
             faces.add(face);
         }
 
@@ -147,6 +191,57 @@ public class SelfDualGraph {
         }
     }
 
+    /**
+     * Build self-dual planar graph from an array-backed graph
+     * all pointers are copied from the columns, no re-linking is needed
+     *
+     * @param cg
+     */
+    public void buildGraph(CompactGraph cg) {
+        indexValid = false;
+        int V = cg.getVertexNum();
+        int D = cg.getDartNum();
+        int F = cg.getFaceNum();
+        Vertex[] verticesArr = new Vertex[V];
+        Vertex[] facesArr = new Vertex[F];
+        Dart[] dartsArr = new Dart[D];
+
+        for (int i = 0; i < V; i++) {
+            verticesArr[i] = new Vertex(cg.getVertexID(i), Vertex.VERTEX,
+                    cg.getCoordX(i), cg.getCoordY(i), cg.getVertexWeight(i));
+            vertices.add(verticesArr[i]);
+        }
+        for (int i = 0; i < F; i++) {
+            facesArr[i] = new Vertex(cg.getFaceID(i), Vertex.FACE,
+                    cg.getFaceCoordX(i), cg.getFaceCoordY(i), cg.getFaceWeight(i));
+            faces.add(facesArr[i]);
+        }
+        for (int i = 0; i < D; i++) {
+            dartsArr[i] = new Dart(cg.getDartID(i), verticesArr[cg.getTail(i)], verticesArr[cg.getHead(i)],
+                    cg.getWeight(i), cg.getCapacity(i));
+        }
+        for (int i = 0; i < D; i++) {
+            Dart d = dartsArr[i];
+            d.setReverse(dartsArr[cg.getReverse(i)]);
+            d.setNext(dartsArr[cg.getNext(i)]);
+            d.setPrev(dartsArr[cg.getPrev(i)]);
+            d.setSuccessor(dartsArr[cg.getSuccessor(i)]);
+            d.setPredecessor(dartsArr[cg.getPredecessor(i)]);
+            if (cg.getRight(i) >= 0) d.setRight(facesArr[cg.getRight(i)]);
+            if (cg.getLeft(i) >= 0) d.setLeft(facesArr[cg.getLeft(i)]);
+        }
+        for (int i = 0; i < V; i++) {
+            if (cg.getDegree(i) == 0) continue;
+            verticesArr[i].initDart(dartsArr[cg.getFirstDart(i)]);
+            verticesArr[i].incrementDegree(cg.getDegree(i) - 1);
+        }
+        for (int i = 0; i < F; i++) {
+            if (cg.getFaceDegree(i) == 0) continue;
+            facesArr[i].initDart(dartsArr[cg.getFaceFirstDart(i)]);
+            facesArr[i].incrementDegree(cg.getFaceDegree(i) - 1);
+        }
+    }
+
 
     public int getVertexNum() {
         return vertices.size();
@@ -179,6 +274,7 @@ public class SelfDualGraph {
      * @param d: user should make sure d is NOT be a bridge, otherwise G will be disconnected
      */
     public void deleteEdge(Dart d) {
+        indexValid = false;
         if (d.getHead() == d.getTail()) {
             deleteLoop(d);
             return;
@@ -231,6 +327,7 @@ public class SelfDualGraph {
      * @param d
      */
     public void deleteLoop(Dart d) {
+        indexValid = false;
         Vertex faceToKeep, faceToDelete;
         if (d.getLeft().getDegree() == 1) {
             faceToDelete = d.getLeft();
@@ -313,6 +410,7 @@ public class SelfDualGraph {
         if (d.getHead() == d.getTail()) {
             throw new RuntimeException("Contraction is not well defined on a self-loop dart!");
         }
+        indexValid = false;
         if (d.getLeft() == d.getRight()) {
             return contractBridge(d);
         }
@@ -473,6 +571,7 @@ public class SelfDualGraph {
         if (tail.getRight() != head.getRight()) {
             throw new RuntimeException("Given darts must have the same face on their right, adding self-loop is NOT supported");
         }
+        indexValid = false;
         // create a new face and set its degree
         head.getRight().setDart(head);
         Vertex newFace = new Vertex(Vertex.FACE);
@@ -551,7 +650,8 @@ public class SelfDualGraph {
     public void adjustFirstDartOfFace(Vertex face) {
         Set<Vertex> good = new HashSet<>();
         Set<Vertex> bad = new HashSet<>();
-        for (Dart d : face.getIncidenceList()) {
+        Dart d = face.getFirstDart();
+        for (int i = 0; i < face.getDegree(); i++, d = d.getNext()) {
             Vertex v = d.getTail();
             if (bad.contains(v))
                 continue;
@@ -566,7 +666,8 @@ public class SelfDualGraph {
         if (good.size() < 1) {
             throw new RuntimeException("Could NOT find a incident vertex with (face-incidental) degree 2");
         }
-        for (Dart d : face.getIncidenceList()) {
+        d = face.getFirstDart();
+        for (int i = 0; i < face.getDegree(); i++, d = d.getNext()) {
             if (good.contains(d.getTail())) {
                 face.setDart(d);
                 return;
@@ -576,55 +677,63 @@ public class SelfDualGraph {
 
     /**
      * save the current planar graph to test file, for future read and re-use
+     * a file name ending with ".gz" is gzip-compressed
      *
      * @param fileName
      * @throws FileNotFoundException
      */
     public void saveToFile(String fileName) throws FileNotFoundException {
-        PrintWriter out = new PrintWriter(fileName);
-        int vNum = vertices.size();
-        int fNum = faces.size();
-        int eNum = 0;
-        for (Vertex face : faces) {
-            eNum += face.getDegree();
-        }
-        out.printf("%d %d %d\n", vNum, eNum, fNum);
-        List<Vertex> vList = new ArrayList<>(vertices);
-        vList.sort(null);
+        saveToFile(fileName, fileName.endsWith(".gz"));
+    }
 
-        for (Vertex v : vList) {
-            out.printf("%d %f %f %f\n", v.getID(), v.getCoordX(), v.getCoordY(), v.getWeight());
-        }
-        for (Vertex v : vList) {
-            for (Dart d : v.getIncidenceList()) {
-                out.printf("%d %d %d %d %f %f\n", d.getID(), d.getReverse().getID(), d.getTail().getID(), d.getHead().getID(), d.getWeight(), d.getCapacity());
-            }
+    /**
+     * save the current planar graph to test file, see GraphWriter
+     *
+     * @param fileName
+     * @param gzip     compress the output
+     * @throws FileNotFoundException
+     */
+    public void saveToFile(String fileName, boolean gzip) throws FileNotFoundException {
+        try (GraphWriter out = new GraphWriter(fileName, gzip)) {
+            out.writeGraph(this);
         }
+    }
 
-        List<Vertex> fList = new ArrayList<>(faces);
-        fList.sort(null);
-        for (Vertex f : fList) {
-            StringBuilder sb = new StringBuilder(String.format("%d %d", f.getID(), f.getDegree()));
-            for (Dart d : f.getIncidenceList()) {
-                sb.append(String.format(" %d", d.getID()));
-            }
-            sb.append(String.format(" %f %f %f\n", f.getCoordX(), f.getCoordX(), f.getWeight()));
-            out.print(sb.toString());
-        }
-        out.close();
+    /**
+     * save the current planar graph in binary format, much faster to load than the text format
+     * see BinaryGraphFormat for the layout
+     *
+     * @param fileName
+     * @throws IOException
+     */
+    public void saveBinary(String fileName) throws IOException {
+        new CompactGraph(this).saveBinary(fileName);
+    }
+
+    /**
+     * Build self-dual planar graph from a file written by saveBinary()
+     *
+     * @param fileName
+     * @throws IOException
+     */
+    public void buildGraphFromBinary(String fileName) throws IOException {
+        buildGraph(CompactGraph.loadBinary(fileName));
     }
 
     /**
      * re-numbering all vertices, darts, faces IDs
      * keep all positive IDs, find the maximum
      * all negative IDs take absolute value and add previous maximum to it
+     * hash codes keep the IDs given at construction, so hash sets of vertices and darts stay valid
      */
     public void renumberIDs() {
+        indexValid = false;
         int vID = 0;
         int dID = 0;
         for (Vertex v : vertices) {
             v.setID(vID++);
-            for (Dart d : v.getIncidenceList()) {
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
                 d.setID(dID++);
             }
         }
@@ -632,6 +741,8 @@ public class SelfDualGraph {
         for (Vertex f : faces) {
             f.setID(fID++);
         }
+        idToVertex = null;
+        idToFace = null;
     }
 
     /**
@@ -640,6 +751,7 @@ public class SelfDualGraph {
      * @param face
      */
     public Vertex addVertex(Vertex face) {
+        indexValid = false;
         Vertex vertex = new Vertex(Vertex.VERTEX);
         vertices.add(vertex);
 
@@ -685,15 +797,76 @@ public class SelfDualGraph {
         // set every vertex, face, dart to be unvisited
         for (Vertex v : vertices) {
             v.setVisited(false);
-            for (Dart d : v.getIncidenceList()) {
-                d.setVisited(false);
-            }
+            v.forEachDart(d -> d.setVisited(false));
         }
         for (Vertex f : faces) {
             f.setVisited(false);
         }
     }
 
+    /**
+     * snapshots of the graph, such as a CompactGraph, compare versions to tell whether they are stale
+     *
+     * @return version of the graph, changes after vertices, faces or darts are added, removed or renumbered
+     */
+    public int getVersion() {
+        return ensureIndex();
+    }
+
+    /**
+     * assign dense indices to all vertices, faces and darts, which stay valid until the graph is modified
+     * vertices and faces are numbered separately, darts are numbered in incidence order of their tail
+     *
+     * @return version of the current indices, changes every time the graph is re-indexed
+     */
+    synchronized int ensureIndex() {
+        if (indexValid) return indexVersion;
+        vertexAt = vertices.toArray(new Vertex[0]);
+        faceAt = faces.toArray(new Vertex[0]);
+        int dartNum = 0;
+        for (int i = 0; i < vertexAt.length; i++) {
+            vertexAt[i].index = i;
+            dartNum += vertexAt[i].getDegree();
+        }
+        for (int i = 0; i < faceAt.length; i++) faceAt[i].index = i;
+        dartAt = new Dart[dartNum];
+        int k = 0;
+        for (Vertex v : vertexAt) {
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+                d.index = k;
+                dartAt[k++] = d;
+            }
+        }
+        indexValid = true;
+        return ++indexVersion;
+    }
+
+    int getVertexIndexSize() {
+        return vertexAt.length;
+    }
+
+    int getDartIndexSize() {
+        return dartAt.length;
+    }
+
+    int getFaceIndexSize() {
+        return faceAt.length;
+    }
+
+    boolean isIndexed(Vertex v) {
+        int i = v.index;
+        return i >= 0 && i < vertexAt.length && vertexAt[i] == v;
+    }
+
+    int indexOf(Vertex v) {
+        int i = v.index;
+        if (!isIndexed(v)) {
+            throw new RuntimeException(String.format("%s is not a vertex of this graph", v));
+        }
+        return i;
+    }
+
     /**
      * clone a part of subgraph
      *
@@ -702,62 +875,80 @@ public class SelfDualGraph {
      * @return
      */
     public SelfDualGraph cloneSubgraph(Map<Vertex, Vertex> vMap, Set<Vertex> subB) {
-        Set<Vertex> subgraphV = vMap.keySet();
-        SelfDualGraph subgraph = new SelfDualGraph();
-        Map<Vertex, Vertex> fMap = new HashMap<>();
-        Map<Dart, Dart> dMap = new HashMap<>();
+        ensureIndex();
+        Vertex[] vImg = new Vertex[vertexAt.length];
+        for (Map.Entry<Vertex, Vertex> e : vMap.entrySet()) vImg[indexOf(e.getKey())] = e.getValue();
+        return cloneSubgraph(vMap.keySet(), vImg, subB);
+    }
+
+    /**
+     * single pass over the incidence lists of the subgraph vertices, old objects are mapped to new ones by their
+     * dense index, faces not entirely inside the subgraph are left null on the darts
+     *
+     * @param subgraphV
+     * @param vImg      new vertex of each old vertex by index, null if not in subgraph
+     * @param subB
+     * @return
+     */
+    private SelfDualGraph cloneSubgraph(Collection<Vertex> subgraphV, Vertex[] vImg, Set<Vertex> subB) {
+        SelfDualGraph subgraph = new SelfDualGraph(subgraphV.size(), 0, subgraphV.size());
+        Dart[] dImg = new Dart[dartAt.length];
+        Vertex[] fImg = new Vertex[faceAt.length];
+        int[] keptOnFace = new int[faceAt.length];
+        List<Dart> kept = new ArrayList<>();
+
+        // copy darts with both endpoints in subgraph, successor & predecessor skip the removed darts
         for (Vertex v : subgraphV) {
-            Vertex v2 = vMap.get(v);
+            Vertex v2 = vImg[v.index];
             subgraph.vertices.add(v2);
-            for (Dart d : v.getIncidenceList()) {
-                if (subgraphV.contains(d.getHead())) dMap.put(d, new Dart(d));
+            Dart first2 = null, last2 = null;
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+                Vertex head2 = vImg[d.getHead().index];
+                if (head2 == null) continue;
+                Dart d2 = new Dart(d);
+                d2.setTail(v2);
+                d2.setHead(head2);
+                dImg[d.index] = d2;
+                kept.add(d);
+                keptOnFace[d.getRight().index]++;
+                v2.incrementDegree();
+                if (first2 == null) first2 = d2;
+                else {
+                    last2.setSuccessor(d2);
+                    d2.setPredecessor(last2);
+                }
+                last2 = d2;
             }
-        }
-        for (Vertex f : faces) {
-            if (isInSubgraph(f, dMap)) {
-                Vertex f2 = new Vertex(f);
-                f2.incrementDegree(f.getDegree());
-                subgraph.faces.add(f2);
-                fMap.put(f, f2);
+            if (first2 != null) {
+                last2.setSuccessor(first2);
+                first2.setPredecessor(last2);
             }
+            v2.setDart(first2);
         }
-        for (Vertex v : subB) subgraph.boundary.add(vMap.get(v));
-
-        // set darts for vertices and faces
-        for (Vertex v : vMap.keySet()) {
-            Vertex v2 = vMap.get(v);
-            Dart first = v.getFirstDart();
-            while (!dMap.containsKey(first)) first = first.getSuccessor();
-            v2.setDart(dMap.get(first));
-        }
-        for (Vertex f : fMap.keySet()) {
-            Vertex f2 = fMap.get(f);
-            Dart first = f.getFirstDart();
-            while (!dMap.containsKey(first)) first = first.getNext();
-            f2.setDart(dMap.get(first));
-        }
-        // set pointers for darts
-        for (Dart d : dMap.keySet()) {
-            Dart d2 = dMap.get(d);
-            d2.setTail(vMap.get(d.getTail()));
-            d2.setHead(vMap.get(d.getHead()));
-            d2.setReverse(dMap.get(d.getReverse()));
-            d2.getTail().incrementDegree();
-            // successor & predecessor
-            Dart succ = d.getSuccessor();
-            while (!dMap.containsKey(succ)) succ = succ.getSuccessor();
-            d2.setSuccessor(dMap.get(succ));
-            Dart pred = d.getPredecessor();
-            while (!dMap.containsKey(pred)) pred = pred.getPredecessor();
-            d2.setPredecessor(dMap.get(pred));
+        // a face is kept iff all its darts are kept
+        for (Dart d : kept) {
+            Vertex f = d.getRight();
+            if (fImg[f.index] != null || keptOnFace[f.index] != f.getDegree()) continue;
+            Vertex f2 = new Vertex(f);
+            f2.incrementDegree(f.getDegree());
+            f2.setDart(dImg[f.getFirstDart().index]);
+            subgraph.faces.add(f2);
+            fImg[f.index] = f2;
         }
+        for (Vertex v : subB) subgraph.boundary.add(vImg[v.index]);
+
         // next & prev are easy when all succ and pred are set
-        for (Dart d : dMap.keySet()) {
-            Dart d2 = dMap.get(d);
+        for (Dart d : kept) {
+            Dart d2 = dImg[d.index];
+            d2.setReverse(dImg[d.getReverse().index]);
+        }
+        for (Dart d : kept) {
+            Dart d2 = dImg[d.index];
             d2.setNext(d2.getReverse().getSuccessor());
             d2.setPrev(d2.getPredecessor().getReverse());
-            d2.setLeft(fMap.getOrDefault(d.getLeft(), null));
-            d2.setRight(fMap.getOrDefault(d.getRight(), null));
+            d2.setLeft(fImg[d.getLeft().index]);
+            d2.setRight(fImg[d.getRight().index]);
         }
 
         return subgraph;
@@ -771,49 +962,55 @@ public class SelfDualGraph {
      * @return
      */
     public SelfDualGraph buildSubgraph(Set<Vertex> subgraphV) {
-        Set<Vertex> subB = findBoundary(subgraphV);
-        // map old vertices to new vertices
-        Map<Vertex, Vertex> vMap = new HashMap<>();
+        return buildSubgraph((Collection<Vertex>) subgraphV);
+    }
+
+    SelfDualGraph buildSubgraph(Collection<Vertex> subgraphV) {
+        ensureIndex();
+        // map old vertices to new vertices by index
+        Vertex[] vImg = new Vertex[vertexAt.length];
+        for (Vertex v : subgraphV) vImg[indexOf(v)] = new Vertex(v);
+        // boundary: vertices on the boundary of this graph, or with a neighbor outside subgraph
+        Set<Vertex> subB = new HashSet<>();
         for (Vertex v : subgraphV) {
-            Vertex v2 = new Vertex(v);
-            vMap.put(v, v2);
+            if (boundary.contains(v)) {
+                subB.add(v);
+                continue;
+            }
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+                if (vImg[d.getHead().index] == null) {
+                    subB.add(v);
+                    break;
+                }
+            }
         }
 
-        SelfDualGraph subgraph = cloneSubgraph(vMap, subB);
+        SelfDualGraph subgraph = cloneSubgraph(subgraphV, vImg, subB);
 
         // examine all boundary darts and create boundary faces
-        for (Vertex v2 : subgraph.getVertices()) {
-            for (Dart d2 : v2.getIncidenceList()) {
-                if (d2.getRight() == null) {
-                    Vertex f = new Vertex(Vertex.FACE);
-                    subgraph.faces.add(f);
-                    f.setDart(d2);
-                    while (d2.getRight() == null) {
-                        d2.setRight(f);
-                        d2.getReverse().setLeft(f);
-                        f.incrementDegree();
-                        d2 = d2.getNext();
-                    }
-                    // assign min-ID dart to be firstDart, for testing purpose
-                    Dart first = f.getFirstDart();
-                    for (Dart d : f.getIncidenceList())
-                        if (first.getID() < 0 ||
-                                (d.getID() >= 0 && d.getID() < first.getID())) first = d;
-                    f.setDart(first);
+        for (Vertex v2 : subgraph.vertices) {
+            Dart d2 = v2.getFirstDart();
+            for (int i = 0; i < v2.getDegree(); i++, d2 = d2.getSuccessor()) {
+                if (d2.getRight() != null) continue;
+                Vertex f = new Vertex(Vertex.FACE);
+                subgraph.faces.add(f);
+                // assign min-ID dart to be firstDart, for testing purpose
+                Dart first = d2;
+                Dart d = d2;
+                while (d.getRight() == null) {
+                    d.setRight(f);
+                    d.getReverse().setLeft(f);
+                    f.incrementDegree();
+                    if (first.getID() < 0 || (d.getID() >= 0 && d.getID() < first.getID())) first = d;
+                    d = d.getNext();
                 }
+                f.setDart(first);
             }
         }
         return subgraph;
     }
 
-    private boolean isInSubgraph(Vertex face, Map<Dart, Dart> dMap) {
-        if (face.type != Vertex.FACE) throw new RuntimeException("Func only applies to faces");
-        for (Dart d : face.getIncidenceList()) {
-            if (!dMap.containsKey(d)) return false;
-        }
-        return true;
-    }
-
     /**
      * use BFS to detect boundary of a subgraph
      *
@@ -831,7 +1028,8 @@ public class SelfDualGraph {
             while (!q.isEmpty()) {
                 Vertex v = q.poll();
                 if (this.boundary.contains(v)) boundary.add(v);
-                for (Dart d : v.getIncidenceList()) {
+                Dart d = v.getFirstDart();
+                for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
                     Vertex u = d.getHead();
                     if (!subgraph.contains(u)) boundary.add(v);
                     else if (!u.isVisited()) {
@@ -844,6 +1042,10 @@ public class SelfDualGraph {
         return boundary;
     }
 
+    boolean isOnBoundary(Vertex v) {
+        return boundary.contains(v);
+    }
+
     public int getBoundarySize() {
         return boundary.size();
     }
@@ -916,7 +1118,8 @@ public class SelfDualGraph {
             if (!boundary.contains(v)) v.setWeight(0);
             else {  // v is on the boundary
                 v.setWeight(1);
-                for (Dart d : v.getIncidenceList()) {
+                Dart d = v.getFirstDart();
+                for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
                     Vertex left = d.getLeft();
                     left.setWeight(1.0 / v.getDegree() + left.getWeight());
                 }
@@ -0,0 +1,220 @@
+package selfdualgraph;
+
+import java.util.*;
+
+/**
+ * Read-only view of an induced subgraph, without copying vertices, darts or faces
+ * <p>
+ * Membership is a bitmap over the dense vertex indices of the parent graph.
+ * The view's incidence list of v is the parent's, restricted to darts whose head is in the view,
+ * next(d) in the view is successor(rev(d)) in the view, exactly as in the graph built by buildSubgraph().
+ * Faces of the parent not entirely inside the view are replaced by synthesized boundary faces.
+ * <p>
+ * A view is only valid as long as its parent is not modified,
+ * call materialize() to get a SelfDualGraph that can be modified (e.g. triangulated).
+ */
+public class SubgraphView {
+    private final SelfDualGraph parent;
+    private final Vertex[] members;
+    private final BitSet inView;
+    private final boolean whole;
+    private final int version;
+    private Set<Vertex> boundary;
+
+    /**
+     * view of the whole graph
+     *
+     * @param parent
+     */
+    public SubgraphView(SelfDualGraph parent) {
+        this(parent, parent.getVertices(), true);
+    }
+
+    /**
+     * @param parent
+     * @param vertices all vertices are object of parent
+     */
+    public SubgraphView(SelfDualGraph parent, Set<Vertex> vertices) {
+        this(parent, vertices, false);
+    }
+
+    private SubgraphView(SelfDualGraph parent, Set<Vertex> vertices, boolean whole) {
+        this.parent = parent;
+        this.whole = whole;
+        version = parent.ensureIndex();
+        members = vertices.toArray(new Vertex[0]);
+        inView = new BitSet(parent.getVertexIndexSize());
+        for (Vertex v : members) inView.set(parent.indexOf(v));
+    }
+
+    private void checkParent() {
+        if (parent.ensureIndex() != version) {
+            throw new RuntimeException("Parent graph was modified after the view was created");
+        }
+    }
+
+    public SelfDualGraph getParent() {
+        return parent;
+    }
+
+    public int getVertexNum() {
+        return members.length;
+    }
+
+    public Set<Vertex> getVertices() {
+        return new HashSet<>(Arrays.asList(members));
+    }
+
+    public Set<Integer> getVertexIDs() {
+        Set<Integer> ids = new HashSet<>(2 * members.length);
+        for (Vertex v : members) ids.add(v.getID());
+        return ids;
+    }
+
+    /**
+     * @param v a vertex of the parent graph
+     * @return
+     */
+    public boolean contains(Vertex v) {
+        return parent.isIndexed(v) && inView(v);
+    }
+
+    private boolean inView(Vertex v) {
+        return inView.get(v.index);
+    }
+
+    /**
+     * @param v
+     * @return first dart of v in the view, null if v has no neighbor in the view
+     */
+    public Dart getFirstDart(Vertex v) {
+        Dart d = v.getFirstDart();
+        for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+            if (inView(d.getHead())) return d;
+        }
+        return null;
+    }
+
+    /**
+     * @param d a dart of the view
+     * @return the next dart leaving tail(d) in the view, in counter-clockwise order
+     */
+    public Dart getSuccessor(Dart d) {
+        Dart succ = d.getSuccessor();
+        while (!inView(succ.getHead())) succ = succ.getSuccessor();
+        return succ;
+    }
+
+    /**
+     * @param d a dart of the view
+     * @return the next dart on the boundary of the view face to the right of d
+     */
+    public Dart getNext(Dart d) {
+        return getSuccessor(d.getReverse());
+    }
+
+    public int getDegree(Vertex v) {
+        int degree = 0;
+        Dart d = v.getFirstDart();
+        for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+            if (inView(d.getHead())) degree++;
+        }
+        return degree;
+    }
+
+    /**
+     * same as parent.findBoundary(getVertices()): vertices on the boundary of the parent, or with a neighbor outside
+     *
+     * @return
+     */
+    public Set<Vertex> getBoundary() {
+        checkParent();
+        if (boundary != null) return boundary;
+        boundary = new HashSet<>();
+        if (whole) {
+            boundary.addAll(parent.getBoundary());
+            return boundary;
+        }
+        for (Vertex v : members) {
+            if (parent.isOnBoundary(v)) {
+                boundary.add(v);
+                continue;
+            }
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+                if (!inView(d.getHead())) {
+                    boundary.add(v);
+                    break;
+                }
+            }
+        }
+        return boundary;
+    }
+
+    public int getBoundarySize() {
+        return getBoundary().size();
+    }
+
+    /**
+     * @param face a face of the parent graph
+     * @return true if all darts of the face are in the view
+     */
+    public boolean isInteriorFace(Vertex face) {
+        Dart d = face.getFirstDart();
+        for (int i = 0; i < face.getDegree(); i++, d = d.getNext()) {
+            if (!inView(d.getTail())) return false;
+        }
+        return true;
+    }
+
+    /**
+     * walk the faces synthesized in place of the parent faces cut by the view, O(size of view)
+     *
+     * @return one dart on each synthesized face, walk the face with getNext()
+     */
+    public List<Dart> getBoundaryFaces() {
+        checkParent();
+        List<Dart> faces = new ArrayList<>();
+        BitSet walked = new BitSet(parent.getDartIndexSize());
+        for (Vertex v : members) {
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+                if (!inView(d.getHead()) || walked.get(d.index) || isInteriorFace(d.getRight())) continue;
+                faces.add(d);
+                Dart dd = d;
+                do {
+                    walked.set(dd.index);
+                    dd = getNext(dd);
+                } while (dd != d);
+            }
+        }
+        return faces;
+    }
+
+    /**
+     * @return number of faces of the materialized subgraph, interior faces and synthesized boundary faces
+     */
+    public int getFaceNum() {
+        checkParent();
+        BitSet interior = new BitSet(parent.getFaceIndexSize());
+        for (Vertex v : members) {
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+                Vertex f = d.getRight();
+                if (inView(d.getHead()) && !interior.get(f.index) && isInteriorFace(f)) interior.set(f.index);
+            }
+        }
+        return interior.cardinality() + getBoundaryFaces().size();
+    }
+
+    /**
+     * copy the view into a new graph, the view created by SubgraphView(parent) returns the parent itself
+     *
+     * @return
+     */
+    public SelfDualGraph materialize() {
+        checkParent();
+        if (whole) return parent;
+        return parent.buildSubgraph(Arrays.asList(members));
+    }
+}
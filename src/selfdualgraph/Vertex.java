@@ -2,6 +2,7 @@ package selfdualgraph;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Vertex is a vertex or a face in the primal graph, which is a face or a vertex in the dual graph
@@ -17,14 +18,17 @@ public class Vertex implements Comparable<Vertex>{
 
     public final String type;
     private int ID;
+    private final int hash;     // ID at construction, kept when renumberIDs() changes ID
     private float coordX, coordY;
     private double weight, distance;
     private boolean visited;
     private int degree;
     private Dart dart;  // points to an arbitrary dart with tail(d) = current vertex
+    int index = -1;     // dense index assigned by the owning SelfDualGraph
 
     public Vertex(int ID, String type, float coordX, float coordY, double weight) {
         this.ID = ID;
+        hash = ID;
         this.type = type;
         this.coordX = coordX;
         this.coordY = coordY;
@@ -37,6 +41,7 @@ public class Vertex implements Comparable<Vertex>{
 
     public Vertex (Vertex other) {
         this.ID = other.ID;
+        hash = other.ID;
         this.type = other.type;
         this.coordX = other.coordX;
         this.coordY = other.coordY;
@@ -52,6 +57,16 @@ public class Vertex implements Comparable<Vertex>{
         return this.ID - other.ID;
     }
 
+    /**
+     * hash by the ID given at construction, so hash sets of vertices iterate in the same order in every run
+     * instead of an order depending on identity hash codes; equality stays identity, a vertex and its copy
+     * are different keys. The hash does not follow setID(), so renumbering never breaks a hash set
+     */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
     public double getDistance() {
         return distance;
     }
@@ -64,7 +79,7 @@ public class Vertex implements Comparable<Vertex>{
         return ID;
     }
 
-    public void setID(int ID) {
+    void setID(int ID) {
         this.ID = ID;
     }
 
@@ -73,7 +88,16 @@ public class Vertex implements Comparable<Vertex>{
     }
 
     public Vertex(String type) {
-        this(--uniqueID, type);
+        this(nextUniqueID(), type);
+    }
+
+    /**
+     * new negative IDs may be taken from several threads, e.g. by the parallel r-division
+     *
+     * @return
+     */
+    private static synchronized int nextUniqueID() {
+        return --uniqueID;
     }
 
     public float getCoordX() {
@@ -111,6 +135,8 @@ public class Vertex implements Comparable<Vertex>{
 
     /**
      * O(degree) time
+     * allocates a new list on every call, hot loops should walk the incidence list in place:
+     * Dart d = getFirstDart(); for (int i = 0; i < getDegree(); i++, d = nextIncidentDart(d))
      *
      * @return
      */
@@ -120,11 +146,35 @@ public class Vertex implements Comparable<Vertex>{
 
         for (int i = 0; i < degree; i++) {
             list.add(d);
-            d = (type == VERTEX) ? d.getSuccessor() : d.getNext();
+            d = nextIncidentDart(d);
         }
         return list;
     }
 
+    /**
+     * rotation walk: successor(d) around a vertex, next(d) around a face
+     *
+     * @param d a dart in the incidence list of this vertex
+     * @return the dart after d in the incidence list
+     */
+    public Dart nextIncidentDart(Dart d) {
+        return (type == VERTEX) ? d.getSuccessor() : d.getNext();
+    }
+
+    /**
+     * apply action to every dart in the incidence list, in place without building a list
+     * action must not change the incidence list of this vertex
+     *
+     * @param action
+     */
+    public void forEachDart(Consumer<Dart> action) {
+        Dart d = dart;
+        for (int i = 0; i < degree; i++) {
+            action.accept(d);
+            d = nextIncidentDart(d);
+        }
+    }
+
     public int getDegree() {
         return degree;
     }
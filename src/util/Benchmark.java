@@ -0,0 +1,144 @@
+package util;
+
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Minimal micro-benchmark harness: warm-up, timed measurement, allocation per operation
+ * <p>
+ * Each invocation gets a fresh fixture from an untimed setup, so operations that modify the graph
+ * (triangulate, separators, ...) are always measured on the same input.
+ * Allocation is read from the JVM's per-thread allocation counter, like JMH's "-prof gc" norm column.
+ * Results are written as tab-separated lines, and can be compared against a previous run to gate regressions.
+ */
+public class Benchmark {
+    public static final String HEADER = "benchmark\tparams\tops\tmean (ms)\tstddev (ms)\tp50 (ms)\tp90 (ms)\tmin (ms)\talloc (bytes/op)";
+
+    private final int warmupIterations;
+    private final int measureIterations;
+    private final List<Result> results = new ArrayList<>();
+    private static volatile int sink;   // keeps results of measured operations alive
+
+    public static class Result {
+        public final String name, params;
+        public final int ops;
+        public final double mean, stddev, p50, p90, min;
+        public final long allocPerOp;
+
+        Result(String name, String params, double[] times, long allocPerOp) {
+            this.name = name;
+            this.params = params;
+            ops = times.length;
+            double[] sorted = times.clone();
+            Arrays.sort(sorted);
+            double sum = 0, sq = 0;
+            for (double t : sorted) sum += t;
+            mean = sum / ops;
+            for (double t : sorted) sq += (t - mean) * (t - mean);
+            stddev = ops > 1 ? Math.sqrt(sq / (ops - 1)) : 0;
+            p50 = sorted[(ops - 1) / 2];
+            p90 = sorted[(int) Math.ceil(0.9 * ops) - 1];
+            min = sorted[0];
+            this.allocPerOp = allocPerOp;
+        }
+
+        public String key() {
+            return name + "\t" + params;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s\t%s\t%d\t%.3f\t%.3f\t%.3f\t%.3f\t%.3f\t%d",
+                    name, params, ops, mean, stddev, p50, p90, min, allocPerOp);
+        }
+    }
+
+    public Benchmark(int warmupIterations, int measureIterations) {
+        this.warmupIterations = warmupIterations;
+        this.measureIterations = measureIterations;
+    }
+
+    /**
+     * @param name
+     * @param params  description of the input, e.g. graph family and size
+     * @param fixture untimed setup, returns the operation to be timed
+     * @return
+     */
+    public Result run(String name, String params, Supplier<Supplier<Object>> fixture) {
+        for (int i = 0; i < warmupIterations; i++) {
+            consume(fixture.get().get());
+        }
+        double[] times = new double[measureIterations];
+        long allocated = 0;
+        for (int i = 0; i < measureIterations; i++) {
+            Supplier<Object> op = fixture.get();
+            long bytes0 = allocatedBytes();
+            long start = System.nanoTime();
+            Object res = op.get();
+            long end = System.nanoTime();
+            allocated += allocatedBytes() - bytes0;
+            consume(res);
+            times[i] = (end - start) / 1000000.0;
+        }
+        Result result = new Result(name, params, times, allocated / measureIterations);
+        results.add(result);
+        System.out.println(result);
+        return result;
+    }
+
+    private static void consume(Object o) {
+        sink += System.identityHashCode(o);
+    }
+
+    /**
+     * @return bytes allocated by the current thread so far, 0 if the JVM does not support it
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public void save(String fileName) throws FileNotFoundException {
+        PrintWriter out = new PrintWriter(fileName);
+        out.println(HEADER);
+        for (Result r : results) out.println(r);
+        out.close();
+    }
+
+    /**
+     * compare mean times against a file written by save()
+     *
+     * @param baselineFile
+     * @param tolerance    allowed slowdown, e.g. 0.1 for 10%
+     * @return names of benchmarks that regressed
+     * @throws FileNotFoundException
+     */
+    public List<String> findRegressions(String baselineFile, double tolerance) throws FileNotFoundException {
+        Map<String, Double> baseline = new HashMap<>();
+        Scanner in = new Scanner(new File(baselineFile));
+        in.nextLine();
+        while (in.hasNextLine()) {
+            String[] content = in.nextLine().split("\t");
+            if (content.length < 4) continue;
+            baseline.put(content[0] + "\t" + content[1], Double.parseDouble(content[3]));
+        }
+        in.close();
+        List<String> regressions = new ArrayList<>();
+        for (Result r : results) {
+            Double base = baseline.get(r.key());
+            if (base == null) continue;
+            System.out.printf("%s\t%s\t%.3f -> %.3f ms\t%+.1f%%\n", r.name, r.params, base, r.mean, 100 * (r.mean / base - 1));
+            if (r.mean > base * (1 + tolerance)) regressions.add(r.key());
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,229 @@
+package util;
+
+import algorithms.DistanceOracle.*;
+import algorithms.RDivision.*;
+import algorithms.RootFinder.*;
+import algorithms.SSSP.*;
+import algorithms.Separator.*;
+import selfdualgraph.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Benchmark suite of the core planar algorithms over the input_data graph families
+ * <p>
+ * usage: PlanarBenchmarks [family filter] [output file] [baseline file]
+ * family filter: "all" or a comma-separated list of grids, cylinder, sphere, random
+ * if a baseline file (written by a previous run) is given, exits with status 1 when any mean time
+ * is more than 10% slower than the baseline
+ */
+public class PlanarBenchmarks {
+    private static final int WARMUP = 3;
+    private static final int MEASURE = 10;
+
+    /**
+     * a family of graphs at one size, kept as an immutable snapshot so each invocation gets a fresh copy
+     */
+    static class Input {
+        final String params;
+        final CompactGraph snapshot;
+
+        Input(String params, SelfDualGraph g) {
+            this.params = String.format("%s (V=%d)", params, g.getVertexNum());
+            this.snapshot = new CompactGraph(g);
+        }
+
+        SelfDualGraph copy() {
+            SelfDualGraph g = new SelfDualGraph();
+            g.buildGraph(snapshot);
+            return g;
+        }
+
+        SelfDualGraph triangulatedCopy() {
+            SelfDualGraph g = copy();
+            g.flatten();
+            g.triangulate();
+            return g;
+        }
+    }
+
+    public static List<Input> loadInputs(Set<String> families) throws FileNotFoundException {
+        List<Input> inputs = new ArrayList<>();
+        if (families.contains("grids")) {
+            for (int i = 1; i <= 2; i++) inputs.add(new Input("grids/" + i, load(String.format("./input_data/grids/%d.txt", i))));
+        }
+        if (families.contains("cylinder")) {
+            for (int i = 1; i <= 2; i++) inputs.add(new Input("cylinder/symm/" + i, load(String.format("./input_data/cylinder/symm/%d.txt", i))));
+        }
+        if (families.contains("sphere")) {
+            for (int i : new int[]{4, 6}) {
+                SelfDualGraph g = load("./input_data/sphere/c_0.txt");
+                new SphereGenerator(g).generateRandomSubgraph(i);
+                inputs.add(new Input("sphere/c_" + i, g));
+            }
+        }
+        if (families.contains("random")) {
+            // generated once per run, the same graph is used by all benchmarks of this run
+            for (int i = 1; i <= 2; i++) {
+                SelfDualGraph g = load("./input_data/random/0.txt");
+                new RandomSubgraphGenerator(g).generateRandomGraph(i);
+                inputs.add(new Input("random/" + i, g));
+            }
+        }
+        return inputs;
+    }
+
+    private static SelfDualGraph load(String fileName) throws FileNotFoundException {
+        SelfDualGraph g = new SelfDualGraph();
+        g.buildGraph(fileName);
+        return g;
+    }
+
+    /**
+     * separators are measured from the same root, the vertex with the smallest ID
+     */
+    private static Supplier<Supplier<Object>> separator(Input in, Function<SelfDualGraph, Separator> factory) {
+        return () -> {
+            SelfDualGraph g = in.triangulatedCopy();
+            Separator sp = factory.apply(g);
+            int rootID = Collections.min(g.getVertices()).getID();
+            return () -> sp.findSeparator(null, new SpecificIdRootFinder(rootID), null);
+        };
+    }
+
+    public static void runAll(Benchmark bm, List<Input> inputs) throws IOException {
+        for (Input in : inputs) {
+            File file = File.createTempFile("benchmark", ".txt");
+            file.deleteOnExit();
+            in.copy().saveToFile(file.getPath());
+            bm.run("buildGraph", in.params, () -> () -> {
+                SelfDualGraph g = new SelfDualGraph();
+                try {
+                    g.buildGraph(file.getPath());
+                } catch (FileNotFoundException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return g;
+            });
+            bm.run("triangulate", in.params, () -> {
+                SelfDualGraph g = in.copy();
+                g.flatten();
+                return () -> {
+                    g.triangulate();
+                    return g;
+                };
+            });
+            bm.run("buildSubgraph", in.params, () -> {
+                SelfDualGraph g = in.triangulatedCopy();
+                Set<Vertex> half = new HashSet<>();
+                for (Vertex v : g.getVertices()) {
+                    if (v.getID() % 2 == 0) half.add(v);
+                }
+                return () -> g.buildSubgraph(half);
+            });
+
+            bm.run("LevelSeparator", in.params, separator(in, LevelSeparator::new));
+            bm.run("FundamentalCycleSeparator", in.params, separator(in, FundamentalCycleSeparator::new));
+            bm.run("ModifiedFCS", in.params, separator(in, ModifiedFCS::new));
+            bm.run("LiptonTarjanSeparator", in.params, separator(in, LiptonTarjanSeparator::new));
+            bm.run("SimpleCycleSeparator", in.params, separator(in, SimpleCycleSeparator::new));
+
+            int r = Math.max(10, in.snapshot.getVertexNum() / 16);
+            bm.run("RecursiveDivider r=" + r, in.params, () -> {
+                GraphDivider gd = new RecursiveDivider(in.copy());
+                return () -> gd.rDivision(r);
+            });
+            bm.run("ParallelRecursiveDivider r=" + r, in.params, () -> {
+                GraphDivider gd = new ParallelRecursiveDivider(in.copy());
+                return () -> gd.rDivision(r);
+            });
+            bm.run("FredDivider r=" + r, in.params, () -> {
+                GraphDivider gd = new FredDivider(in.copy());
+                return () -> gd.rDivision(r);
+            });
+            bm.run("LinearDivider r=" + r, in.params, () -> {
+                GraphDivider gd = new LinearDivider(in.copy());
+                return () -> gd.rDivision(r);
+            });
+
+            bm.run("Dijkstra", in.params, () -> {
+                SelfDualGraph g = in.copy();
+                SSSP sssp = new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE);
+                Vertex src = Collections.min(g.getVertices());
+                sssp.findSSSP(src);     // takes the array snapshot outside the timed part
+                return () -> {
+                    sssp.findSSSP(src);
+                    return sssp;
+                };
+            });
+            bm.run("RegionalSpeculativeDijkstra r=" + r, in.params, () -> {
+                SelfDualGraph g = in.copy();
+                SSSP sssp = new RegionalSpeculativeDijkstra(g, new FredDivider(g), SSSP.CAPACITY_AS_DISTANCE);
+                Vertex src = Collections.min(g.getVertices());
+                sssp.findSSSP(src, r);     // builds the region index outside the timed part
+                return () -> sssp.findSSSP(src, r);
+            });
+            int r1 = Math.max(4, (int) Math.sqrt(r));
+            bm.run("RegionalSpeculativeDijkstra r=" + r1 + "," + r, in.params, () -> {
+                SelfDualGraph g = in.copy();
+                RegionIndex index = RegionIndex.build(g, RecursiveDivider::new, r1, r);
+                SSSP sssp = new RegionalSpeculativeDijkstra(g, index, SSSP.CAPACITY_AS_DISTANCE);
+                Vertex src = Collections.min(g.getVertices());
+                sssp.findSSSP(src, r1);    // builds the region hierarchy outside the timed part
+                return () -> sssp.findSSSP(src, r1);
+            });
+            bm.run("MSSP largest face", in.params, () -> {
+                MSSP mssp = new MSSP(in.copy(), SSSP.CAPACITY_AS_DISTANCE);
+                CompactGraph cg = mssp.getCompactGraph();
+                int face = 0;
+                for (int f = 1; f < cg.getFaceNum(); f++) {
+                    if (cg.getFaceDegree(f) > cg.getFaceDegree(face)) face = f;
+                }
+                int[] boundary = mssp.getBoundary(face);
+                int largest = face;
+                return () -> mssp.boundaryDistances(largest, boundary);
+            });
+            bm.run("FRDijkstra r=" + r, in.params, () -> {
+                SelfDualGraph g = in.copy();
+                FRDijkstra fr = new FRDijkstra(new DenseDistanceGraph(g, new RecursiveDivider(g), r,
+                        SSSP.CAPACITY_AS_DISTANCE));     // builds the dense distance graph outside the timed part
+                Vertex src = Collections.min(g.getVertices()), dest = Collections.max(g.getVertices());
+                return () -> fr.distFromTo(src, dest);
+            });
+            bm.run("ExactDistanceOracle", in.params, () -> {
+                SelfDualGraph g = in.copy();
+                // builds the labels outside the timed part
+                DistanceOracle oracle = new ExactDistanceOracle(g, SSSP.CAPACITY_AS_DISTANCE);
+                int src = Collections.min(g.getVertices()).getID(), dest = Collections.max(g.getVertices()).getID();
+                return () -> oracle.distFromTo(src, dest);
+            });
+            bm.run("ApproxDistanceOracle eps=0.01", in.params, () -> {
+                SelfDualGraph g = in.copy();
+                // builds the labels outside the timed part
+                DistanceOracle oracle = new ApproxDistanceOracle(g, SSSP.CAPACITY_AS_DISTANCE, 0.01);
+                int src = Collections.min(g.getVertices()).getID(), dest = Collections.max(g.getVertices()).getID();
+                return () -> oracle.distFromTo(src, dest);
+            });
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Set<String> families = new HashSet<>(Arrays.asList("grids", "cylinder", "sphere", "random"));
+        if (args.length > 0 && !args[0].equals("all")) {
+            families = new HashSet<>(Arrays.asList(args[0].split(",")));
+        }
+        String output = args.length > 1 ? args[1] : "./output/benchmark.txt";
+        Benchmark bm = new Benchmark(WARMUP, MEASURE);
+        System.out.println(Benchmark.HEADER);
+        runAll(bm, loadInputs(families));
+        bm.save(output);
+
+        if (args.length > 2) {
+            List<String> regressions = bm.findRegressions(args[2], 0.1);
+            for (String name : regressions) System.out.println("REGRESSION\t" + name);
+            if (!regressions.isEmpty()) System.exit(1);
+        }
+    }
+}
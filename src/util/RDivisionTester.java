@@ -10,8 +10,8 @@ public class RDivisionTester {
     public static void runTest(SelfDualGraph g, String graphType, int trials, int[] Rs, String outputFileName) throws FileNotFoundException {
         PrintWriter out = new PrintWriter(outputFileName);
         out.printf("Graph Info:\t%s\tNumber of Vertices\t%d\n", graphType, g.getVertexNum());
-        out.printf("\tRecursive Divider\t\t\t\t\t\tFrederickson Divider\n");
-        out.printf("\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\n");
+        out.printf("\tRecursive Divider\t\t\t\t\t\tFrederickson Divider\t\t\t\t\t\tLinear Divider\n");
+        out.printf("\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\tRegion Number\tRuntime (ms)\n");
         GraphDivider gd;
         gd = new RecursiveDivider(g);
         gd.rDivision(Rs[0]);
@@ -28,12 +28,19 @@ public class RDivisionTester {
             }
             System.out.println("RecursiveDivider done");
 
-            gd = new FredDivider(g);
+            FredDivider fd = new FredDivider(g, Runtime.getRuntime().availableProcessors());
             for (int j = 0; j < trials; j++) {
-                testDivider(gd, r, sb);
+                testDivider(fd, r, sb);
             }
+            fd.printRegionTimings();
             System.out.println("FredDivider done");
 
+            gd = new LinearDivider(g);
+            for (int j = 0; j < trials; j++) {
+                testDivider(gd, r, sb);
+            }
+            System.out.println("LinearDivider done");
+
             out.println(sb.toString());
         }
 
@@ -1,11 +1,13 @@
 package util;
 
+import algorithms.IndexedHeap.*;
 import algorithms.RDivision.*;
 import algorithms.SSSP.*;
 import selfdualgraph.*;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 public class SSSPTester {
 
@@ -63,6 +65,58 @@ public class SSSPTester {
         System.out.println(str);
     }
 
+    /**
+     * compare Dijkstra's running time with different priority queues on the same sources
+     * the lazy-insertion PriorityQueue is listed first as the baseline
+     *
+     * @param g
+     * @param trials
+     */
+    public static void compareHeaps(SelfDualGraph g, int trials) {
+        String[] names = new String[]{"PriorityQueue", "BinaryHeap", "FourAryHeap", "PairingHeap"};
+        IndexedHeap[] heaps = new IndexedHeap[]{null, new BinaryHeap(), new FourAryHeap(), new PairingHeap()};
+        Vertex[] sources = new Vertex[trials];
+        Iterator<Vertex> iter = g.getVertices().iterator();
+        for (int j = 0; j < trials; j++) {
+            sources[j] = iter.next();
+        }
+        for (int i = 0; i < heaps.length; i++) {
+            SSSP sssp = new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE, heaps[i]);
+            sssp.findSSSP(sources[0]);  // warm-up, also builds the array snapshot
+            StringBuilder sb = new StringBuilder(names[i]);
+            for (int j = 0; j < trials; j++) {
+                testSSSP(sssp, sources[j], 0, sb);
+            }
+            System.out.println(sb.toString());
+        }
+    }
+
+    /**
+     * measure query throughput of SSSPService with increasing number of worker threads
+     *
+     * @param g
+     * @param queries number of point-to-point queries per run
+     * @param threads
+     */
+    public static void testServiceThroughput(SelfDualGraph g, int queries, int[] threads) throws InterruptedException, ExecutionException {
+        Vertex[] vertices = g.getVertices().toArray(new Vertex[0]);
+        Random rand = new Random(0);
+        Vertex[] srcs = new Vertex[queries], dests = new Vertex[queries];
+        for (int i = 0; i < queries; i++) {
+            srcs[i] = vertices[rand.nextInt(vertices.length)];
+            dests[i] = vertices[rand.nextInt(vertices.length)];
+        }
+        for (int t : threads) {
+            try (SSSPService service = new SSSPService(g, SSSP.CAPACITY_AS_DISTANCE, t, new BinaryHeap())) {
+                service.distances(srcs, dests);     // warm-up
+                long startTime = System.nanoTime();
+                service.distances(srcs, dests);
+                long endTime = System.nanoTime();
+                System.out.printf("%d threads\t%.2f queries/s\n", t, queries / ((endTime - startTime) / 1e9));
+            }
+        }
+    }
+
     public static void testGridsCylinder(int[] Rs, int[] fileSize, String[] paths) throws FileNotFoundException {
         for (int j = 0; j < paths.length; j++) {
             String path = paths[j];
@@ -0,0 +1,168 @@
+import org.junit.*;
+import selfdualgraph.*;
+
+import java.io.*;
+import java.util.*;
+
+public class test_CompactGraph {
+
+    public SelfDualGraph readGraph(String fileName) {
+        SelfDualGraph g = new SelfDualGraph();
+        try {
+            g.buildGraph(fileName);
+        } catch (FileNotFoundException e) {
+            Assert.assertTrue(false);
+        }
+        Dart.uniqueID = 0;
+        Vertex.uniqueID = 0;
+        return g;
+    }
+
+    protected Vertex findVertexByID(Set<Vertex> vertices, int id) {
+        for (Vertex v : vertices) {
+            if (v.getID() == id) return v;
+        }
+        return null;
+    }
+
+    /**
+     * every index-based pointer must agree with the object graph
+     */
+    public void verifySnapshot(SelfDualGraph g, CompactGraph cg) {
+        Assert.assertEquals(g.getVertexNum(), cg.getVertexNum());
+        Assert.assertEquals(g.getFaceNum(), cg.getFaceNum());
+        for (int d = 0; d < cg.getDartNum(); d++) {
+            Dart dart = cg.getDart(d);
+            Assert.assertEquals(dart.getID(), cg.getDartID(d));
+            Assert.assertSame(dart.getReverse(), cg.getDart(cg.getReverse(d)));
+            Assert.assertSame(dart.getSuccessor(), cg.getDart(cg.getSuccessor(d)));
+            Assert.assertSame(dart.getPredecessor(), cg.getDart(cg.getPredecessor(d)));
+            Assert.assertSame(dart.getNext(), cg.getDart(cg.getNext(d)));
+            Assert.assertSame(dart.getPrev(), cg.getDart(cg.getPrev(d)));
+            Assert.assertSame(dart.getTail(), cg.getVertex(cg.getTail(d)));
+            Assert.assertSame(dart.getHead(), cg.getVertex(cg.getHead(d)));
+            Assert.assertSame(dart.getRight(), cg.getFace(cg.getRight(d)));
+            Assert.assertSame(dart.getLeft(), cg.getFace(cg.getLeft(d)));
+            Assert.assertEquals(dart.getWeight(), cg.getWeight(d), 0.0001);
+            Assert.assertEquals(dart.getCapacity(), cg.getCapacity(d), 0.0001);
+        }
+        for (int v = 0; v < cg.getVertexNum(); v++) {
+            Vertex vertex = cg.getVertex(v);
+            Assert.assertEquals(v, cg.getIndex(vertex));
+            Assert.assertEquals(vertex.getDegree(), cg.getDegree(v));
+            Iterator<Dart> it = vertex.getIncidenceList().iterator();
+            for (int i = 0, d = cg.getFirstDart(v); i < cg.getDegree(v); i++, d = cg.getSuccessor(d)) {
+                Assert.assertSame(it.next(), cg.getDart(d));
+            }
+        }
+        for (int f = 0; f < cg.getFaceNum(); f++) {
+            Vertex face = cg.getFace(f);
+            Assert.assertEquals(face.getDegree(), cg.getFaceDegree(f));
+            Iterator<Dart> it = face.getIncidenceList().iterator();
+            for (int i = 0, d = cg.getFaceFirstDart(f); i < cg.getFaceDegree(f); i++, d = cg.getNext(d)) {
+                Assert.assertSame(it.next(), cg.getDart(d));
+            }
+        }
+    }
+
+    @Test
+    public void test_snapshot() {
+        SelfDualGraph g = readGraph("./input_data/test_graph_0.txt");
+        CompactGraph cg = new CompactGraph(g);
+        Assert.assertEquals(22, cg.getDartNum());
+        verifySnapshot(g, cg);
+
+        // vertices are indexed in ID order
+        for (int v = 0; v < cg.getVertexNum(); v++) Assert.assertEquals(v, cg.getVertexID(v));
+        Assert.assertEquals(-1, cg.getIndex(new Vertex(0, Vertex.VERTEX)));
+    }
+
+    @Test
+    public void test_snapshot_triangulated() {
+        SelfDualGraph g = readGraph("./test/benchmark_img_4x4.txt");
+        g.flatten();
+        g.triangulate();
+        verifySnapshot(g, new CompactGraph(g));
+    }
+
+    @Test
+    public void test_rebuild() {
+        SelfDualGraph g = readGraph("./input_data/test_graph_0.txt");
+        SelfDualGraph g2 = new SelfDualGraph();
+        g2.buildGraph(new CompactGraph(g));
+        Assert.assertEquals(g.getVertexNum(), g2.getVertexNum());
+        Assert.assertEquals(g.getFaceNum(), g2.getFaceNum());
+        for (Vertex v : g.getVertices()) {
+            Vertex v2 = findVertexByID(g2.getVertices(), v.getID());
+            Assert.assertEquals(v.getCoordX(), v2.getCoordX(), 0.0001);
+            Assert.assertEquals(v.getWeight(), v2.getWeight(), 0.0001);
+            Assert.assertEquals(v.getDegree(), v2.getDegree());
+            Iterator<Dart> it2 = v2.getIncidenceList().iterator();
+            for (Dart d : v.getIncidenceList()) {
+                Dart d2 = it2.next();
+                Assert.assertEquals(d.getID(), d2.getID());
+                Assert.assertEquals(d.getHead().getID(), d2.getHead().getID());
+                Assert.assertEquals(d.getRight().getID(), d2.getRight().getID());
+                Assert.assertEquals(d.getLeft().getID(), d2.getLeft().getID());
+                Assert.assertEquals(d.getNext().getID(), d2.getNext().getID());
+                Assert.assertEquals(d.getReverse().getID(), d2.getReverse().getID());
+            }
+        }
+        for (Vertex f : g.getFaces()) {
+            Vertex f2 = findVertexByID(g2.getFaces(), f.getID());
+            Assert.assertEquals(f.getDegree(), f2.getDegree());
+            Assert.assertEquals(f.getCoordY(), f2.getCoordY(), 0.0001);
+        }
+    }
+
+    @Test
+    public void test_binary() throws IOException {
+        SelfDualGraph g = readGraph("./test/benchmark_img_4x4.txt");
+        CompactGraph cg = new CompactGraph(g);
+        File file = File.createTempFile("graph", ".bin");
+        file.deleteOnExit();
+        g.saveBinary(file.getPath());
+
+        CompactGraph loaded = CompactGraph.loadBinary(file.getPath());
+        Assert.assertFalse(loaded.hasObjects());
+        Assert.assertEquals(cg.getVertexNum(), loaded.getVertexNum());
+        Assert.assertEquals(cg.getDartNum(), loaded.getDartNum());
+        Assert.assertEquals(cg.getFaceNum(), loaded.getFaceNum());
+        for (int v = 0; v < cg.getVertexNum(); v++) {
+            Assert.assertEquals(cg.getVertexID(v), loaded.getVertexID(v));
+            Assert.assertEquals(cg.getCoordX(v), loaded.getCoordX(v), 0);
+            Assert.assertEquals(cg.getVertexWeight(v), loaded.getVertexWeight(v), 0);
+            Assert.assertEquals(cg.getFirstDart(v), loaded.getFirstDart(v));
+            Assert.assertEquals(cg.getDegree(v), loaded.getDegree(v));
+        }
+        for (int f = 0; f < cg.getFaceNum(); f++) {
+            Assert.assertEquals(cg.getFaceID(f), loaded.getFaceID(f));
+            Assert.assertEquals(cg.getFaceCoordY(f), loaded.getFaceCoordY(f), 0);
+            Assert.assertEquals(cg.getFaceFirstDart(f), loaded.getFaceFirstDart(f));
+        }
+        for (int d = 0; d < cg.getDartNum(); d++) {
+            Assert.assertEquals(cg.getDartID(d), loaded.getDartID(d));
+            Assert.assertEquals(cg.getTail(d), loaded.getTail(d));
+            Assert.assertEquals(cg.getRight(d), loaded.getRight(d));
+            Assert.assertEquals(cg.getNext(d), loaded.getNext(d));
+            Assert.assertEquals(cg.getPrev(d), loaded.getPrev(d));
+            Assert.assertEquals(cg.getCapacity(d), loaded.getCapacity(d), 0);
+        }
+
+        // materialized graph is a valid self-dual graph
+        SelfDualGraph g2 = new SelfDualGraph();
+        g2.buildGraphFromBinary(file.getPath());
+        verifySnapshot(g2, new CompactGraph(g2));
+        Assert.assertEquals(g.getVertexNum(), g2.getVertexNum());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void test_binary_bad_magic() throws IOException {
+        File file = File.createTempFile("graph", ".bin");
+        file.deleteOnExit();
+        try (PrintWriter out = new PrintWriter(file)) {
+            out.println("16 48 34 this is a text graph file");
+        }
+        CompactGraph.loadBinary(file.getPath());
+    }
+}
@@ -0,0 +1,181 @@
+import algorithms.DistanceOracle.*;
+import algorithms.SSSP.*;
+import algorithms.Separator.*;
+import org.junit.*;
+import selfdualgraph.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+public class test_DistanceOracle extends test_SSSP_Dijkstra {
+
+    private void compareDijk(SelfDualGraph g, DistanceOracle oracle, int dist_measure) {
+        Dijkstra dijk = new Dijkstra(g, dist_measure);
+        List<Vertex> vertices = new ArrayList<>(g.getVertices());
+        Collections.sort(vertices);
+        for (int i = 0; i < vertices.size(); i += 7) {
+            Vertex src = vertices.get(i);
+            SSSPResult expected = dijk.query(src);
+            for (Vertex dest : vertices) {
+                Assert.assertEquals(expected.getDist(dest), oracle.distFromTo(src, dest), 0.00001);
+            }
+        }
+    }
+
+    @Test
+    public void test_exact_grid() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        compareDijk(g, new ExactDistanceOracle(g, SSSP.WEIGHT_AS_DISTANCE), SSSP.WEIGHT_AS_DISTANCE);
+        compareDijk(g, new ExactDistanceOracle(g, SSSP.CAPACITY_AS_DISTANCE), SSSP.CAPACITY_AS_DISTANCE);
+    }
+
+    @Test
+    public void test_exact_leafSize() {
+        SelfDualGraph g = readGraph("./input_data/grids/1.txt");
+        ExactDistanceOracle small = new ExactDistanceOracle(g, SSSP.CAPACITY_AS_DISTANCE, 4, SimpleCycleSeparator::new);
+        ExactDistanceOracle whole = new ExactDistanceOracle(g, SSSP.CAPACITY_AS_DISTANCE, g.getVertexNum(),
+                SimpleCycleSeparator::new);
+        compareDijk(g, small, SSSP.CAPACITY_AS_DISTANCE);
+        compareDijk(g, whole, SSSP.CAPACITY_AS_DISTANCE);
+        // one leaf holds all distances
+        Assert.assertTrue(small.getLabelSize() < whole.getLabelSize());
+    }
+
+    @Test
+    public void test_exact_file() throws IOException {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        ExactDistanceOracle oracle = new ExactDistanceOracle(g, SSSP.CAPACITY_AS_DISTANCE);
+        File file = File.createTempFile("oracle", ".bin");
+        file.deleteOnExit();
+        oracle.save(file.getPath());
+        ExactDistanceOracle loaded = ExactDistanceOracle.load(file.getPath());
+        Assert.assertEquals(oracle.getLabelSize(), loaded.getLabelSize());
+        Assert.assertEquals(g.getVertexNum(), loaded.getVertexNum());
+        compareDijk(g, loaded, SSSP.CAPACITY_AS_DISTANCE);
+    }
+
+    @Test
+    public void test_exact_segments() throws IOException {
+        // small segments stand in for labels beyond 2^31 bytes
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        SeparatorTree tree = new SeparatorTree(g, SimpleCycleSeparator::new, ExactDistanceOracle.DEFAULT_LEAF_SIZE);
+        ExactDistanceOracle whole = new ExactDistanceOracle(g, SSSP.CAPACITY_AS_DISTANCE, tree);
+        ExactDistanceOracle split = new ExactDistanceOracle(g, SSSP.CAPACITY_AS_DISTANCE, tree, 1 << 12);
+        Assert.assertEquals(1, whole.getSegmentNum());
+        Assert.assertTrue(split.getSegmentNum() > 1);
+        Assert.assertEquals(whole.getLabelSize(), split.getLabelSize());
+        compareDijk(g, split, SSSP.CAPACITY_AS_DISTANCE);
+
+        File file = File.createTempFile("oracle", ".bin");
+        file.deleteOnExit();
+        split.save(file.getPath());
+        ExactDistanceOracle loaded = ExactDistanceOracle.load(file.getPath(), 1 << 13);
+        Assert.assertTrue(loaded.getSegmentNum() > 1);
+        Assert.assertEquals(whole.getLabelSize(), loaded.getLabelSize());
+        compareDijk(g, loaded, SSSP.CAPACITY_AS_DISTANCE);
+        Assert.assertEquals(1, ExactDistanceOracle.load(file.getPath()).getSegmentNum());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void test_exact_segment_too_small() {
+        SelfDualGraph g = readGraph("./input_data/grids/1.txt");
+        new ExactDistanceOracle(g, SSSP.CAPACITY_AS_DISTANCE, new SeparatorTree(g, SimpleCycleSeparator::new, 4), 64);
+    }
+
+    @Test
+    public void test_approx_grid() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        for (int dist_measure : new int[]{SSSP.WEIGHT_AS_DISTANCE, SSSP.CAPACITY_AS_DISTANCE}) {
+            double eps = 0.05;
+            ApproxDistanceOracle oracle = new ApproxDistanceOracle(g, dist_measure, eps);
+            Dijkstra dijk = new Dijkstra(g, dist_measure);
+            List<Vertex> vertices = new ArrayList<>(g.getVertices());
+            Collections.sort(vertices);
+            for (int i = 0; i < vertices.size(); i += 7) {
+                SSSPResult expected = dijk.query(vertices.get(i));
+                for (Vertex dest : vertices) {
+                    double dist = oracle.distFromTo(vertices.get(i), dest);
+                    Assert.assertTrue(dist >= expected.getDist(dest) - 0.00001);
+                    Assert.assertTrue(dist <= (1 + eps) * expected.getDist(dest) + 0.00001);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_approx_bounded() {
+        // portals from bounded searches only, on every path
+        for (String fileName : new String[]{"./input_data/grids/2.txt", "./input_data/random/0.txt"}) {
+            SelfDualGraph g = readGraph(fileName);
+            int m = SSSP.CAPACITY_AS_DISTANCE;
+            double eps = 0.05;
+            SeparatorTree tree = new SeparatorTree(g, piece -> new ShortestPathSeparator(piece, m), 16);
+            ApproxDistanceOracle oracle = new ApproxDistanceOracle(g, m, eps, tree, true);
+            Dijkstra dijk = new Dijkstra(g, m);
+            List<Vertex> vertices = new ArrayList<>(g.getVertices());
+            Collections.sort(vertices);
+            for (int i = 0; i < vertices.size(); i += 7) {
+                SSSPResult expected = dijk.query(vertices.get(i));
+                for (Vertex dest : vertices) {
+                    double dist = oracle.distFromTo(vertices.get(i), dest);
+                    Assert.assertTrue(dist >= expected.getDist(dest) - 0.00001);
+                    Assert.assertTrue(dist <= (1 + eps) * expected.getDist(dest) + 0.00001);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_approx_asymmetric() throws IOException {
+        // dart 0 of grids/1 gets a weight different from its reverse
+        List<String> lines = Files.readAllLines(Paths.get("./input_data/grids/1.txt"));
+        int V = Integer.parseInt(lines.get(0).trim().split("\\s+")[0]);
+        String[] dart = lines.get(1 + V).trim().split("\\s+");
+        dart[4] = "5";
+        lines.set(1 + V, String.join(" ", dart));
+        File file = File.createTempFile("graph", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), lines);
+        SelfDualGraph g = readGraph(file.getPath());
+        // capacities are still symmetric
+        new ApproxDistanceOracle(g, SSSP.CAPACITY_AS_DISTANCE, 0.1);
+        try {
+            new ApproxDistanceOracle(g, SSSP.WEIGHT_AS_DISTANCE, 0.1);
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertEquals("ApproxDistanceOracle needs darts as long as their reverse", e.getMessage());
+        }
+    }
+
+    @Test
+    public void test_shortestPathSeparator() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        Dijkstra dijk = new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE);
+        ShortestPathSeparator sp = new ShortestPathSeparator(g.buildSubgraph(g.getVertices()), SSSP.CAPACITY_AS_DISTANCE);
+        Set<Vertex> separator = sp.findSeparator();
+        Set<Integer> onPaths = new HashSet<>();
+        for (List<Vertex> path : sp.getPaths()) {
+            // consecutive vertices are adjacent and the path is a shortest path from its first vertex
+            SSSPResult res = dijk.query(findVertexByID(g.getVertices(), path.get(0).getID()));
+            double length = 0;
+            for (int i = 0; i < path.size(); i++) {
+                onPaths.add(path.get(i).getID());
+                if (i > 0) length += edgeLength(path.get(i - 1), path.get(i));
+                Assert.assertEquals(res.getDist(findVertexByID(g.getVertices(), path.get(i).getID())), length, 0.00001);
+            }
+        }
+        Set<Integer> separatorIDs = new HashSet<>();
+        for (Vertex v : separator) separatorIDs.add(v.getID());
+        Assert.assertEquals(separatorIDs, onPaths);
+    }
+
+    private double edgeLength(Vertex u, Vertex v) {
+        double length = Double.MAX_VALUE;
+        Dart d = u.getFirstDart();
+        for (int i = 0; i < u.getDegree(); i++, d = d.getSuccessor()) {
+            if (d.getHead() == v && d.getID() >= 0) length = Math.min(length, d.getCapacity());
+        }
+        return length;
+    }
+}
@@ -0,0 +1,207 @@
+import org.junit.*;
+import selfdualgraph.*;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.*;
+
+public class test_GraphIO {
+
+    public SelfDualGraph readGraph(String fileName) {
+        SelfDualGraph g = new SelfDualGraph();
+        try {
+            g.buildGraph(fileName);
+        } catch (FileNotFoundException e) {
+            Assert.assertTrue(false);
+        }
+        Dart.uniqueID = 0;
+        Vertex.uniqueID = 0;
+        return g;
+    }
+
+    /**
+     * two graphs have the same vertices, darts and faces, compared by ID
+     */
+    public void assertSameGraph(SelfDualGraph g1, SelfDualGraph g2) {
+        CompactGraph cg1 = new CompactGraph(g1), cg2 = new CompactGraph(g2);
+        Assert.assertEquals(cg1.getVertexNum(), cg2.getVertexNum());
+        Assert.assertEquals(cg1.getDartNum(), cg2.getDartNum());
+        Assert.assertEquals(cg1.getFaceNum(), cg2.getFaceNum());
+        for (int v = 0; v < cg1.getVertexNum(); v++) {
+            Assert.assertEquals(cg1.getVertexID(v), cg2.getVertexID(v));
+            Assert.assertEquals(cg1.getCoordX(v), cg2.getCoordX(v), 0.0001);
+            Assert.assertEquals(cg1.getCoordY(v), cg2.getCoordY(v), 0.0001);
+            Assert.assertEquals(cg1.getVertexWeight(v), cg2.getVertexWeight(v), 0.0001);
+            Assert.assertEquals(cg1.getDegree(v), cg2.getDegree(v));
+            Assert.assertEquals(cg1.getDartID(cg1.getFirstDart(v)), cg2.getDartID(cg2.getFirstDart(v)));
+        }
+        for (int f = 0; f < cg1.getFaceNum(); f++) {
+            Assert.assertEquals(cg1.getFaceID(f), cg2.getFaceID(f));
+            Assert.assertEquals(cg1.getFaceCoordX(f), cg2.getFaceCoordX(f), 0.0001);
+            Assert.assertEquals(cg1.getFaceCoordY(f), cg2.getFaceCoordY(f), 0.0001);
+            Assert.assertEquals(cg1.getFaceWeight(f), cg2.getFaceWeight(f), 0.0001);
+            Assert.assertEquals(cg1.getFaceDegree(f), cg2.getFaceDegree(f));
+        }
+        for (int d = 0; d < cg1.getDartNum(); d++) {
+            Assert.assertEquals(cg1.getDartID(d), cg2.getDartID(d));
+            Assert.assertEquals(cg1.getVertexID(cg1.getTail(d)), cg2.getVertexID(cg2.getTail(d)));
+            Assert.assertEquals(cg1.getVertexID(cg1.getHead(d)), cg2.getVertexID(cg2.getHead(d)));
+            Assert.assertEquals(cg1.getFaceID(cg1.getRight(d)), cg2.getFaceID(cg2.getRight(d)));
+            Assert.assertEquals(cg1.getDartID(cg1.getNext(d)), cg2.getDartID(cg2.getNext(d)));
+            Assert.assertEquals(cg1.getDartID(cg1.getSuccessor(d)), cg2.getDartID(cg2.getSuccessor(d)));
+            Assert.assertEquals(cg1.getWeight(d), cg2.getWeight(d), 0.0001);
+            Assert.assertEquals(cg1.getCapacity(d), cg2.getCapacity(d), 0.0001);
+        }
+    }
+
+    @Test
+    public void test_tokenizer() {
+        String text = "12 -3\t+7 1.5\n2.000000 1e3 -0.25 12345678901234567 3.4028235E38 0.1\r\n\n  42  \n";
+        GraphTokenizer in = new GraphTokenizer(ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII)));
+        Assert.assertEquals(12, in.nextInt());
+        Assert.assertEquals(-3, in.nextInt());
+        Assert.assertEquals(7, in.nextInt());
+        Assert.assertEquals(1.5, in.nextDouble(), 0);
+        Assert.assertFalse(in.hasNextOnLine());
+        in.nextLine();
+        Assert.assertEquals(2.0, in.nextDouble(), 0);
+        Assert.assertEquals(1000.0, in.nextDouble(), 0);
+        Assert.assertEquals(-0.25, in.nextDouble(), 0);
+        Assert.assertEquals(12345678901234567.0, in.nextDouble(), 0);
+        Assert.assertEquals(3.4028235E38f, in.nextFloat(), 0);
+        Assert.assertEquals(0.1, in.nextDouble(), 0);
+        Assert.assertFalse(in.hasNextOnLine());
+        in.nextLine();
+        Assert.assertFalse(in.hasNextOnLine());
+        in.nextLine();
+        Assert.assertEquals(42, in.nextInt());
+        in.nextLine();
+        Assert.assertFalse(in.hasNextOnLine());
+    }
+
+    @Test
+    public void test_tokenizer_float() {
+        List<String> tokens = new ArrayList<>(Arrays.asList("1.00000005960464477539062500001", "1.0000000596046448",
+                "16777217", "0.1", "-2.5e-3", "3.4028235E38", "1e-45", "NaN", "-Infinity"));
+        Random random = new Random(7);
+        for (int i = 0; i < 100000; i++) {
+            tokens.add(String.format(Locale.ROOT, "%." + random.nextInt(10) + "f", random.nextDouble() * Math.pow(10, random.nextInt(9))));
+            float f = random.nextFloat();
+            tokens.add(Double.toString((double) f + Math.ulp(f) / 2));      // halfway between two floats
+        }
+        GraphTokenizer in = new GraphTokenizer(ByteBuffer.wrap(String.join(" ", tokens).getBytes(StandardCharsets.US_ASCII)));
+        for (String token : tokens) {
+            Assert.assertEquals(token, Float.parseFloat(token), in.nextFloat(), 0);
+        }
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void test_tokenizer_malformed() {
+        GraphTokenizer in = new GraphTokenizer(ByteBuffer.wrap("1x 2".getBytes(StandardCharsets.US_ASCII)));
+        in.nextInt();
+    }
+
+    @Test
+    public void test_gzip() throws IOException {
+        String fileName = "./test/benchmark_img_4x4.txt";
+        File file = File.createTempFile("graph", ".txt.gz");
+        file.deleteOnExit();
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file))) {
+            Files.copy(Paths.get(fileName), out);
+        }
+        assertSameGraph(readGraph(fileName), readGraph(file.getPath()));
+    }
+
+    @Test
+    public void test_progress() throws IOException {
+        String fileName = "./input_data/grids/2.txt";
+        List<Long> reports = new ArrayList<>();
+        SelfDualGraph g = new SelfDualGraph();
+        try (GraphTokenizer in = GraphTokenizer.open(fileName)) {
+            in.setProgressListener(reports::add, 1 << 10);
+            g.buildGraph(in);
+        }
+        long size = new File(fileName).length();
+        Assert.assertTrue(reports.size() > 0);
+        for (long r : reports) Assert.assertTrue(r <= size);
+        assertSameGraph(readGraph(fileName), g);
+    }
+
+    @Test
+    public void test_parallel() throws IOException {
+        String[] files = new String[]{"./input_data/test_graph_0.txt", "./test/benchmark_img_4x4.txt", "./input_data/grids/2.txt"};
+        for (String fileName : files) {
+            for (int threads : new int[]{1, 3, 8}) {
+                SelfDualGraph g = new SelfDualGraph();
+                g.buildGraphParallel(fileName, threads);
+                assertSameGraph(readGraph(fileName), g);
+            }
+        }
+    }
+
+    @Test
+    public void test_dartsOutOfOrder() throws IOException {
+        // dart lines in reverse ID order, each vertex's first dart must still be one of its own darts
+        String fileName = "./input_data/test_graph_0.txt";
+        List<String> lines = Files.readAllLines(Paths.get(fileName));
+        String[] header = lines.get(0).trim().split("\\s+");
+        int V = Integer.parseInt(header[0]), E = Integer.parseInt(header[1]);
+        Collections.reverse(lines.subList(1 + V, 1 + V + E));
+        File file = File.createTempFile("graph", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(), lines);
+
+        SelfDualGraph original = readGraph(fileName), g = readGraph(file.getPath());
+        Map<Integer, Vertex> byID = new HashMap<>();
+        for (Vertex v : original.getVertices()) byID.put(v.getID(), v);
+        for (Vertex v : g.getVertices()) {
+            Assert.assertSame(v, v.getFirstDart().getTail());
+            Assert.assertEquals(byID.get(v.getID()).getDegree(), v.getDegree());
+        }
+        for (int threads : new int[]{1, 3}) {
+            SelfDualGraph parallel = new SelfDualGraph();
+            parallel.buildGraphParallel(file.getPath(), threads);
+            assertSameGraph(g, parallel);
+        }
+    }
+
+    @Test
+    public void test_writeReal() {
+        double[] values = new double[]{0, 1, -1, 0.5, 1.0 / 3, -2.75, 123456.789, 1e-7, -1e-7, 0.1f, 1e12, 28.0,
+                -0.0, 0.2564065, 2.5e-6, -5e-7, 123456.7890125, 999999999.9999995};
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GraphWriter out = new GraphWriter(bytes);
+        for (double x : values) out.writeReal(x).writeNewLine();
+        out.flush();
+        String[] lines = bytes.toString().split("\n");
+        for (int i = 0; i < values.length; i++) Assert.assertEquals(String.format("%f", values[i]), lines[i]);
+        // ties in the decimal form, where a rounded product can go the wrong way
+        Random rand = new Random(5);
+        bytes.reset();
+        double[] ties = new double[100000];
+        for (int i = 0; i < ties.length; i++) {
+            ties[i] = (rand.nextInt(20000001) - 10000000) / 1e7 + (rand.nextBoolean() ? 5e-8 : 0);
+            out.writeReal(ties[i]).writeNewLine();
+        }
+        out.flush();
+        lines = bytes.toString().split("\n");
+        for (int i = 0; i < ties.length; i++) Assert.assertEquals(String.format("%f", ties[i]), lines[i]);
+    }
+
+    @Test
+    public void test_save_and_reload() throws IOException {
+        SelfDualGraph g = readGraph("./test/benchmark_img_4x4.txt");
+        g.flatten();
+        g.triangulate();
+        g.renumberIDs();
+        for (String suffix : new String[]{".txt", ".txt.gz"}) {
+            File file = File.createTempFile("graph", suffix);
+            file.deleteOnExit();
+            g.saveToFile(file.getPath());
+            assertSameGraph(g, readGraph(file.getPath()));
+        }
+    }
+}
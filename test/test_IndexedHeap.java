@@ -0,0 +1,83 @@
+import algorithms.IndexedHeap.*;
+import org.junit.*;
+
+import java.util.*;
+
+public class test_IndexedHeap {
+
+    protected IndexedHeap[] allHeaps() {
+        return new IndexedHeap[]{new BinaryHeap(), new FourAryHeap(), new DaryHeap(3), new PairingHeap()};
+    }
+
+    @Test
+    public void test_sort() {
+        double[] keys = new double[]{5, 3, 8, 1, 9, 2, 7, 2, 0, 6};
+        for (IndexedHeap heap : allHeaps()) {
+            heap.init(keys.length);
+            for (int i = 0; i < keys.length; i++) heap.insert(i, keys[i]);
+            Assert.assertEquals(keys.length, heap.size());
+            double last = Double.NEGATIVE_INFINITY;
+            while (!heap.isEmpty()) {
+                int i = heap.peekMin();
+                Assert.assertEquals(i, heap.deleteMin());
+                Assert.assertFalse(heap.contains(i));
+                Assert.assertTrue(keys[i] >= last);
+                last = keys[i];
+            }
+        }
+    }
+
+    @Test
+    public void test_decreaseKey() {
+        for (IndexedHeap heap : allHeaps()) {
+            heap.init(5);
+            for (int i = 0; i < 5; i++) heap.insert(i, 10 + i);
+            heap.decreaseKey(4, 1);
+            heap.decreaseKey(2, 5);
+            Assert.assertFalse(heap.insertOrDecrease(3, 20));
+            Assert.assertTrue(heap.insertOrDecrease(3, 3));
+            int[] order = new int[]{4, 3, 2, 0, 1};
+            for (int i : order) {
+                Assert.assertEquals(i, heap.deleteMin());
+            }
+            Assert.assertTrue(heap.isEmpty());
+        }
+    }
+
+    /**
+     * random mix of operations, checked against a sorted set of (key, index)
+     */
+    @Test
+    public void test_random() {
+        int n = 200;
+        for (IndexedHeap heap : allHeaps()) {
+            Random rand = new Random(7);
+            heap.init(n);
+            double[] keys = new double[n];
+            TreeSet<Integer> ref = new TreeSet<>((a, b) -> keys[a] != keys[b] ? Double.compare(keys[a], keys[b]) : a - b);
+            for (int step = 0; step < 5000; step++) {
+                int i = rand.nextInt(n);
+                int op = rand.nextInt(3);
+                if (op == 0 && !heap.contains(i)) {
+                    keys[i] = rand.nextInt(1000);
+                    heap.insert(i, keys[i]);
+                    ref.add(i);
+                } else if (op == 1 && heap.contains(i)) {
+                    ref.remove(i);
+                    keys[i] -= rand.nextInt(100);
+                    heap.decreaseKey(i, keys[i]);
+                    ref.add(i);
+                } else if (op == 2 && !ref.isEmpty()) {
+                    int min = heap.deleteMin();
+                    Assert.assertEquals(keys[ref.first()], keys[min], 0);
+                    ref.remove(min);
+                }
+                Assert.assertEquals(ref.size(), heap.size());
+            }
+            // heap is reusable after init
+            heap.init(n);
+            Assert.assertTrue(heap.isEmpty());
+            Assert.assertFalse(heap.contains(0));
+        }
+    }
+}
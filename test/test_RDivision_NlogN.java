@@ -192,6 +192,17 @@ public class test_RDivision_NlogN {
         checkRDivisionResult(g, r, regions);
     }
 
+    @Test
+    public void test_9x7_r20_parallel() {
+        SelfDualGraph g = readGraph("./test/grid_9x7.txt");
+        int r = 20;
+        for (int threads : new int[]{1, 4}) {
+            ParallelRecursiveDivider rd = new ParallelRecursiveDivider(g, threads);
+            Set<Set<Vertex>> regions = rd.rDivision(r);
+            checkRDivisionResult(g, r, regions);
+        }
+    }
+
     protected int checkRDivisionResult(SelfDualGraph g, int r, Set<Set<Vertex>> regions) {
         Set<Vertex> vertices = g.getVertices();
         Set<Vertex> visited = new HashSet<>();
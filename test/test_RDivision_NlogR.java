@@ -220,7 +220,8 @@ public class test_RDivision_NlogR extends test_RDivision_NlogN {
         long time1 = System.currentTimeMillis();
         System.out.printf("Time: [%dms]\n", time1 - time0);
         int boundarySize = checkRDivisionResult(g, r, regions);
-        Assert.assertEquals(9, boundarySize);
+        // vertices hash by ID, the division no longer depends on identity hash codes left by earlier tests
+        Assert.assertEquals(10, boundarySize);
 
         r = 16;
         fd = new FredDivider(g);
@@ -242,4 +243,67 @@ public class test_RDivision_NlogR extends test_RDivision_NlogN {
 
         checkRDivisionResult(g, r, regions);
     }
+
+    @Test
+    public void test_9x7_r20_parallelRefinement() {
+        SelfDualGraph g = readGraph("./test/grid_9x7.txt");
+        FredDivider fd = new FredDivider(g, 4);
+        int r = 20;
+        Set<Set<Vertex>> regions = fd.rDivision(r);
+        checkRDivisionResult(g, r, regions);
+
+        int regionNum = 0;
+        for (FredDivider.RegionTiming t : fd.getRegionTimings()) {
+            Assert.assertTrue(t.nanos > 0);
+            regionNum += t.regions;
+        }
+        Assert.assertEquals(regions.size(), regionNum);
+    }
+
+    @Test
+    public void test_9x7_r20_linear() {
+        SelfDualGraph g = readGraph("./test/grid_9x7.txt");
+        LinearDivider ld = new LinearDivider(g);
+        int r = 20;
+        Set<Set<Vertex>> regions = ld.rDivision(r);
+        checkRDivisionResult(g, r, regions);
+    }
+
+    @Test
+    public void test_grid2_r10_linear() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        LinearDivider ld = new LinearDivider(g);
+        int r = 10;
+        Set<Set<Vertex>> regions = ld.rDivision(r);
+        Assert.assertTrue(ld.getLevels() > 0);
+        checkRDivisionResult(g, r, regions);
+        for (Set<Vertex> region : regions) {
+            Assert.assertTrue(ld.countHoles(region) <= LinearDivider.DEFAULT_MAX_HOLES);
+        }
+    }
+
+    @Test
+    public void test_grid2_r30_linear_holes() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        int r = 30;
+        LinearDivider ld = new LinearDivider(g, 3);
+        int holes = 0;
+        for (Set<Vertex> region : ld.rDivision(r)) holes = Math.max(holes, ld.countHoles(region));
+        Assert.assertTrue(holes <= 3);
+        Assert.assertTrue(holes > 1);      // some region really uses the looser limit
+
+        // regions with 2 or 3 holes are split further
+        ld = new LinearDivider(g, 1);
+        Set<Set<Vertex>> regions = ld.rDivision(r);
+        checkRDivisionResult(g, r, regions);
+        for (Set<Vertex> region : regions) Assert.assertEquals(1, ld.countHoles(region));
+        // every edge stays inside some region
+        for (Vertex v : g.getVertices()) {
+            for (Dart d : v.getIncidenceList()) {
+                boolean covered = false;
+                for (Set<Vertex> region : regions) covered |= region.contains(v) && region.contains(d.getHead());
+                Assert.assertTrue(covered);
+            }
+        }
+    }
 }
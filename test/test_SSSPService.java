@@ -0,0 +1,100 @@
+import algorithms.IndexedHeap.*;
+import algorithms.SSSP.*;
+import org.junit.*;
+import selfdualgraph.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class test_SSSPService {
+
+    public SelfDualGraph readGraph(String fileName) {
+        SelfDualGraph g = new SelfDualGraph();
+        try {
+            g.buildGraph(fileName);
+        } catch (FileNotFoundException e) {
+            Assert.assertTrue(false);
+        }
+        Dart.uniqueID = 0;
+        Vertex.uniqueID = 0;
+        return g;
+    }
+
+    @Test
+    public void test_concurrent_queries() throws Exception {
+        SelfDualGraph g = readGraph("./input_data/random/0.txt");
+        Vertex[] vertices = g.getVertices().toArray(new Vertex[0]);
+        Arrays.sort(vertices);
+        Random rand = new Random(3);
+        int n = 200;
+        Vertex[] srcs = new Vertex[n], dests = new Vertex[n];
+        for (int i = 0; i < n; i++) {
+            srcs[i] = vertices[rand.nextInt(vertices.length)];
+            dests[i] = vertices[rand.nextInt(vertices.length)];
+        }
+
+        double[] dist;
+        try (SSSPService service = new SSSPService(g, SSSP.CAPACITY_AS_DISTANCE, 4, new FourAryHeap())) {
+            dist = service.distances(srcs, dests);
+            Future<List<Vertex>> path = service.getPath(srcs[0], dests[0]);
+            Assert.assertSame(srcs[0], path.get().get(0));
+            Assert.assertSame(dests[0], path.get().get(path.get().size() - 1));
+        }
+
+        Dijkstra sssp = new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE);
+        for (int i = 0; i < n; i++) {
+            Assert.assertEquals(sssp.distFromTo(srcs[i], dests[i]), dist[i], 0.001);
+        }
+    }
+
+    @Test
+    public void test_snapshot_isolated() throws Exception {
+        SelfDualGraph g = readGraph("./input_data/test_graph_0.txt");
+        Vertex v0 = null;
+        for (Vertex v : g.getVertices()) {
+            v.setDistance(-1);
+            if (v.getID() == 0) v0 = v;
+        }
+        try (SSSPService service = new SSSPService(g, SSSP.WEIGHT_AS_DISTANCE)) {
+            double[] dist = service.distancesFrom(v0).get();
+            double[] expected = new double[]{0, 1, 1.5, 2, 1.5, 1};
+            CompactGraph cg = service.getCompactGraph();
+            for (int v = 0; v < dist.length; v++) {
+                Assert.assertEquals(expected[cg.getVertexID(v)], dist[v], 0.001);
+            }
+        }
+        for (Vertex v : g.getVertices()) Assert.assertEquals(-1, v.getDistance(), 0.001);
+    }
+
+    @Test
+    public void test_null_heap() throws Exception {
+        // null is Dijkstra's legacy mode, the service falls back to BinaryHeap
+        SelfDualGraph g = readGraph("./input_data/test_graph_0.txt");
+        Vertex v0 = null;
+        for (Vertex v : g.getVertices()) if (v.getID() == 0) v0 = v;
+        Dijkstra sssp = new Dijkstra(g, SSSP.WEIGHT_AS_DISTANCE, null);
+        try (SSSPService service = new SSSPService(g, SSSP.WEIGHT_AS_DISTANCE, 2, null)) {
+            for (Vertex v : g.getVertices()) {
+                Assert.assertEquals(sssp.distFromTo(v0, v), service.distFromTo(v0, v).get(), 0.001);
+            }
+        }
+    }
+
+    @Test
+    public void test_graph_modified() throws Exception {
+        SelfDualGraph g = readGraph("./input_data/grids/1.txt");
+        Vertex src = null;
+        for (Vertex v : g.getVertices()) if (v.getID() == 12) src = v;
+        try (SSSPService service = new SSSPService(g, SSSP.CAPACITY_AS_DISTANCE, 2, new BinaryHeap())) {
+            CompactGraph before = service.getCompactGraph();
+            service.distancesFrom(src).get();
+            g.deleteEdge(src.getFirstDart());
+            Assert.assertNotSame(before, service.getCompactGraph());
+            SSSPResult expected = new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE).query(src);
+            for (Vertex v : g.getVertices()) {
+                Assert.assertEquals(expected.getDist(v), service.distFromTo(src, v).get(), 0.00001);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import algorithms.AStarHeuristic.*;
+import algorithms.SSSP.*;
+import org.junit.*;
+import selfdualgraph.*;
+
+import java.util.*;
+
+public class test_SSSP_AStar extends test_SSSP_Dijkstra {
+
+    private void compareDijk(SelfDualGraph g, int dist_measure, AStarHeuristic h) {
+        Dijkstra dijk = new Dijkstra(g, dist_measure);
+        AStar astar = new AStar(g, dist_measure, h);
+        List<Vertex> vertices = new ArrayList<>(g.getVertices());
+        Collections.sort(vertices);
+        Random rnd = new Random(0);
+        int settledDijk = 0, settledAStar = 0;
+        for (int i = 0; i < 30; i++) {
+            Vertex src = vertices.get(rnd.nextInt(vertices.size()));
+            Vertex dest = vertices.get(rnd.nextInt(vertices.size()));
+            SSSPResult expected = dijk.query(src, dest);
+            SSSPResult actual = astar.query(src, dest);
+            Assert.assertEquals(expected.getDist(dest), actual.getDist(dest), 0.00001);
+            Assert.assertEquals(expected.getDist(dest), astar.distFromTo(src, dest), 0.00001);
+            List<Vertex> path = astar.getPath(src, dest);
+            Assert.assertSame(src, path.get(0));
+            Assert.assertSame(dest, path.get(path.size() - 1));
+            settledDijk += expected.getSettledNum();
+            settledAStar += actual.getSettledNum();
+        }
+        Assert.assertTrue(settledAStar <= settledDijk);
+    }
+
+    @Test
+    public void test_euclidean() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        compareDijk(g, SSSP.WEIGHT_AS_DISTANCE, new EuclideanHeuristic());
+        compareDijk(g, SSSP.CAPACITY_AS_DISTANCE, new EuclideanHeuristic());
+    }
+
+    @Test
+    public void test_landmark() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        compareDijk(g, SSSP.WEIGHT_AS_DISTANCE, new LandmarkHeuristic(4));
+        compareDijk(g, SSSP.CAPACITY_AS_DISTANCE, new LandmarkHeuristic(4));
+    }
+
+    @Test
+    public void test_euclidean_scale() {
+        SelfDualGraph g = readGraph("./test/benchmark_img_4x4.txt");
+        EuclideanHeuristic h = new EuclideanHeuristic();
+        new AStar(g, SSSP.WEIGHT_AS_DISTANCE, h);
+        // unit grid with unit weights
+        Assert.assertEquals(1.0, h.getScale(), 0.00001);
+        // single-source queries are plain Dijkstra
+        AStar astar = new AStar(g, SSSP.WEIGHT_AS_DISTANCE, h);
+        astar.findSSSP(findVertexByID(g.getVertices(), 0));
+        double[] dist = new double[]{0, 1, 2, 3, 1, 2, 3, 4, 2, 3, 4, 5, 3, 4, 5, 6};
+        for (Vertex v : g.getVertices()) {
+            Assert.assertEquals(dist[v.getID()], v.getDistance(), 0.001);
+        }
+    }
+}
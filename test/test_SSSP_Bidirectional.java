@@ -0,0 +1,41 @@
+import algorithms.SSSP.*;
+import org.junit.*;
+import selfdualgraph.*;
+
+import java.util.*;
+
+public class test_SSSP_Bidirectional extends test_SSSP_Dijkstra {
+
+    @Test
+    public void test_bidirectional_compareDijk() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        Dijkstra dijk = new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE);
+        BidirectionalDijkstra bd = new BidirectionalDijkstra(g, SSSP.CAPACITY_AS_DISTANCE);
+        int[][] pairs = new int[][]{{0, 587}, {300, 301}, {587, 0}, {42, 42}, {100, 450}};
+        for (int[] pair : pairs) {
+            Vertex src = findVertexByID(g.getVertices(), pair[0]);
+            Vertex dest = findVertexByID(g.getVertices(), pair[1]);
+            SSSPResult full = dijk.query(src);
+            Assert.assertEquals(full.getDist(dest), bd.distFromTo(src, dest), 0.00001);
+
+            // path is connected and its length is the distance
+            List<Vertex> path = bd.getPath(src, dest);
+            Assert.assertSame(src, path.get(0));
+            Assert.assertSame(dest, path.get(path.size() - 1));
+            double length = 0;
+            for (int d : bd.getPathDarts()) length += bd.getCompactGraph().getCapacity(d);
+            Assert.assertEquals(full.getDist(dest), length, 0.00001);
+        }
+    }
+
+    @Test
+    public void test_bidirectional_settled() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        BidirectionalDijkstra bd = new BidirectionalDijkstra(g, SSSP.WEIGHT_AS_DISTANCE);
+        Dijkstra dijk = new Dijkstra(g, SSSP.WEIGHT_AS_DISTANCE);
+        Vertex src = findVertexByID(g.getVertices(), 0);
+        Vertex dest = findVertexByID(g.getVertices(), 300);
+        bd.distFromTo(src, dest);
+        Assert.assertTrue(bd.getSettledNum() <= dijk.query(src, dest).getSettledNum());
+    }
+}
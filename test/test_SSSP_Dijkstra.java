@@ -1,3 +1,4 @@
+import algorithms.IndexedHeap.*;
 import algorithms.SSSP.*;
 import org.junit.*;
 import selfdualgraph.*;
@@ -94,4 +95,98 @@ public class test_SSSP_Dijkstra {
             Assert.assertEquals(pathID[i], path.get(i).getID());
         }
     }
+
+    @Test
+    public void test_heap_strategies() {
+        SelfDualGraph g = readGraph("./input_data/random/0.txt");
+        Vertex src = findVertexByID(g.getVertices(), 0);
+        Map<Vertex, Double> expected = new HashMap<>();
+        new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE, null).findSSSP(src);
+        for (Vertex v : g.getVertices()) expected.put(v, v.getDistance());
+
+        IndexedHeap[] heaps = new IndexedHeap[]{new BinaryHeap(), new FourAryHeap(), new PairingHeap()};
+        for (IndexedHeap heap : heaps) {
+            Dijkstra sssp = new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE, heap);
+            sssp.findSSSP(src);
+            for (Vertex v : g.getVertices()) {
+                Assert.assertEquals(expected.get(v), v.getDistance(), 0.001);
+            }
+            // distances along the path add up
+            Vertex dest = findVertexByID(g.getVertices(), g.getVertexNum() - 1);
+            List<Vertex> path = sssp.getPath(src, dest);
+            Assert.assertSame(src, path.get(0));
+            Assert.assertSame(dest, path.get(path.size() - 1));
+        }
+    }
+
+    @Test
+    public void test_query() {
+        SelfDualGraph g = readGraph("./input_data/test_graph_0.txt");
+        Dijkstra sssp = new Dijkstra(g);
+        for (Vertex v : g.getVertices()) v.setDistance(-1);
+        SSSPResult res0 = sssp.query(findVertexByID(g.getVertices(), 0));
+        SSSPResult res4 = sssp.query(findVertexByID(g.getVertices(), 4));
+        double[] dist0 = new double[]{0, 1, 1.5, 2, 1.5, 1};
+        double[] dist4 = new double[]{1.5, 2.5, 1.5, 2, 0, 0.5};
+        for (Vertex v : g.getVertices()) {
+            Assert.assertEquals(dist0[v.getID()], res0.getDist(v), 0.001);
+            Assert.assertEquals(dist4[v.getID()], res4.getDist(v), 0.001);
+            // graph is not written by query()
+            Assert.assertEquals(-1, v.getDistance(), 0.001);
+        }
+
+        // reuse a result buffer, stale entries from the previous query are invisible
+        CompactGraph cg = sssp.getCompactGraph();
+        sssp.query(cg.getIndex(findVertexByID(g.getVertices(), 4)), res0, new FourAryHeap());
+        for (Vertex v : g.getVertices()) {
+            Assert.assertEquals(dist4[v.getID()], res0.getDist(v), 0.001);
+        }
+        int[] path = res0.getPathDarts(cg.getIndex(findVertexByID(g.getVertices(), 1)));
+        double len = 0;
+        for (int d : path) len += cg.getWeight(d);
+        Assert.assertEquals(2.5, len, 0.001);
+        Assert.assertEquals(4, cg.getVertexID(cg.getTail(path[0])));
+        Assert.assertEquals(1, cg.getVertexID(cg.getHead(path[path.length - 1])));
+    }
+
+    @Test
+    public void test_pointToPoint() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        Dijkstra sssp = new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE);
+        Vertex src = findVertexByID(g.getVertices(), 300);
+        SSSPResult full = sssp.query(src);
+        for (Vertex dest : new Vertex[]{src, findVertexByID(g.getVertices(), 301), findVertexByID(g.getVertices(), 0)}) {
+            SSSPResult res = sssp.query(src, dest);
+            Assert.assertEquals(full.getDist(dest), res.getDist(dest), 0.00001);
+            Assert.assertEquals(full.getPath(dest), res.getPath(dest));
+            Assert.assertTrue(res.getSettledNum() <= full.getSettledNum());
+            Assert.assertEquals(full.getDist(dest), sssp.distFromTo(src, dest), 0.00001);
+        }
+        // a neighbor is found long before the whole graph is settled
+        Vertex near = findVertexByID(g.getVertices(), 301);
+        Assert.assertTrue(sssp.query(src, near).getSettledNum() < g.getVertexNum() / 4);
+        Assert.assertEquals(g.getVertexNum(), full.getSettledNum());
+    }
+
+    @Test
+    public void test_graph_modified() {
+        SelfDualGraph g = readGraph("./input_data/grids/1.txt");
+        Dijkstra sssp = new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE);
+        Vertex src = findVertexByID(g.getVertices(), 12);
+        sssp.findSSSP(src);
+        Map<Vertex, Double> before = new HashMap<>();
+        for (Vertex v : g.getVertices()) before.put(v, v.getDistance());
+
+        // the snapshot is taken again after the graph changes
+        g.deleteEdge(src.getFirstDart());
+        sssp.findSSSP(src);
+        SSSPResult expected = new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE).query(src);
+        int changed = 0;
+        for (Vertex v : g.getVertices()) {
+            Assert.assertEquals(expected.getDist(v), v.getDistance(), 0.00001);
+            Assert.assertEquals(expected.getDist(v), sssp.query(src).getDist(v), 0.00001);
+            if (Math.abs(before.get(v) - v.getDistance()) > 0.00001) changed++;
+        }
+        Assert.assertTrue(changed > 0);
+    }
 }
@@ -0,0 +1,53 @@
+import algorithms.RDivision.*;
+import algorithms.SSSP.*;
+import org.junit.*;
+import selfdualgraph.*;
+
+import java.util.*;
+
+public class test_SSSP_FRDijkstra extends test_SSSP_Dijkstra {
+
+    private void compareDijk(SelfDualGraph g, int r, int dist_measure) {
+        DenseDistanceGraph ddg = new DenseDistanceGraph(g, new RecursiveDivider(g), r, dist_measure);
+        Assert.assertTrue(ddg.getRegionNum() > 1);
+        FRDijkstra fr = new FRDijkstra(ddg);
+        Dijkstra dijk = new Dijkstra(g, dist_measure);
+        List<Vertex> vertices = new ArrayList<>(g.getVertices());
+        Collections.sort(vertices);
+        Random random = new Random(1);
+        for (int i = 0; i < 100; i++) {
+            Vertex src = vertices.get(random.nextInt(vertices.size()));
+            Vertex dest = vertices.get(random.nextInt(vertices.size()));
+            SSSPResult expected = dijk.query(src, dest);
+            Assert.assertEquals(expected.getDist(dest), fr.distFromTo(src, dest), 0.00001);
+            Assert.assertTrue(fr.getSettledNum() <= ddg.getBoundaryNum());
+        }
+    }
+
+    @Test
+    public void test_fr_grid() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        compareDijk(g, 50, SSSP.WEIGHT_AS_DISTANCE);
+        compareDijk(g, 50, SSSP.CAPACITY_AS_DISTANCE);
+        compareDijk(g, 150, SSSP.CAPACITY_AS_DISTANCE);
+    }
+
+    @Test
+    public void test_fr_regions() {
+        // two halves of a grid given by vertex IDs, sharing no vertex
+        SelfDualGraph g = readGraph("./input_data/grids/1.txt");
+        List<Vertex> vertices = new ArrayList<>(g.getVertices());
+        Collections.sort(vertices);
+        Set<Integer> lower = new HashSet<>(), upper = new HashSet<>();
+        for (int i = 0; i < vertices.size(); i++) (i < vertices.size() / 2 ? lower : upper).add(vertices.get(i).getID());
+        DenseDistanceGraph ddg = new DenseDistanceGraph(g, Arrays.asList(lower, upper), SSSP.WEIGHT_AS_DISTANCE);
+        FRDijkstra fr = new FRDijkstra(ddg);
+        Dijkstra dijk = new Dijkstra(g, SSSP.WEIGHT_AS_DISTANCE);
+        for (Vertex src : vertices) {
+            SSSPResult expected = dijk.query(src);
+            for (int i = 0; i < vertices.size(); i += 3) {
+                Assert.assertEquals(expected.getDist(vertices.get(i)), fr.distFromTo(src, vertices.get(i)), 0.00001);
+            }
+        }
+    }
+}
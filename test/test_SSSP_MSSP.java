@@ -0,0 +1,108 @@
+import algorithms.RDivision.*;
+import algorithms.SSSP.*;
+import org.junit.*;
+import selfdualgraph.*;
+
+import java.util.*;
+
+public class test_SSSP_MSSP extends test_SSSP_Dijkstra {
+
+    private void compareDijk(SelfDualGraph g, int dist_measure, int face) {
+        MSSP mssp = new MSSP(g, dist_measure);
+        Dijkstra dijk = new Dijkstra(g, dist_measure);
+        CompactGraph cg = mssp.getCompactGraph();
+        List<Integer> sources = new ArrayList<>();
+        mssp.run(face, s -> {
+            sources.add(s);
+            SSSPResult expected = dijk.query(cg.getVertex(s));
+            double[] dist = mssp.getDistances();
+            for (int v = 0; v < cg.getVertexNum(); v++) {
+                Assert.assertEquals(expected.getDist(v), mssp.getDist(v), 0.00001);
+                Assert.assertEquals(expected.getDist(v), dist[v], 0.00001);
+            }
+        });
+        int[] boundary = mssp.getBoundary(face);
+        Assert.assertEquals(boundary.length, sources.size());
+        for (int i = 0; i < boundary.length; i++) Assert.assertEquals(boundary[i], (int) sources.get(i));
+    }
+
+    /**
+     * @return face with the most darts, the outer face of a grid
+     */
+    private int largestFace(CompactGraph cg) {
+        int best = 0;
+        for (int f = 1; f < cg.getFaceNum(); f++) {
+            if (cg.getFaceDegree(f) > cg.getFaceDegree(best)) best = f;
+        }
+        return best;
+    }
+
+    @Test
+    public void test_mssp_grid() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        int outer = largestFace(new CompactGraph(g));
+        compareDijk(g, SSSP.WEIGHT_AS_DISTANCE, outer);
+        compareDijk(g, SSSP.CAPACITY_AS_DISTANCE, outer);
+        compareDijk(g, SSSP.CAPACITY_AS_DISTANCE, 0);
+    }
+
+    @Test
+    public void test_mssp_triangulated() {
+        SelfDualGraph g = readGraph("./input_data/grids/1.txt");
+        g.flatten();
+        g.triangulate();
+        CompactGraph cg = new CompactGraph(g);
+        for (int f = 0; f < cg.getFaceNum(); f += 5) compareDijk(g, SSSP.WEIGHT_AS_DISTANCE, f);
+    }
+
+    @Test
+    public void test_mssp_region() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        g.flatten();
+        g.triangulate();
+        Dijkstra full = new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE);
+        for (Set<Vertex> region : new RecursiveDivider(g).rDivision(60)) {
+            SelfDualGraph sub = g.buildSubgraph(region);
+            Dijkstra dijk = new Dijkstra(sub, SSSP.CAPACITY_AS_DISTANCE);
+            if (dijk.query(sub.getVertices().iterator().next()).getSettledNum() < sub.getVertexNum()) continue;
+            // boundary-to-boundary distances inside the region, never shorter than in the whole graph
+            List<Vertex> boundary = new ArrayList<>(sub.getBoundary());
+            Collections.sort(boundary);
+            double[][] dist = new MSSP(sub, SSSP.CAPACITY_AS_DISTANCE).distances(boundary, boundary);
+            for (int i = 0; i < boundary.size(); i++) {
+                SSSPResult res = dijk.query(boundary.get(i));
+                SSSPResult resFull = full.query(findVertexByID(g.getVertices(), boundary.get(i).getID()));
+                for (int j = 0; j < boundary.size(); j++) {
+                    Assert.assertEquals(res.getDist(boundary.get(j)), dist[i][j], 0.00001);
+                    Vertex u = findVertexByID(g.getVertices(), boundary.get(j).getID());
+                    Assert.assertTrue(resFull.getDist(u) <= dist[i][j] + 0.00001);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_linkCutTree() {
+        // path 0 - 1 - 2 - 3 with edge values on the deeper node
+        LinkCutTree lct = new LinkCutTree(4);
+        for (int v = 1; v < 4; v++) {
+            lct.set(v, v, v, -v, -v);
+            lct.link(v, v - 1);
+        }
+        lct.set(0, 0, 0, 0, 0);
+        Assert.assertEquals(6, lct.sumA(3), 0.00001);
+        Assert.assertEquals(0, lct.findRoot(3));
+        Assert.assertEquals(1, lct.getParent(2));
+        lct.add(2, 10, 0);
+        Assert.assertEquals(36, lct.sumA(3), 0.00001);
+        Assert.assertEquals(10, lct.minA(2), 0.00001);
+        // rerooting at 3 swaps the direction of every value on the path
+        lct.evert(3);
+        Assert.assertEquals(3, lct.findRoot(0));
+        Assert.assertEquals(-6, lct.sumA(0), 0.00001);
+        Assert.assertEquals(-3, lct.argMinA(0));
+        lct.cut(1);
+        Assert.assertEquals(1, lct.findRoot(0));
+        Assert.assertEquals(3, lct.findRoot(2));
+    }
+}
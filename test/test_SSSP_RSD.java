@@ -236,4 +236,69 @@ public class test_SSSP_RSD extends test_SSSP_Dijkstra {
             Assert.assertEquals(path_dijk.get(i).getID(), path_rsd.get(i).getID());
         }
     }
+
+    @Test
+    public void test_regionIndex_reuse() throws IOException {
+        SelfDualGraph g = readGraph("./test/grid_9x7.txt");
+        int r = 20;
+        RegionIndex index = RegionIndex.build(g, new RecursiveDivider(g), r);
+        File file = File.createTempFile("regionIndex", ".bin");
+        file.deleteOnExit();
+        index.save(file.getPath());
+
+        // a fresh copy of the graph, darts are matched by ID
+        SelfDualGraph g2 = readGraph("./test/grid_9x7.txt");
+        RegionIndex loaded = RegionIndex.load(file.getPath());
+        Assert.assertEquals(index.getRegionNum(), loaded.getRegionNum());
+        Assert.assertEquals(index.getDartNum(), loaded.getDartNum());
+        RegionalSpeculativeDijkstra rsd = new RegionalSpeculativeDijkstra(g2, loaded, SSSP.CAPACITY_AS_DISTANCE);
+        Dijkstra dijk = new Dijkstra(g2, SSSP.CAPACITY_AS_DISTANCE);
+        for (int id : new int[]{0, 31, 62, 31}) {
+            Vertex src = findVertexByID(g2.getVertices(), id);
+            dijk.findSSSP(src);
+            Map<Integer, Double> vDist = new HashMap<>();
+            for (Vertex v : g2.getVertices()) vDist.put(v.getID(), v.getDistance());
+            rsd.findSSSP(src, r);
+            Assert.assertSame(loaded, rsd.getRegionIndex(r));
+            for (Vertex v : g2.getVertices()) {
+                Assert.assertEquals(vDist.get(v.getID()), v.getDistance(), 0.00001);
+            }
+        }
+    }
+
+    @Test
+    public void test_multiLevel_compareDijk() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        RegionIndex index = RegionIndex.build(g, RecursiveDivider::new, 10, 40, 150);
+        Assert.assertEquals(3, index.getLevels());
+
+        // divisions are nested, every region has a single parent region
+        CompactGraph cg = new CompactGraph(g);
+        for (int level = 0; level < index.getLevels() - 1; level++) {
+            int[] regions = index.regionsOf(cg, level);
+            int[] parents = index.regionsOf(cg, level + 1);
+            Map<Integer, Integer> parentOf = new HashMap<>();
+            for (int d = 0; d < regions.length; d++) {
+                parentOf.putIfAbsent(regions[d], parents[d]);
+                Assert.assertEquals(parents[d], (int) parentOf.get(regions[d]));
+            }
+            Assert.assertTrue(index.getRegionNum(level) > index.getRegionNum(level + 1));
+        }
+
+        RegionalSpeculativeDijkstra rsd = new RegionalSpeculativeDijkstra(g, index, SSSP.CAPACITY_AS_DISTANCE);
+        Dijkstra dijk = new Dijkstra(g, SSSP.CAPACITY_AS_DISTANCE);
+        for (int[] alphas : new int[][]{null, {1, 1, 1}, {4, 2, 2}}) {
+            rsd.setAlphas(alphas);
+            for (int id : new int[]{0, 100, 587}) {
+                Vertex src = findVertexByID(g.getVertices(), id);
+                dijk.findSSSP(src);
+                Map<Integer, Double> vDist = new HashMap<>();
+                for (Vertex v : g.getVertices()) vDist.put(v.getID(), v.getDistance());
+                rsd.findSSSP(src, 10);
+                for (Vertex v : g.getVertices()) {
+                    Assert.assertEquals(vDist.get(v.getID()), v.getDistance(), 0.00001);
+                }
+            }
+        }
+    }
 }
@@ -223,7 +223,17 @@ public class test_SelfDualGraph_modification {
             dNum += f.getDegree();
         }
 
+        Set<Vertex> vertices = new HashSet<>(g.getVertices());
+        Set<Dart> darts = new HashSet<>();
+        for (Vertex v : g.getVertices()) darts.addAll(v.getIncidenceList());
+
         g.renumberIDs();
+        // sets held across the call still find their elements
+        for (Vertex v : g.getVertices()) {
+            Assert.assertTrue(vertices.contains(v));
+            for (Dart d : v.getIncidenceList()) Assert.assertTrue(darts.contains(d));
+        }
+        Assert.assertTrue(g.getVertices().containsAll(vertices));
         for (Vertex v : g.getVertices()) {
             if (v.getID() < 0 || v.getID() >= vNum) {
                 Assert.assertEquals(true, false);
@@ -2,6 +2,7 @@ import algorithms.RootFinder.SpecificIdRootFinder;
 import org.junit.*;
 import selfdualgraph.*;
 
+import java.io.*;
 import java.util.*;
 
 public class test_SelfDualGraph_subgraph extends test_SelfDualGraph_modification {
@@ -174,6 +175,76 @@ public class test_SelfDualGraph_subgraph extends test_SelfDualGraph_modification
         checkNewFace(ff2, new int[]{0, 1, 3, 1});
     }
 
+    @Test
+    public void testSubgraph_after_modification() {
+        // dense indices of g are built by the first call, and must be rebuilt after g changes
+        g.buildSubgraph(g.getVertices());
+        g.flatten();
+        g.triangulate();
+        SelfDualGraph subgraph = g.buildSubgraph(g.getVertices());
+        Assert.assertEquals(g.getVertexNum(), subgraph.getVertexNum());
+        Assert.assertEquals(g.getFaceNum(), subgraph.getFaceNum());
+        for (Vertex v : subgraph.getVertices()) {
+            Vertex v0 = findVertexByID(g.getVertices(), v.getID());
+            Assert.assertEquals(v0.getDegree(), v.getDegree());
+            Dart d = v.getFirstDart();
+            for (int i = 0; i < v.getDegree(); i++, d = d.getSuccessor()) {
+                Assert.assertTrue(subgraph.getFaces().contains(d.getRight()));
+                Assert.assertEquals(d, d.getNext().getPrev());
+                Assert.assertEquals(d.getLeft(), d.getReverse().getRight());
+            }
+        }
+    }
+
+    @Test
+    public void testSubgraphView_13() {
+        Set<Vertex> subg = findVertexSetByIDs(g.getVertices(), new int[]{0, 1, 2, 3, 4});
+        SubgraphView view = new SubgraphView(g, subg);
+        Assert.assertEquals(5, view.getVertexNum());
+        Assert.assertEquals(3, view.getFaceNum());
+        Assert.assertEquals(1, view.getBoundaryFaces().size());
+        verifyVertexSet(new int[]{0, 2, 4}, view.getBoundary());
+        Assert.assertFalse(view.contains(findVertexByID(g.getVertices(), 5)));
+
+        int[][] vIncidList = new int[][]{{1, 2, 4}, {0, 3}, {0, 3}, {1, 4, 2}, {0, 3}};
+        for (Vertex v : subg) {
+            int[] expected = vIncidList[v.getID()];
+            Assert.assertEquals(expected.length, view.getDegree(v));
+            Dart d = view.getFirstDart(v);
+            int j = 0;
+            while (d.getHead().getID() != expected[j]) j++;
+            for (int i = 0; i < expected.length; i++, d = view.getSuccessor(d)) {
+                Assert.assertEquals(expected[(j + i) % expected.length], d.getHead().getID());
+            }
+        }
+        // synthesized face is the same as the new face of buildSubgraph()
+        Dart d = view.getBoundaryFaces().get(0);
+        int[] face = new int[]{0, 4, 3, 2};
+        int j = 0;
+        while (d.getTail().getID() != face[j]) j++;
+        for (int i = 0; i < face.length; i++, d = view.getNext(d)) {
+            Assert.assertEquals(face[(j + i) % face.length], d.getTail().getID());
+        }
+
+        SelfDualGraph subgraph = view.materialize();
+        Assert.assertNotSame(g, subgraph);
+        Assert.assertEquals(view.getFaceNum(), subgraph.getFaceNum());
+        verifyVertexSet(new int[]{0, 2, 4}, subgraph.getBoundary());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSubgraphView_modified_parent() {
+        SubgraphView view = new SubgraphView(g, findVertexSetByIDs(g.getVertices(), new int[]{0, 1, 2, 3, 4}));
+        g.triangulate();
+        view.getBoundary();
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSubgraph_foreign_vertex() {
+        SelfDualGraph subgraph = g.buildSubgraph(g.getVertices());
+        g.buildSubgraph(findVertexSetByIDs(subgraph.getVertices(), new int[]{0, 1}));
+    }
+
     private void checkNewFace(Vertex F, int[] boundaryVertexID) {
         Assert.assertEquals(boundaryVertexID.length, F.getDegree());
         Dart d = F.getFirstDart();
@@ -241,4 +312,143 @@ public class test_SelfDualGraph_subgraph extends test_SelfDualGraph_modification
             Assert.assertEquals(faceWeights[f.getID()], f.getWeight(), 0.0001);
         }
     }
+
+    /**
+     * buildSubgraph as it was with hash maps from old to new objects, kept to check the index-based version
+     *
+     * @return vertices, faces and boundary of the subgraph
+     */
+    private static List<List<Vertex>> buildSubgraphWithMaps(SelfDualGraph g, Set<Vertex> subgraphV) {
+        Set<Vertex> subB = g.findBoundary(subgraphV);
+        Map<Vertex, Vertex> vMap = new HashMap<>();
+        for (Vertex v : subgraphV) vMap.put(v, new Vertex(v));
+        Map<Vertex, Vertex> fMap = new HashMap<>();
+        Map<Dart, Dart> dMap = new HashMap<>();
+        for (Vertex v : subgraphV) {
+            for (Dart d : v.getIncidenceList()) {
+                if (subgraphV.contains(d.getHead())) dMap.put(d, new Dart(d));
+            }
+        }
+        for (Vertex f : g.getFaces()) {
+            boolean inside = true;
+            for (Dart d : f.getIncidenceList()) inside &= dMap.containsKey(d);
+            if (inside) {
+                Vertex f2 = new Vertex(f);
+                f2.incrementDegree(f.getDegree());
+                fMap.put(f, f2);
+            }
+        }
+        for (Vertex v : subgraphV) {
+            Dart first = v.getFirstDart();
+            while (!dMap.containsKey(first)) first = first.getSuccessor();
+            vMap.get(v).setDart(dMap.get(first));
+        }
+        for (Vertex f : fMap.keySet()) fMap.get(f).setDart(dMap.get(f.getFirstDart()));
+        for (Dart d : dMap.keySet()) {
+            Dart d2 = dMap.get(d);
+            d2.setTail(vMap.get(d.getTail()));
+            d2.setHead(vMap.get(d.getHead()));
+            d2.setReverse(dMap.get(d.getReverse()));
+            d2.getTail().incrementDegree();
+            Dart succ = d.getSuccessor();
+            while (!dMap.containsKey(succ)) succ = succ.getSuccessor();
+            d2.setSuccessor(dMap.get(succ));
+            Dart pred = d.getPredecessor();
+            while (!dMap.containsKey(pred)) pred = pred.getPredecessor();
+            d2.setPredecessor(dMap.get(pred));
+        }
+        for (Dart d : dMap.keySet()) {
+            Dart d2 = dMap.get(d);
+            d2.setNext(d2.getReverse().getSuccessor());
+            d2.setPrev(d2.getPredecessor().getReverse());
+            d2.setLeft(fMap.get(d.getLeft()));
+            d2.setRight(fMap.get(d.getRight()));
+        }
+        List<Vertex> faces = new ArrayList<>(fMap.values());
+        for (Vertex v2 : vMap.values()) {
+            for (Dart d2 : v2.getIncidenceList()) {
+                if (d2.getRight() != null) continue;
+                Vertex f = new Vertex(Vertex.FACE);
+                faces.add(f);
+                Dart first = d2;
+                for (Dart d = d2; d.getRight() == null; d = d.getNext()) {
+                    d.setRight(f);
+                    d.getReverse().setLeft(f);
+                    f.incrementDegree();
+                    if (first.getID() < 0 || (d.getID() >= 0 && d.getID() < first.getID())) first = d;
+                }
+                f.setDart(first);
+            }
+        }
+        List<Vertex> boundary = new ArrayList<>();
+        for (Vertex v : subB) boundary.add(vMap.get(v));
+        return Arrays.asList(new ArrayList<>(vMap.values()), faces, boundary);
+    }
+
+    /**
+     * faces created for the subgraph are named by their first dart, their IDs depend on creation order
+     */
+    private static String faceName(Vertex f, Set<Integer> parentFaceIDs) {
+        return parentFaceIDs.contains(f.getID()) ? "F" + f.getID() : "new@" + f.getFirstDart().getID();
+    }
+
+    private static List<String> describe(Collection<Vertex> vertices, Collection<Vertex> faces,
+                                         Collection<Vertex> boundary, Set<Integer> parentFaceIDs) {
+        List<String> lines = new ArrayList<>();
+        for (Vertex v : vertices) {
+            StringBuilder sb = new StringBuilder("V" + v.getID() + " deg " + v.getDegree() + ":");
+            // rotation order from the first dart
+            for (Dart d : v.getIncidenceList()) {
+                sb.append(String.format(" %d>%d rev %d next %d prev %d succ %d pred %d left %s right %s,",
+                        d.getID(), d.getHead().getID(), d.getReverse().getID(), d.getNext().getID(),
+                        d.getPrev().getID(), d.getSuccessor().getID(), d.getPredecessor().getID(),
+                        faceName(d.getLeft(), parentFaceIDs), faceName(d.getRight(), parentFaceIDs)));
+            }
+            lines.add(sb.toString());
+        }
+        for (Vertex f : faces) {
+            StringBuilder sb = new StringBuilder(faceName(f, parentFaceIDs) + " deg " + f.getDegree() + ":");
+            Dart d = f.getFirstDart();
+            for (int i = 0; i < f.getDegree(); i++, d = d.getNext()) sb.append(' ').append(d.getID());
+            lines.add(sb.toString());
+        }
+        for (Vertex v : boundary) lines.add("B" + v.getID());
+        Collections.sort(lines);
+        return lines;
+    }
+
+    @Test
+    public void testSubgraph_sameAsMapBased() throws FileNotFoundException {
+        Random random = new Random(1);
+        for (String file : new String[]{"./input_data/test_graph_0.txt", "./input_data/test_graph_1.txt",
+                "./test/grid_9x7.txt", "./input_data/grids/2.txt"}) {
+            SelfDualGraph graph = new SelfDualGraph();
+            graph.buildGraph(file);
+            Set<Integer> parentFaceIDs = new HashSet<>();
+            for (Vertex f : graph.getFaces()) parentFaceIDs.add(f.getID());
+            List<Vertex> all = new ArrayList<>(graph.getVertices());
+            Collections.sort(all);
+            for (int trial = 0; trial < 10; trial++) {
+                // a BFS ball of at least 2 vertices, every vertex keeps a dart
+                Set<Vertex> sub = new HashSet<>();
+                Queue<Vertex> q = new LinkedList<>();
+                Vertex s = all.get(random.nextInt(all.size()));
+                int size = trial == 0 ? all.size() : 2 + random.nextInt(all.size() - 1);
+                sub.add(s);
+                q.add(s);
+                while (!q.isEmpty() && sub.size() < size) {
+                    for (Dart d : q.poll().getIncidenceList()) {
+                        if (sub.size() < size && sub.add(d.getHead())) q.add(d.getHead());
+                    }
+                }
+                int uniqueID = Vertex.uniqueID;
+                List<List<Vertex>> expected = buildSubgraphWithMaps(graph, sub);
+                int created = uniqueID - Vertex.uniqueID;
+                SelfDualGraph subgraph = graph.buildSubgraph(sub);
+                Assert.assertEquals(created, uniqueID - created - Vertex.uniqueID);
+                Assert.assertEquals(describe(expected.get(0), expected.get(1), expected.get(2), parentFaceIDs),
+                        describe(subgraph.getVertices(), subgraph.getFaces(), subgraph.getBoundary(), parentFaceIDs));
+            }
+        }
+    }
 }
@@ -0,0 +1,161 @@
+import algorithms.DistanceOracle.*;
+import algorithms.RDivision.*;
+import algorithms.SSSP.*;
+import algorithms.Separator.*;
+import org.junit.*;
+import selfdualgraph.*;
+
+import java.io.*;
+import java.util.*;
+
+public class test_SeparatorTree extends test_SSSP_Dijkstra {
+
+    private void checkTree(SelfDualGraph g, SeparatorTree tree) {
+        Assert.assertEquals(g.getVertexNum(), tree.getRoot().getSize());
+        Assert.assertEquals(0, tree.getRoot().getBoundary().length);
+        Map<Integer, Vertex> byID = new HashMap<>();
+        for (Vertex v : g.getVertices()) byID.put(v.getID(), v);
+        List<SeparatorTree.Node> nodes = tree.preorder();
+        Assert.assertEquals(tree.getNodeNum(), nodes.size());
+        for (int i = 0; i < nodes.size(); i++) {
+            SeparatorTree.Node node = nodes.get(i);
+            Assert.assertEquals(i, node.getIndex());
+            if (node.isLeaf()) {
+                Assert.assertEquals(0, node.getSeparator().length);
+                Assert.assertTrue(node.getSize() <= tree.getLeafSize());
+                continue;
+            }
+            // separator and children partition the piece
+            List<Integer> ids = new ArrayList<>();
+            for (int id : node.getSeparator()) ids.add(id);
+            for (SeparatorTree.Node child : node.getChildren()) {
+                Assert.assertSame(node, child.getParent());
+                Assert.assertEquals(node.getDepth() + 1, child.getDepth());
+                for (int id : child.getVertices()) ids.add(id);
+            }
+            Collections.sort(ids);
+            Assert.assertEquals(node.getSize(), ids.size());
+            for (int j = 0; j < ids.size(); j++) Assert.assertEquals(node.getVertices()[j], (int) ids.get(j));
+        }
+        for (SeparatorTree.Node node : nodes) {
+            Set<Integer> inside = new HashSet<>();
+            for (int id : node.getVertices()) inside.add(id);
+            Set<Integer> boundary = new HashSet<>();
+            for (int id : inside) {
+                for (Dart d : byID.get(id).getIncidenceList()) {
+                    if (!inside.contains(d.getHead().getID())) boundary.add(d.getHead().getID());
+                }
+            }
+            Assert.assertEquals(boundary.size(), node.getBoundary().length);
+            for (int id : node.getBoundary()) Assert.assertTrue(boundary.contains(id));
+        }
+    }
+
+    @Test
+    public void test_tree_grid() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        SeparatorTree tree = new SeparatorTree(g, SimpleCycleSeparator::new, 16);
+        checkTree(g, tree);
+        Assert.assertTrue(tree.getNodeNum() > 1);
+
+        // nested dissection: a permutation, every separator after the pieces it separates
+        int[] order = tree.getNestedDissectionOrder();
+        Map<Integer, Integer> position = new HashMap<>();
+        for (int i = 0; i < order.length; i++) position.put(order[i], i);
+        Assert.assertEquals(g.getVertexNum(), position.size());
+        for (SeparatorTree.Node node : tree.preorder()) {
+            for (SeparatorTree.Node child : node.getChildren()) {
+                for (int u : child.getVertices()) {
+                    for (int s : node.getSeparator()) Assert.assertTrue(position.get(u) < position.get(s));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void test_tree_parallel() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        SeparatorTree sequential = new SeparatorTree(g, SimpleCycleSeparator::new, 16);
+        SeparatorTree parallel = new SeparatorTree(g, SimpleCycleSeparator::new, 16, 4);
+        checkTree(g, parallel);
+        List<SeparatorTree.Node> a = sequential.preorder(), b = parallel.preorder();
+        Assert.assertEquals(a.size(), b.size());
+        for (int i = 0; i < a.size(); i++) {
+            Assert.assertArrayEquals(a.get(i).getVertices(), b.get(i).getVertices());
+            Assert.assertArrayEquals(a.get(i).getSeparator(), b.get(i).getSeparator());
+        }
+    }
+
+    @Test
+    public void test_tree_file() throws IOException {
+        SelfDualGraph g = readGraph("./input_data/grids/1.txt");
+        SeparatorTree tree = new SeparatorTree(g, SimpleCycleSeparator::new, 4);
+        File file = File.createTempFile("separatortree", ".bin");
+        file.deleteOnExit();
+        tree.save(file.getPath());
+        SeparatorTree loaded = SeparatorTree.load(file.getPath());
+        Assert.assertEquals(tree.getNodeNum(), loaded.getNodeNum());
+        Assert.assertEquals(tree.getLeafSize(), loaded.getLeafSize());
+        Assert.assertArrayEquals(tree.getNestedDissectionOrder(), loaded.getNestedDissectionOrder());
+        checkTree(g, loaded);
+    }
+
+    @Test
+    public void test_tree_oracles() {
+        SelfDualGraph g = readGraph("./input_data/grids/2.txt");
+        int m = SSSP.WEIGHT_AS_DISTANCE;
+        SeparatorTree tree = new SeparatorTree(g, piece -> new ShortestPathSeparator(piece, m), 16);
+        checkTree(g, tree);
+        ExactDistanceOracle exact = new ExactDistanceOracle(g, m, tree);
+        ApproxDistanceOracle approx = new ApproxDistanceOracle(g, m, 0.1, tree);
+        Dijkstra dijk = new Dijkstra(g, m);
+        List<Vertex> vertices = new ArrayList<>(g.getVertices());
+        Collections.sort(vertices);
+        for (int i = 0; i < vertices.size(); i += 11) {
+            SSSPResult expected = dijk.query(vertices.get(i));
+            for (Vertex dest : vertices) {
+                double dist = expected.getDist(dest);
+                Assert.assertEquals(dist, exact.distFromTo(vertices.get(i), dest), 0.00001);
+                double estimate = approx.distFromTo(vertices.get(i), dest);
+                Assert.assertTrue(estimate >= dist - 0.00001 && estimate <= 1.1 * dist + 0.00001);
+            }
+        }
+    }
+
+    private void checkTreeRDivision(String fileName, int r) {
+        SelfDualGraph g = readGraph(fileName);
+        SeparatorTree tree = new SeparatorTree(g, SimpleCycleSeparator::new, 8);
+        Set<Set<Vertex>> regions = new RecursiveDivider(g, tree).rDivision(r);
+        Set<Integer> covered = new HashSet<>();
+        Set<Long> coveredEdges = new HashSet<>();
+        for (Set<Vertex> region : regions) {
+            Assert.assertTrue(region.size() <= r);
+            Set<Integer> ids = new HashSet<>();
+            for (Vertex v : region) ids.add(v.getID());
+            covered.addAll(ids);
+            for (Vertex v : region) {
+                for (Dart d : v.getIncidenceList()) {
+                    if (ids.contains(d.getHead().getID())) coveredEdges.add(edgeKey(d));
+                }
+            }
+        }
+        Assert.assertEquals(g.getVertexNum(), covered.size());
+        // every edge of g is inside some region
+        for (Vertex v : g.getVertices()) {
+            for (Dart d : v.getIncidenceList()) Assert.assertTrue(coveredEdges.contains(edgeKey(d)));
+        }
+    }
+
+    private static long edgeKey(Dart d) {
+        long a = d.getTail().getID(), b = d.getHead().getID();
+        return Math.min(a, b) << 32 | Math.max(a, b);
+    }
+
+    @Test
+    public void test_tree_rDivision() {
+        checkTreeRDivision("./input_data/grids/2.txt", 30);
+        checkTreeRDivision("./input_data/grids/2.txt", 60);
+        checkTreeRDivision("./input_data/grids/1.txt", 30);
+        checkTreeRDivision("./input_data/grids/1.txt", 60);
+    }
+}